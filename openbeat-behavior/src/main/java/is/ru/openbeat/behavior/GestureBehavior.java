@@ -45,13 +45,19 @@
 
 package is.ru.openbeat.behavior;
 
+import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.knowledge.IArm;
 import is.ru.openbeat.knowledge.IGesture;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * <tt>GestureBehavior</tt> stores the information of the type, value, priority, list of arms and gestureType of the behavior.
+ * <p/>
+ * Gestures of the knowledge base are shared between utterances, so the knowledge base hands out {@link
+ * #immutableCopy(IGesture, GestureType) immutable copies} and the generators place them with a {@link
+ * GesturePlacement} that has a priority of its own.
  *
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
@@ -61,6 +67,7 @@ public class GestureBehavior implements IGesture, IBmlProducer {
     private Integer priority;
     private List<IArm> arms;
     private GestureType gestureType;
+    private transient boolean immutable;
 
     public GestureBehavior() {
     }
@@ -91,11 +98,29 @@ public class GestureBehavior implements IGesture, IBmlProducer {
         this.priority = priority;
     }
 
+    /**
+     * Creates an immutable copy of the gesture with the given gesture type. The setters of the copy throw an {@link
+     * UnsupportedOperationException}.
+     *
+     * @param gesture     the gesture to copy
+     * @param gestureType the gesture type of the copy
+     * @return an immutable gesture
+     */
+    public static GestureBehavior immutableCopy(IGesture gesture, GestureType gestureType) {
+        final List<IArm> arms = gesture.getArms();
+        final GestureBehavior copy = new GestureBehavior(gesture.getType(), gesture.getValue(),
+            arms != null ? Collections.unmodifiableList(newArrayList(arms)) : null, gestureType);
+        copy.priority = gesture.getPriority();
+        copy.immutable = true;
+        return copy;
+    }
+
     public String getType() {
         return type;
     }
 
     public void setType(String type) {
+        checkMutable();
         this.type = type;
     }
 
@@ -104,6 +129,7 @@ public class GestureBehavior implements IGesture, IBmlProducer {
     }
 
     public void setValue(String value) {
+        checkMutable();
         this.value = value;
     }
 
@@ -112,6 +138,7 @@ public class GestureBehavior implements IGesture, IBmlProducer {
     }
 
     public void setPriority(Integer priority) {
+        checkMutable();
         this.priority = priority;
     }
 
@@ -120,6 +147,7 @@ public class GestureBehavior implements IGesture, IBmlProducer {
     }
 
     public void setArms(List<IArm> arms) {
+        checkMutable();
         this.arms = arms;
     }
 
@@ -128,9 +156,16 @@ public class GestureBehavior implements IGesture, IBmlProducer {
     }
 
     public void setGestureType(GestureType gestureType) {
+        checkMutable();
         this.gestureType = gestureType;
     }
 
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException(this + " is shared and can't be changed");
+        }
+    }
+
     public String createBml(Float beginTime, Float endTime) {
         if ("iconic".equals(type) && !arms.isEmpty()) {
             final StringBuilder sb = new StringBuilder();
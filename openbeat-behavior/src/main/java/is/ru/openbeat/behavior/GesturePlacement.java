@@ -0,0 +1,109 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.behavior;
+
+import is.ru.openbeat.knowledge.IGesture;
+
+/**
+ * Class <tt>GesturePlacement</tt> places a gesture on a feature structure with a priority of its own. The gestures of
+ * the knowledge base are shared between all utterances and can't be changed, so the priority of a single placement is
+ * kept here instead of on the gesture.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class GesturePlacement implements IBehavior, IBmlProducer {
+    private final IGesture gesture;
+    private Integer priority;
+
+    public GesturePlacement(IGesture gesture, Integer priority) {
+        this.gesture = gesture;
+        this.priority = priority;
+    }
+
+    public IGesture getGesture() {
+        return gesture;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public String createBml(Float beginTime, Float endTime) {
+        return gesture instanceof IBmlProducer ? ((IBmlProducer) gesture).createBml(beginTime, endTime) : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        GesturePlacement that = (GesturePlacement) o;
+
+        if (gesture != null ? !gesture.equals(that.gesture) : that.gesture != null) return false;
+        if (priority != null ? !priority.equals(that.priority) : that.priority != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = gesture != null ? gesture.hashCode() : 0;
+        result = 31 * result + (priority != null ? priority.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+            "gesture=" + gesture +
+            ", priority=" + priority +
+            '}';
+    }
+}
@@ -46,6 +46,7 @@
 package is.ru.openbeat.filter;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import com.google.inject.Singleton;
 import is.ru.openbeat.annotation.ConflictsWith;
 import is.ru.openbeat.behavior.IBehavior;
@@ -59,6 +60,9 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <tt>ConflictFilter</tt> Removes conflicting behaviors.
@@ -77,9 +81,17 @@ class ConflictFilter implements IBehaviorFilter {
 
     private final Multimethod mm = new Multimethod(this);
 
+    // the behavior classes each behavior class conflicts with, read from its annotations once
+    private final ConcurrentMap<Class<?>, Set<Class<?>>> conflicts = new ConcurrentHashMap<Class<?>, Set<Class<?>>>();
+
     public Utterance process(Utterance utterance) {
         log.debug("Running {}", getClass().getSimpleName());
 
+        if (!hasConflicts(utterance.getBehaviorStore())) {
+            log.debug("No conflicting behavior classes in utterance");
+            return utterance;
+        }
+
         final List<IBehaviorContainer> behaviorContainers = newArrayList();
 
         for (Clause clause : utterance.getClauses()) {
@@ -93,7 +105,7 @@ class ConflictFilter implements IBehaviorFilter {
     }
 
     @Multi
-    private void handleTheme(List<IBehaviorContainer> behaviorContainers, Theme theme) {
+    void handleTheme(List<IBehaviorContainer> behaviorContainers, Theme theme) {
         log.debug("Adding theme {}", theme);
         behaviorContainers.add(theme);
         for (IFeatureStructure featureStructure : theme.getPhrases()) {
@@ -103,7 +115,7 @@ class ConflictFilter implements IBehaviorFilter {
     }
 
     @Multi
-    private void handleRheme(List<IBehaviorContainer> behaviorContainers, Rheme rheme) {
+    void handleRheme(List<IBehaviorContainer> behaviorContainers, Rheme rheme) {
         log.debug("Adding rheme {}", rheme);
         behaviorContainers.add(rheme);
         for (IFeatureStructure featureStructure : rheme.getPhrases()) {
@@ -113,7 +125,7 @@ class ConflictFilter implements IBehaviorFilter {
     }
 
     @Multi
-    private void handleConstituent(List<IBehaviorContainer> behaviorContainers, Constituent constituent) {
+    void handleConstituent(List<IBehaviorContainer> behaviorContainers, Constituent constituent) {
         log.debug("Adding constituent {}", constituent);
         behaviorContainers.add(constituent);
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
@@ -123,7 +135,7 @@ class ConflictFilter implements IBehaviorFilter {
     }
 
     @Multi
-    private void handleWord(List<IBehaviorContainer> behaviorContainers, Word word) {
+    void handleWord(List<IBehaviorContainer> behaviorContainers, Word word) {
         log.debug("Adding word {}", word);
         behaviorContainers.add(word);
         handleConflict(behaviorContainers);
@@ -137,6 +149,9 @@ class ConflictFilter implements IBehaviorFilter {
     private void handleConflict(List<IBehaviorContainer> behaviorContainers) {
         for (int i = 0; i < behaviorContainers.size(); i++) {
             IBehaviorContainer bc1 = behaviorContainers.get(i);
+            if (bc1.getBehaviors().isEmpty()) {
+                continue;
+            }
 
             for (int j = 1; j < behaviorContainers.size(); j++) {
                 IBehaviorContainer bc2 = behaviorContainers.get(j);
@@ -169,6 +184,24 @@ class ConflictFilter implements IBehaviorFilter {
         behaviorContainers.remove(behaviorContainers.size() - 1);
     }
 
+    /**
+     * Checks the classes of the behaviors in the utterance, if no two of them conflict there is nothing to remove and
+     * the tree doesn't have to be walked.
+     * @param store the behaviors of the utterance
+     * @return true if some behaviors may conflict
+     */
+    private boolean hasConflicts(BehaviorStore store) {
+        final Set<Class<? extends IBehavior>> classes = store.getBehaviorClasses();
+        for (Class<? extends IBehavior> behaviorClass : classes) {
+            for (Class<?> conflict : conflictsOf(behaviorClass)) {
+                if (classes.contains(conflict)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private boolean matchConflict(IBehavior b1, IBehavior b2) {
         return doesConflict(b1, b2) || doesConflict(b2, b1);
     }
@@ -181,18 +214,28 @@ class ConflictFilter implements IBehaviorFilter {
      * @return true/false
      */
     private boolean doesConflict(IBehavior b1, IBehavior b2) {
-        for (Annotation annotation : b1.getClass().getAnnotations()) {
-            if (ConflictsWith.class.isAssignableFrom(annotation.getClass())) {
-                ConflictsWith conflictsWith = (ConflictsWith) annotation;
-                for (Class<? extends IBehavior> conflict : conflictsWith.value()) {
-                    if (b2.getClass().equals(conflict)) {
-                        return true;
+        if (conflictsOf(b1.getClass()).contains(b2.getClass())) {
+            return true;
+        }
+        log.trace("{} does not conflict with {}", b1, b2);
+        return false;
+    }
+
+    private Set<Class<?>> conflictsOf(Class<?> behaviorClass) {
+        Set<Class<?>> classes = conflicts.get(behaviorClass);
+        if (classes == null) {
+            classes = newHashSet();
+            for (Annotation annotation : behaviorClass.getAnnotations()) {
+                if (ConflictsWith.class.isAssignableFrom(annotation.getClass())) {
+                    ConflictsWith conflictsWith = (ConflictsWith) annotation;
+                    for (Class<? extends IBehavior> conflict : conflictsWith.value()) {
+                        classes.add(conflict);
                     }
                 }
             }
+            conflicts.put(behaviorClass, classes);
         }
-        log.trace("{} does not conflict with {}", b1, b2);
-        return false;
+        return classes;
     }
 
     /**
@@ -45,10 +45,11 @@
 
 package is.ru.openbeat.generator;
 
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.multimethod.Multi;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.behavior.GestureBehavior;
 import is.ru.openbeat.knowledge.IGesture;
@@ -56,52 +57,40 @@ import static is.ru.openbeat.knowledge.IGesture.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 
 @Singleton
-public class BeatGenerator implements IBehaviorGenerator {
+public class BeatGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(BeatGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
 
     @Inject
-    public BeatGenerator(IDiscourseModel discourseModel) {
+    public BeatGenerator(Provider<IDiscourseModel> discourseModel) {
         this.discourseModel = discourseModel;
     }
 
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            mm.match(clause.getArticulations().getFirst());
-            mm.match(clause.getArticulations().getSecond());
-        }
-        return utterance;
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    @Multi
-    private void handleRheme(Rheme rheme) {
-        log.debug("Rheme: {}", rheme);
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            mm.match(rheme, featureStructure);
-        }
-    }
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-    @Multi
-    private void handleConstituent(Rheme rheme, Constituent constituent) {
-        log.debug("Constituent: {}", constituent);
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(rheme, featureStructure);
-        }
-    }
-    @Multi
-    private void handleWord(Rheme rheme, Word word) {
-        log.debug("Check word: {}",word);
-        if (discourseModel.isNew(word)) {
-            log.debug("Adding BEAT to {}", rheme);
-            word.addBehavior(new GestureBehavior("beat", "offer", GestureType.RIGHT));
-        }
+        final IDiscourseModel model = discourseModel.get();
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Word word) {
+                if (walker.getArticulation() instanceof Rheme) {
+                    log.debug("Check word: {}", word);
+                    if (model.isNew(word)) {
+                        log.debug("Adding BEAT to {}", walker.getArticulation());
+                        buffer.add(word, new GestureBehavior("beat", "offer", GestureType.RIGHT));
+                    }
+                }
+            }
+        };
     }
 }
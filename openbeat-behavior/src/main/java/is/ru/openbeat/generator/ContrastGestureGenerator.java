@@ -95,7 +95,7 @@ public class ContrastGestureGenerator implements IBehaviorGenerator {
     }
 
     @Multi
-    private void handleConstituent(Constituent constituent) {
+    void handleConstituent(Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             mm.match(featureStructure);
         }
@@ -103,7 +103,7 @@ public class ContrastGestureGenerator implements IBehaviorGenerator {
     }
 
     @Multi
-    private void handleWord(Word word) {
+    void handleWord(Word word) {
         log.debug("Word: {}", word);
         Set<Word> contrasts = word.getContrasts();
         log.debug("Contrast: {}", contrasts);
@@ -46,82 +46,75 @@
 package is.ru.openbeat.generator;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.GestureBehavior;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.knowledge.IGesture;
 import is.ru.openbeat.knowledge.IKnowledgeBase;
+import is.ru.openbeat.knowledge.IKnowledgeScene;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
 import is.ru.openbeat.participation.ParticipationFrameworkBase;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Singleton
-public class DeicticGestureGenerator implements IBehaviorGenerator {
+public class DeicticGestureGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(DeicticGestureGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
     private final IKnowledgeBase knowledgeBase;
-    private final ParticipationFrameworkBase participationFrameworkBase;
+    private final Provider<ParticipationFrameworkBase> participationFrameworkBase;
 
     @Inject
-    public DeicticGestureGenerator(IDiscourseModel discourseModel, IKnowledgeBase knowledgeBase,
-                                   ParticipationFrameworkBase participationFrameworkBase) {
+    public DeicticGestureGenerator(Provider<IDiscourseModel> discourseModel, IKnowledgeBase knowledgeBase,
+                                   Provider<ParticipationFrameworkBase> participationFrameworkBase) {
         this.discourseModel = discourseModel;
         this.knowledgeBase = knowledgeBase;
         this.participationFrameworkBase = participationFrameworkBase;
     }
 
     public Utterance process(Utterance utterance) {
-        for (Clause clause : utterance.getClauses()) {
-            mm.match(clause.getArticulations().getFirst());
-            mm.match(clause.getArticulations().getSecond());
-        }
-
-        return utterance;
-    }
-
-    @Multi
-    private void handleRheme(Rheme rheme) {
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            mm.match(featureStructure);
-        }
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    @Multi
-    private void handleConstituent(Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(featureStructure);
-        }
-    }
-
-    @Multi
-    private void handleNounPhrase(NounPhrase nounPhrase) {
-        log.debug("Encountered nounPhrase with id: {}", nounPhrase.getId());
-        if (nounPhrase.getId() != null) {
-            log.debug("Checking if nounPhrase {} has any new entities", nounPhrase);
-            for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
-                mm.match(nounPhrase, featureStructure);
+    /**
+     * Points at noun phrases in the rheme which have a new word and refer to an object in the current scene. Only the
+     * words directly under the outermost noun phrase are checked.
+     */
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        final IDiscourseModel model = discourseModel.get();
+        final ParticipationFrameworkBase frameworkBase = participationFrameworkBase.get();
+        return new GeneratorHandler() {
+            @Override
+            public void visit(NounPhrase nounPhrase) {
+                if (walker.getArticulation() instanceof Rheme && walker.getNounPhrase() == null) {
+                    log.debug("Encountered nounPhrase with id: {}", nounPhrase.getId());
+                }
             }
-        }
-    }
 
-    @Multi
-    private void handleWord(NounPhrase nounPhrase, Word word) {
-        if (discourseModel.isNew(word)) {
-            log.debug("Checking if {} contains {}", participationFrameworkBase.getCurrentScene(), nounPhrase.getId());
-            if (participationFrameworkBase.getCurrentScene().containsObject(nounPhrase.getId())) {
-                log.debug("Creating deictic gesture for {}", nounPhrase);
-                final GestureBehavior behavior = new GestureBehavior("deictic", nounPhrase.getId(),
-                    IGesture.GestureType.RIGHT);
-                behavior.setPriority(20);
-                nounPhrase.addBehavior(behavior);
+            @Override
+            public void visit(Word word) {
+                final NounPhrase nounPhrase = walker.getOutermostNounPhrase();
+                if (walker.getArticulation() instanceof Rheme && nounPhrase != null
+                    && nounPhrase == walker.getParent() && nounPhrase.getId() != null
+                    && model.isNew(word)) {
+                    final IKnowledgeScene scene = frameworkBase.getCurrentScene();
+                    log.debug("Checking if {} contains {}", scene, nounPhrase.getId());
+                    if (scene != null && knowledgeBase.isObservable(scene.getId(), nounPhrase.getId())) {
+                        log.debug("Creating deictic gesture for {}", nounPhrase);
+                        final GestureBehavior behavior = new GestureBehavior("deictic", nounPhrase.getId(),
+                            IGesture.GestureType.RIGHT);
+                        behavior.setPriority(20);
+                        buffer.add(nounPhrase, behavior);
+                    }
+                }
             }
-        }
+        };
     }
 }
@@ -46,13 +46,15 @@
 package is.ru.openbeat.generator;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.EyebrowsBehavior;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,56 +64,36 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class EyebrowsBehaviorGenerator implements IBehaviorGenerator {
+public class EyebrowsBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(EyebrowsBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
 
     @Inject
-    public EyebrowsBehaviorGenerator(IDiscourseModel discourseModel) {
+    public EyebrowsBehaviorGenerator(Provider<IDiscourseModel> discourseModel) {
         this.discourseModel = discourseModel;
     }
 
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            mm.match(clause.getArticulations().getFirst());
-            mm.match(clause.getArticulations().getSecond());
-        }
-
-        return utterance;
-    }
-
-    @Multi
-    private void handleWord(NounPhrase nounPhrase, Word word) {
-        // If there is new item in nounPhrase within rheme, add EYEBROWS to nounPhrase
-        if (discourseModel.isNew(word)) {
-            log.debug("Adding eyebrows to {}", nounPhrase);
-            nounPhrase.addBehavior(new EyebrowsBehavior());
-        }
-    }
-
-    @Multi
-    private void handleConstituent(NounPhrase nounPhrase, Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(nounPhrase, featureStructure);
-        }
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    @Multi
-    private void handleNounPhrase(NounPhrase nounPhrase) {
-        for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
-            mm.match(nounPhrase, featureStructure);
-        }
-    }
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-    @Multi
-    private void handleRheme(Rheme rheme) {
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            mm.match(featureStructure);
-        }
+        final IDiscourseModel model = discourseModel.get();
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Word word) {
+                // If there is new item in nounPhrase within rheme, add EYEBROWS to nounPhrase
+                final Constituent phrase = walker.getTopPhrase();
+                if (walker.getArticulation() instanceof Rheme && phrase instanceof NounPhrase
+                    && model.isNew(word)) {
+                    log.debug("Adding eyebrows to {}", phrase);
+                    buffer.add(phrase, new EyebrowsBehavior());
+                }
+            }
+        };
     }
 }
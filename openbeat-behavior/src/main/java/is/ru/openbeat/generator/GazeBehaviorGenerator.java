@@ -47,15 +47,17 @@ package is.ru.openbeat.generator;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.GazeBehavior;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
 import is.ru.openbeat.participation.Participant;
 import is.ru.openbeat.participation.ParticipationFramework;
 import is.ru.openbeat.participation.ParticipationFrameworkBase;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,54 +65,73 @@ import java.util.List;
 import java.util.Random;
 
 @Singleton
-public class GazeBehaviorGenerator implements IBehaviorGenerator {
+public class GazeBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(GazeBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
     private final Random random = new Random();
 
-    private final ParticipationFrameworkBase participationFrameworkBase;
+    private final Provider<ParticipationFrameworkBase> participationFrameworkBase;
 
     @Inject
-    public GazeBehaviorGenerator(ParticipationFrameworkBase participationFrameworkBase) {
+    public GazeBehaviorGenerator(Provider<ParticipationFrameworkBase> participationFrameworkBase) {
         this.participationFrameworkBase = participationFrameworkBase;
     }
 
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        final List<IArticulation> articulations = newArrayList();
-        for (Clause clause : utterance.getClauses()) {
-            articulations.add(clause.getArticulations().getFirst());
-            articulations.add(clause.getArticulations().getSecond());
-        }
+        return FusedGeneratorEngine.process(utterance, this);
+    }
 
-        for (int i = 0; i < articulations.size(); i++) {
-            IArticulation articulation = articulations.get(i);
-            mm.match(articulation, i == 0, i == (articulations.size() - 1));
-        }
+    /**
+     * Gazes away from the hearer at the theme and towards a hearer at the rheme. The turn begins at the first
+     * articulation of the utterance and ends at the last one.
+     */
+    public GeneratorHandler createHandler(Utterance utterance, UtteranceWalker walker, final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-        return utterance;
+        final int articulations = utterance.getClauses().size() * 2;
+        return new GeneratorHandler() {
+            private int clauses;
+            private Clause clause;
+
+            @Override
+            public void enter(Clause clause) {
+                this.clause = clause;
+                clauses++;
+            }
+
+            @Override
+            public void visit(Theme theme) {
+                final int i = indexOf(theme);
+                generateGaze(buffer, theme, i == 0, i == articulations - 1);
+            }
+
+            @Override
+            public void visit(Rheme rheme) {
+                final int i = indexOf(rheme);
+                generateGaze(buffer, rheme, i == 0, i == articulations - 1);
+            }
+
+            private int indexOf(IArticulation articulation) {
+                return (clauses - 1) * 2 + (clause.getArticulations().getFirst() == articulation ? 0 : 1);
+            }
+        };
     }
 
-    @Multi
-    private void generateGaze(Theme theme, Boolean isBeginningOfTurn, Boolean isEndOfTurn) {
+    private void generateGaze(IBehaviorBuffer buffer, Theme theme, boolean isBeginningOfTurn, boolean isEndOfTurn) {
         if (isBeginningOfTurn || randBool(0.7)) {
             log.debug("Adding gaze to {}", theme);
-            theme.addBehavior(new GazeBehavior(GazeBehavior.Direction.AWAY_FROM_HEARER, 1));
+            buffer.add(theme, new GazeBehavior(GazeBehavior.Direction.AWAY_FROM_HEARER, 1));
         }
     }
 
-    @Multi
-    private void generateGaze(Rheme rheme, Boolean isBeginningOfTurn, Boolean isEndOfTurn) {
+    private void generateGaze(IBehaviorBuffer buffer, Rheme rheme, boolean isBeginningOfTurn, boolean isEndOfTurn) {
         if (isEndOfTurn || randBool(0.73)) {
             //final Participant target = getParticipationFramework().getAddressee() != null ?
             //    getParticipationFramework().getAddressee() :
             //    randomHearer();
 
             log.debug("Adding gaze to {}", rheme);
-            rheme.addBehavior(new GazeBehavior(GazeBehavior.Direction.TOWARDS_HEARER, 5, randomHearer()));
+            buffer.add(rheme, new GazeBehavior(GazeBehavior.Direction.TOWARDS_HEARER, 5, randomHearer()));
         }
     }
 
@@ -120,7 +141,7 @@ public class GazeBehaviorGenerator implements IBehaviorGenerator {
      * @return the current participation framework
      */
     private ParticipationFramework getParticipationFramework() {
-        return participationFrameworkBase.getCurrentParticipationFramework();
+        return participationFrameworkBase.get().getCurrentParticipationFramework();
     }
 
     /**
@@ -46,13 +46,15 @@
 package is.ru.openbeat.generator;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.HeadnodBehavior;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,49 +64,34 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class HeadnodBehaviorGenerator implements IBehaviorGenerator {
+public class HeadnodBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(HeadnodBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
 
     @Inject
-    public HeadnodBehaviorGenerator(IDiscourseModel discourseModel) {
+    public HeadnodBehaviorGenerator(Provider<IDiscourseModel> discourseModel) {
         this.discourseModel = discourseModel;
     }
 
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            mm.match(clause.getArticulations().getFirst());
-            mm.match(clause.getArticulations().getSecond());
-        }
-
-        return utterance;
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    @Multi
-    private void handleWord(Word word) {
-        // If there is new word within rheme, add HEADNOD
-        if (discourseModel.isNew(word)) {
-            log.debug("Adding Headnods to {}", word);
-            word.addBehavior(new HeadnodBehavior());
-        }
-    }
-
-    @Multi
-    private void handleConstituent(Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(featureStructure);
-        }
-    }
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-    @Multi
-    private void handleRheme(Rheme rheme) {
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            mm.match(featureStructure);
-        }
+        final IDiscourseModel model = discourseModel.get();
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Word word) {
+                // If there is new word within rheme, add HEADNOD
+                if (walker.getArticulation() instanceof Rheme && model.isNew(word)) {
+                    log.debug("Adding Headnods to {}", word);
+                    buffer.add(word, new HeadnodBehavior());
+                }
+            }
+        };
     }
 }
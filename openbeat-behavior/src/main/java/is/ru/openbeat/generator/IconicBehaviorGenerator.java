@@ -45,20 +45,25 @@
 
 package is.ru.openbeat.generator;
 
+import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import is.ru.openbeat.behavior.GesturePlacement;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.knowledge.IGesture;
 import is.ru.openbeat.knowledge.IKnowledgeBase;
 import is.ru.openbeat.knowledge.IKnowledgeInstance;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Collect;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.multimethod.Produce;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * <tt>IconicBehaviorGenerator</tt> Generates iconic gestures for the appropriate {@link NounPhrase} and {@link
  * VerbPhrase}. The general rule is that iconic gestures are generated for {@link NounPhrase} and {@link VerbPhrase}
@@ -66,94 +71,117 @@ import org.slf4j.LoggerFactory;
  * IDiscourseModel discourse model}.
  * <p/>
  * The class collects all rhemes and constituents that contain new word, it then produces iconic gestures for valid
- * subjects and actions.
+ * subjects and actions. The gestures of the knowledge base are shared, so each one is placed with a {@link
+ * GesturePlacement} which carries the priority.
  *
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class IconicBehaviorGenerator implements IBehaviorGenerator {
+public class IconicBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(IconicBehaviorGenerator.class);
 
-    private final Multimethod c = new Multimethod(this, Collect.class);
-    private final Multimethod p = new Multimethod(this, Produce.class);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
     private final IKnowledgeBase knowledgeBase;
 
     @Inject
-    public IconicBehaviorGenerator(IDiscourseModel discourseModel, IKnowledgeBase knowledgeBase) {
+    public IconicBehaviorGenerator(Provider<IDiscourseModel> discourseModel, IKnowledgeBase knowledgeBase) {
         this.discourseModel = discourseModel;
         this.knowledgeBase = knowledgeBase;
     }
 
     public Utterance process(Utterance utterance) {
+        return FusedGeneratorEngine.process(utterance, this);
+    }
+
+    /**
+     * Collects the outermost noun and verb phrases of each rheme while looking for a <tt>new</tt> word in it. When the
+     * clause has been walked the iconic gestures are produced for the phrases of the rhemes which had a new word.
+     */
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
         log.debug("Running {}", getClass().getSimpleName());
 
-        // see if there's a new entity in the rheme
-        for (Clause clause : utterance.getClauses()) {
-            Boolean n1 = c.match(clause.getArticulations().getFirst());
-            Boolean n2 = c.match(clause.getArticulations().getSecond());
+        final IDiscourseModel model = discourseModel.get();
+        return new GeneratorHandler() {
+            private final List<Constituent> firstPhrases = newArrayList();
+            private final List<Constituent> secondPhrases = newArrayList();
+            private boolean firstIsNew;
+            private boolean secondIsNew;
+
+            @Override
+            public void enter(Clause clause) {
+                firstPhrases.clear();
+                secondPhrases.clear();
+                firstIsNew = false;
+                secondIsNew = false;
+            }
 
-            // produce iconic behavior if the rheme contained a new entity
-            if (n1 != null && n1) {
-                log.trace("Articulation: {}", clause.getArticulations().getFirst());
-                p.match(clause.getArticulations().getFirst());
+            @Override
+            public void visit(NounPhrase nounPhrase) {
+                collect(nounPhrase);
             }
-            if (n2 != null && n2) {
-                log.trace("Articulation: {}", clause.getArticulations().getSecond());
-                p.match(clause.getArticulations().getSecond());
+
+            @Override
+            public void visit(VerbPhrase verbPhrase) {
+                collect(verbPhrase);
             }
-        }
 
-        return utterance;
-    }
+            @Override
+            public void visit(Word word) {
+                if (walker.getArticulation() instanceof Rheme && !(isFirst() ? firstIsNew : secondIsNew)) {
+                    // see if there's a new entity in the rheme
+                    if (model.isNew(word)) {
+                        log.debug("Collecting words: {}", word);
+                        if (isFirst()) {
+                            firstIsNew = true;
+                        } else {
+                            secondIsNew = true;
+                        }
+                    }
+                }
+            }
 
-    @Collect
-    private boolean collectRheme(Rheme rheme) {
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            Boolean match = c.match(featureStructure);
-            if (match != null && match) {
-                log.trace("Collecting Rheme: {}", rheme);
-                return true;
+            @Override
+            public void leave(Clause clause) {
+                // produce iconic behavior if the rheme contained a new entity
+                if (firstIsNew) {
+                    log.trace("Articulation: {}", clause.getArticulations().getFirst());
+                    produce(buffer, firstPhrases);
+                }
+                if (secondIsNew) {
+                    log.trace("Articulation: {}", clause.getArticulations().getSecond());
+                    produce(buffer, secondPhrases);
+                }
             }
-        }
-        return false;
-    }
 
-    @Collect
-    private boolean collectConstituent(Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            Boolean match = c.match(featureStructure);
-            if (match != null && match) {
-                log.trace("Collection constituent: {}", constituent);
-                return true;
+            private void collect(Constituent phrase) {
+                if (walker.getArticulation() instanceof Rheme && !hasPhraseAncestor()) {
+                    (isFirst() ? firstPhrases : secondPhrases).add(phrase);
+                }
             }
-        }
-        return false;
-    }
 
-    @Collect
-    private boolean collectWord(Word word) {
-        final boolean isNew = discourseModel.isNew(word);
-        if (isNew) {
-            log.debug("Collecting words: {}", word);
-        }
-        return isNew;
-    }
+            private boolean hasPhraseAncestor() {
+                for (Object ancestor : walker.getAncestors()) {
+                    if (ancestor instanceof NounPhrase || ancestor instanceof VerbPhrase) {
+                        return true;
+                    }
+                }
+                return false;
+            }
 
-    @Produce
-    private void produceRheme(Rheme rheme) {
-        log.trace("Producing rheme {}", rheme);
-        for (IFeatureStructure featureStructure : rheme.getPhrases()) {
-            p.match(featureStructure);
-        }
+            private boolean isFirst() {
+                return walker.getClause().getArticulations().getFirst() == walker.getArticulation();
+            }
+        };
     }
 
-    @Produce
-    private void produceConstituent(Constituent constituent) {
-        log.trace("Producing constituent: {}", constituent);
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            p.match(featureStructure);
+    private void produce(IBehaviorBuffer buffer, List<Constituent> phrases) {
+        for (Constituent phrase : phrases) {
+            if (phrase instanceof NounPhrase) {
+                produceNounPhrase(buffer, (NounPhrase) phrase);
+            } else {
+                produceVerbPhrase(buffer, (VerbPhrase) phrase);
+            }
         }
     }
 
@@ -161,15 +189,14 @@ public class IconicBehaviorGenerator implements IBehaviorGenerator {
      * Assigns iconic gesture on subject for {@link NounPhrase} within {@link Rheme} that contains a <tt>new</tt> word
      * if the <tt>id</tt> returns a suggestion from the knowledgebase.
      */
-    @Produce
-    private void produceNounPhrase(NounPhrase nounPhrase) {
+    private void produceNounPhrase(IBehaviorBuffer buffer, NounPhrase nounPhrase) {
         final String id = nounPhrase.getId();
         if (id != null) {
             log.debug("Producing for nounPhrase: {}", id);
 
             final IKnowledgeInstance instance = knowledgeBase.getInstance(id);
             log.trace("Got the instance: {}", instance);
-            final String value = instance.getSurprisingValue(knowledgeBase);
+            final String value = knowledgeBase.getSurprisingValue(instance);
             log.trace("Got the value {}", value);
 
             if (value != null) {
@@ -177,8 +204,7 @@ public class IconicBehaviorGenerator implements IBehaviorGenerator {
 
                 if (gesture != null) {
                     log.debug("Got the gesture {}", gesture);
-                    gesture.setPriority(20);
-                    nounPhrase.addBehavior(gesture);
+                    buffer.add(nounPhrase, new GesturePlacement(gesture, 20));
                 }
             }
         }
@@ -188,16 +214,14 @@ public class IconicBehaviorGenerator implements IBehaviorGenerator {
      * Assigns iconic gesture on action for {@link VerbPhrase} within {@link Rheme} that contains a <tt>new</tt> word if
      * the <tt>id</tt> returns a suggestion from the knowledgebase.
      */
-    @Produce
-    private void produceVerbPhrase(VerbPhrase verbPhrase) {
+    private void produceVerbPhrase(IBehaviorBuffer buffer, VerbPhrase verbPhrase) {
         if (verbPhrase.getId() != null) {
             log.debug("Producing for verbPhrase: {}", verbPhrase.getId());
             final IGesture gesture = knowledgeBase.getCompactGesture(verbPhrase.getId());
 
             if (gesture != null) {
                 log.debug("Got the gesture {}", gesture);
-                gesture.setPriority(20);
-                verbPhrase.addBehavior(gesture);
+                buffer.add(verbPhrase, new GesturePlacement(gesture, 20));
             }
         }
     }
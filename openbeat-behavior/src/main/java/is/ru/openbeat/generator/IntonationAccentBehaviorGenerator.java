@@ -46,13 +46,15 @@
 package is.ru.openbeat.generator;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.IntonationAccentBehavior;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,59 +67,43 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class IntonationAccentBehaviorGenerator implements IBehaviorGenerator {
+public class IntonationAccentBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(IntonationAccentBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
 
     @Inject
-    public IntonationAccentBehaviorGenerator(IDiscourseModel discourseModel) {
+    public IntonationAccentBehaviorGenerator(Provider<IDiscourseModel> discourseModel) {
         this.discourseModel = discourseModel;
     }
 
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            handleArticulation(clause.getArticulations().getFirst());
-            handleArticulation(clause.getArticulations().getSecond());
-        }
-
-        return utterance;
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
     //TODO: Generate CONTRAST accents
 
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-    private void handleArticulation(IArticulation articulation) {
-        for (IFeatureStructure featureStructure : articulation.getPhrases()) {
-            mm.match(articulation, featureStructure);
-        }
-    }
-
-    @Multi
-    private void handleConstituent(IArticulation articulation, Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(articulation, featureStructure);
-        }
-    }
-
-    @Multi
-    private void handleWordinTheme(Theme theme, Word word) {
-        if (discourseModel.isNew(word)) {
-            log.debug("Adding Intonation Accent to {}", word);
-            theme.addBehavior(new IntonationAccentBehavior("L+H*"));
-        }
-    }
-
-    @Multi
-    private void handleWordinRheme(Rheme rheme, Word word) {
-        if (discourseModel.isNew(word)) {
-            log.debug("Adding Intonation Accent to {}", word);
-            rheme.addBehavior(new IntonationAccentBehavior("H*"));
-        }
+        final IDiscourseModel model = discourseModel.get();
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Word word) {
+                final IArticulation articulation = walker.getArticulation();
+                if (articulation instanceof Theme) {
+                    if (model.isNew(word)) {
+                        log.debug("Adding Intonation Accent to {}", word);
+                        buffer.add((Theme) articulation, new IntonationAccentBehavior("L+H*"));
+                    }
+                } else if (articulation instanceof Rheme) {
+                    if (model.isNew(word)) {
+                        log.debug("Adding Intonation Accent to {}", word);
+                        buffer.add((Rheme) articulation, new IntonationAccentBehavior("H*"));
+                    }
+                }
+            }
+        };
     }
-
 }
@@ -49,7 +49,11 @@ import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.IntonationBreakBehavior;
 import is.ru.openbeat.model.Clause;
 import is.ru.openbeat.model.Utterance;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.model.UtteranceWalker;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,16 +63,22 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class IntonationBreakBehaviorGenerator implements IBehaviorGenerator {
+public class IntonationBreakBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(IntonationBreakBehaviorGenerator.class);
 
     public Utterance process(Utterance utterance) {
+        return FusedGeneratorEngine.process(utterance, this);
+    }
+
+    public GeneratorHandler createHandler(Utterance utterance, UtteranceWalker walker, final IBehaviorBuffer buffer) {
         log.debug("Running {}", getClass().getSimpleName());
 
-        for (Clause clause : utterance.getClauses()) {
-            log.debug("Adding Intonation Break to {}", clause);
-            clause.addBehavior(new IntonationBreakBehavior(0.5));
-        }
-        return utterance;
+        return new GeneratorHandler() {
+            @Override
+            public void enter(Clause clause) {
+                log.debug("Adding Intonation Break to {}", clause);
+                buffer.add(clause, new IntonationBreakBehavior(0.5));
+            }
+        };
     }
 }
@@ -47,13 +47,14 @@ package is.ru.openbeat.generator;
 
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.IntonationToneBehavior;
-import is.ru.openbeat.model.Clause;
 import is.ru.openbeat.model.Rheme;
 import is.ru.openbeat.model.Theme;
 import is.ru.openbeat.model.Utterance;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.model.UtteranceWalker;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,31 +64,28 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class IntonationToneBehaviorGenerator implements IBehaviorGenerator {
+public class IntonationToneBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(IntonationToneBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            mm.match(clause.getArticulations().getFirst());
-            mm.match(clause.getArticulations().getSecond());
-        }
-
-        return utterance;
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    @Multi
-    private void handleTheme(Theme theme) {
-        log.debug("Adding Intonation Tone to {}", theme);
-        theme.addBehavior(new IntonationToneBehavior("L-H%"));
-    }
+    public GeneratorHandler createHandler(Utterance utterance, UtteranceWalker walker, final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
+
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Theme theme) {
+                log.debug("Adding Intonation Tone to {}", theme);
+                buffer.add(theme, new IntonationToneBehavior("L-H%"));
+            }
 
-    @Multi
-    private void handleRheme(Rheme rheme) {
-        log.debug("Adding Intonation Tone to {}", rheme);
-        rheme.addBehavior(new IntonationToneBehavior("L-L%"));
+            @Override
+            public void visit(Rheme rheme) {
+                log.debug("Adding Intonation Tone to {}", rheme);
+                buffer.add(rheme, new IntonationToneBehavior("L-L%"));
+            }
+        };
     }
 }
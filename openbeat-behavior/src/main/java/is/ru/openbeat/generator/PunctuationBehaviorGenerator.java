@@ -48,9 +48,10 @@ package is.ru.openbeat.generator;
 import com.google.inject.Singleton;
 import is.ru.openbeat.behavior.EyebrowsBehavior;
 import is.ru.openbeat.model.*;
-import is.ru.openbeat.multimethod.Multi;
-import is.ru.openbeat.multimethod.Multimethod;
-import is.ru.openbeat.pipeline.IBehaviorGenerator;
+import is.ru.openbeat.pipeline.GeneratorHandler;
+import is.ru.openbeat.pipeline.IBehaviorBuffer;
+import is.ru.openbeat.pipeline.FusedGeneratorEngine;
+import is.ru.openbeat.pipeline.IFusedBehaviorGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,41 +61,25 @@ import org.slf4j.LoggerFactory;
  * @author eirikurp06@ru.is (Eiríkur A. Pétursson)
  */
 @Singleton
-public class PunctuationBehaviorGenerator implements IBehaviorGenerator {
+public class PunctuationBehaviorGenerator implements IFusedBehaviorGenerator {
     private static final Logger log = LoggerFactory.getLogger(PunctuationBehaviorGenerator.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
     public Utterance process(Utterance utterance) {
-        log.debug("Running {}", getClass().getSimpleName());
-
-        for (Clause clause : utterance.getClauses()) {
-            handleArticulation(clause, clause.getArticulations().getFirst());
-            handleArticulation(clause, clause.getArticulations().getSecond());
-        }
-
-        return utterance;
+        return FusedGeneratorEngine.process(utterance, this);
     }
 
-    private void handleArticulation(Clause clause, IArticulation articulation) {
-        for (IFeatureStructure featureStructure : articulation.getPhrases()) {
-            mm.match(clause, featureStructure);
-        }
-    }
-
-    @Multi
-    private void handleConstituent(Clause clause, Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(clause, featureStructure);
-        }
-
-    }
+    public GeneratorHandler createHandler(Utterance utterance, final UtteranceWalker walker,
+                                          final IBehaviorBuffer buffer) {
+        log.debug("Running {}", getClass().getSimpleName());
 
-    @Multi
-    private void handleWord(Clause clause, Word word) {
-        if ("!".equals(word.getToken()) || "?".equals(word.getToken())) {
-            log.debug("Adding EyeBrows to {}", word);
-            clause.addBehavior(new EyebrowsBehavior());
-        }
+        return new GeneratorHandler() {
+            @Override
+            public void visit(Word word) {
+                if ("!".equals(word.getToken()) || "?".equals(word.getToken())) {
+                    log.debug("Adding EyeBrows to {}", word);
+                    buffer.add(walker.getClause(), new EyebrowsBehavior());
+                }
+            }
+        };
     }
 }
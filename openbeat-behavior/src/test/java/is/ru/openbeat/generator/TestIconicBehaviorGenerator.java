@@ -49,6 +49,8 @@ import atunit.*;
 import atunit.guice.GuiceContainer;
 import atunit.mockito.MockitoFramework;
 import com.google.inject.Inject;
+import is.ru.openbeat.behavior.GesturePlacement;
+import is.ru.openbeat.behavior.IBehavior;
 import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.knowledge.IGesture;
@@ -59,11 +61,14 @@ import static is.ru.openbeat.model.NumberAttribute.SINGULAR;
 import static is.ru.openbeat.model.PhraseAttribute.ADJECTIVE_PHRASE;
 import static is.ru.openbeat.model.PhraseAttribute.COORDINATING_CONJUNCTION_PHRASE;
 import static is.ru.openbeat.model.WordClassAttribute.*;
+import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.never;
+import static org.mockito.Matchers.anyInt;
 import static org.junit.Assert.assertThat;
 
 @RunWith(AtUnit.class)
@@ -90,6 +95,8 @@ public class TestIconicBehaviorGenerator {
 
     private Word word1, word2;
 
+    private NounPhrase nounPhrase;
+
     @Before
     public void setUp() {
         utteranceFixture = Utterance.with(
@@ -101,7 +108,7 @@ public class TestIconicBehaviorGenerator {
                 Rheme.with(
                     NounPhrase.with().features(Word.with("a").attributes(DETERMINER).build()).build(),
                     NounPhrase.with().features(Word.with("little").attributes(ADJECTIVE).build()).build(),
-                    NounPhrase.with().features(word1 = Word.with("car").attributes(NOUN, SINGULAR).build()).id("car").build(),
+                    nounPhrase = NounPhrase.with().features(word1 = Word.with("car").attributes(NOUN, SINGULAR).build()).id("car").build(),
                     Constituent.with(COORDINATING_CONJUNCTION_PHRASE).features(
                         Word.with(",").attributes(PUNCTUATION).build()).build()
                 ).build()
@@ -124,11 +131,12 @@ public class TestIconicBehaviorGenerator {
     public void mockNounPhraseGesture() {
         when(discourseModel.isNew(word1)).thenReturn(true);
         when(knowledgeBase.getInstance("car")).thenReturn(instance);
-        when(instance.getSurprisingValue(knowledgeBase)).thenReturn("car1");
+        when(knowledgeBase.getSurprisingValue(instance)).thenReturn("car1");
         when(knowledgeBase.getCompactGesture("car1")).thenReturn(gesture1);
 
         iconicBehaviorGenerator.process(utteranceFixture);
 
-        verify(gesture1).setPriority(20);
+        assertThat(nounPhrase.getBehaviors(), Matchers.<IBehavior>hasItem(new GesturePlacement(gesture1, 20)));
+        verify(gesture1, never()).setPriority(anyInt());
     }
 }
@@ -76,8 +76,10 @@ class BmlCompiler implements ICompiler {
         // produce speech
         new SpeechProducer(sb, utterance);
 
-        // produce behaviors
-        new BehaviorProducer(sb, utterance);
+        // produce behaviors, there is nothing to walk for when no behaviors were generated
+        if (!utterance.getBehaviorStore().isEmpty()) {
+            new BehaviorProducer(sb, utterance);
+        }
 
         sb.append("</bml>");
 
@@ -85,7 +87,7 @@ class BmlCompiler implements ICompiler {
     }
 
 
-    private class SpeechProducer {
+    class SpeechProducer {
         private final Multimethod mm = new Multimethod(this);
 
         private SpeechProducer(StringBuilder sb, Utterance utterance) {
@@ -104,14 +106,14 @@ class BmlCompiler implements ICompiler {
         }
 
         @Multi
-        private void handleConstituent(StringBuilder sb, Constituent constituent) {
+        void handleConstituent(StringBuilder sb, Constituent constituent) {
             for (IFeatureStructure featureStructure : constituent.getFeatures()) {
                 mm.match(sb, featureStructure);
             }
         }
 
         @Multi
-        private void handleWord(StringBuilder sb, Word word) {
+        void handleWord(StringBuilder sb, Word word) {
             if (word.getBeginTime() != null) {
                 sb.append("<mark time=\"").append(String.format("%.1f", word.getBeginTime())).append("\"/>");
             }
@@ -123,7 +125,7 @@ class BmlCompiler implements ICompiler {
         }
     }
 
-    private class BehaviorProducer {
+    class BehaviorProducer {
         private final Multimethod mm = new Multimethod(this);
 
         private BehaviorProducer(StringBuilder sb, Utterance utterance) {
@@ -138,7 +140,7 @@ class BmlCompiler implements ICompiler {
         }
 
         @Multi
-        private void handleRheme(List<Word> words, StringBuilder sb, Rheme rheme) {
+        void handleRheme(List<Word> words, StringBuilder sb, Rheme rheme) {
             final List<Word> rhemeWords = newArrayList();
             for (IFeatureStructure featureStructure : rheme.getPhrases()) {
                 mm.match(rhemeWords, sb, featureStructure);
@@ -149,7 +151,7 @@ class BmlCompiler implements ICompiler {
         }
 
         @Multi
-        private void handleTheme(List<Word> words, StringBuilder sb, Theme theme) {
+        void handleTheme(List<Word> words, StringBuilder sb, Theme theme) {
             final List<Word> themeWords = newArrayList();
             for (IFeatureStructure featureStructure : theme.getPhrases()) {
                 mm.match(themeWords, sb, featureStructure);
@@ -160,7 +162,7 @@ class BmlCompiler implements ICompiler {
         }
 
         @Multi
-        private void handleConstituent(List<Word> words, StringBuilder sb, Constituent constituent) {
+        void handleConstituent(List<Word> words, StringBuilder sb, Constituent constituent) {
             final List<Word> constituentWords = newArrayList();
             for (IFeatureStructure featureStructure : constituent.getFeatures()) {
                 mm.match(constituentWords, sb, featureStructure);
@@ -171,15 +173,15 @@ class BmlCompiler implements ICompiler {
         }
 
         @Multi
-        private void handleWord(List<Word> words, StringBuilder sb, Word word) {
+        void handleWord(List<Word> words, StringBuilder sb, Word word) {
             words.add(word);
 
             matchBehaviors(sb, word, boxTime(word.getBeginTime()), boxTime(word.getEndTime()));
         }
 
         @Multi
-        private Boolean handleBmlProducer(StringBuilder sb, IBehaviorContainer container, IBmlProducer bmlProducer,
-                                          Float beginTime, Float endTime) {
+        Boolean handleBmlProducer(StringBuilder sb, IBehaviorContainer container, IBmlProducer bmlProducer,
+                                  Float beginTime, Float endTime) {
             Float begin = unboxTime(beginTime);
             Float end = unboxTime(endTime);
             if (begin == null) {
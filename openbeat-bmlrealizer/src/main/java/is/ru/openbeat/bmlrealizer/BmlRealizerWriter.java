@@ -66,13 +66,14 @@ import java.util.List;
 class BmlRealizerWriter implements IOutputWriter {
     private static final Logger log = LoggerFactory.getLogger(BmlRealizerWriter.class);
 
-    private final ParticipationFrameworkBase participationFrameworkBase;
+    private final Provider<ParticipationFrameworkBase> participationFrameworkBase;
 
     private Provider<String> host;
     private Provider<Integer> port;
 
     @Inject
-    BmlRealizerWriter(ParticipationFrameworkBase participationFrameworkBase, @Named("bml.host") Provider<String> host,
+    BmlRealizerWriter(Provider<ParticipationFrameworkBase> participationFrameworkBase,
+                      @Named("bml.host") Provider<String> host,
                       @Named("bml.port") Provider<Integer> port) {
         this.participationFrameworkBase = participationFrameworkBase;
         this.host = host;
@@ -97,7 +98,7 @@ class BmlRealizerWriter implements IOutputWriter {
         BufferedOutputStream bos = new BufferedOutputStream(socket.getOutputStream());
 
         log.debug("Writing data");
-        final Participant speaker = participationFrameworkBase.getCurrentParticipationFramework().getSpeaker();
+        final Participant speaker = participationFrameworkBase.get().getCurrentParticipationFramework().getSpeaker();
         final StringBuilder sb = new StringBuilder();
         if (speaker != null) {
             sb.append(speaker.getName());
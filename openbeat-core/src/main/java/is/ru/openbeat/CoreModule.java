@@ -47,14 +47,21 @@ package is.ru.openbeat;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
+import is.ru.openbeat.participation.ParticipationFrameworkBase;
+import is.ru.openbeat.pipeline.IService;
 import is.ru.openbeat.pipeline.ITimingSource;
+import is.ru.openbeat.pipeline.PipelineSession;
 import is.ru.openbeat.timing.FixedTimingSource;
 import is.ru.openbeat.timing.PraatTimingSource;
 
 public class CoreModule extends AbstractModule {
     protected void configure() {
+        bind(ParticipationFrameworkBase.class).in(PipelineSession.SCOPE);
+
         final Multibinder<ITimingSource> multibinder = Multibinder.newSetBinder(binder(), ITimingSource.class);
         multibinder.addBinding().to(FixedTimingSource.class);
         multibinder.addBinding().to(PraatTimingSource.class);
+
+        Multibinder.newSetBinder(binder(), IService.class);
     }
 }
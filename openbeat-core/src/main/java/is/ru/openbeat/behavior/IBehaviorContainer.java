@@ -69,7 +69,8 @@ public interface IBehaviorContainer {
     void removeBehavior(IBehavior behavior);
 
     /**
-     * Returns list of all behaviors associated with this container.
+     * Returns list of all behaviors associated with this container. The list should not be modified directly, the
+     * model keeps it in the {@link is.ru.openbeat.model.BehaviorStore behavior store} of the utterance.
      *
      * @return List<IBehavior> the behaviors
      */
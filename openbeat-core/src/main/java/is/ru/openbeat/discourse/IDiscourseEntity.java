@@ -86,6 +86,13 @@ public interface IDiscourseEntity {
      */
     void addReferer(Constituent constituent);
 
+    /**
+     * Method retainReferers forgets all but the latest refering expressions, releasing the utterances they belong to.
+     *
+     * @param count the number of refering expressions to keep
+     */
+    void retainReferers(int count);
+
 
     /**
      * Method getReferingExpressions gets the referingExpressions of this <tt>IDiscourseEntity</tt> object.
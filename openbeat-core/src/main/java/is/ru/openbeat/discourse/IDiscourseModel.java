@@ -47,6 +47,8 @@ package is.ru.openbeat.discourse;
 
 import is.ru.openbeat.model.Word;
 
+import java.util.List;
+
 /**
  * Interface <tt>IDiscourseModel</tt> is used to keep track of the <tt>Context</tt> of the ongoing discourse.
  * <p/>
@@ -76,6 +78,16 @@ public interface IDiscourseModel {
      */
     Iterable<IDiscourseEntity> getEntities();
 
+    /**
+     * Method getCandidates gets the entities which may be referred to by the given word, most recent first. The
+     * candidates are the entities whose word has the same lemma, or token if it has no lemma, and the entities whose
+     * word agrees with the given word in gender and number.
+     *
+     * @param word the refering word
+     * @return Iterable<IDiscourseEntity> the candidate discourse entities
+     */
+    Iterable<IDiscourseEntity> getCandidates(Word word);
+
     /**
      * Method isNew checks if a given word is assigned to any of the discourse entities in the model.
      *
@@ -84,6 +96,14 @@ public interface IDiscourseModel {
      */
     boolean isNew(Word word);
 
+    /**
+     * Method nextUtterance tells the model that a new utterance is being processed. Entities which have fallen out of
+     * the discourse window are forgotten at this point, so the entities of the utterance in progress are always kept.
+     *
+     * @return List<IDiscourseEntity> the forgotten entities
+     */
+    List<IDiscourseEntity> nextUtterance();
+
     /** Method clearState clears discourse state. */
     void clearState();
 }
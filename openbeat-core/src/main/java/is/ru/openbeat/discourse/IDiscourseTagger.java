@@ -61,6 +61,8 @@ public interface IDiscourseTagger {
      */
     void tag(Iterable<IFeatureStructure> structure);
 
+    /** Method nextUtterance marks the beginning of a new utterance, before its structure is tagged. */
+    void nextUtterance();
 
     /** Method clearState clears the discourse tagger state. */
     void clearState();
@@ -56,7 +56,8 @@ import java.util.Set;
  */
 public interface ITagResolver {
     /**
-     * Method resolveAttributes creates a set of attributes from a tag.
+     * Method resolveAttributes creates a set of attributes from a tag. The set may be shared between words and should
+     * not be modified.
      *
      * @param tag the tag
      * @return Set<IWordAttribute> the attributes
@@ -93,7 +93,7 @@ public interface IKnowledgeBase {
     IGesture getCompactGesture(String value);
 
     /**
-     * Gets a gesture by a given id.
+     * Gets a gesture by a given id, the case of the id doesn't matter.
      *
      * @param id the id of the gesture
      * @return gesture if found, else null
@@ -108,6 +108,31 @@ public interface IKnowledgeBase {
      */
     IKnowledgeInstance getInstance(String id);
 
+    /**
+     * Gets a scene by a given id.
+     *
+     * @param id the id of the scene
+     * @return scene if found, else null
+     */
+    IKnowledgeScene getScene(String id);
+
+    /**
+     * Gets a type by a given name.
+     *
+     * @param name the name of the type
+     * @return type if found, else null
+     */
+    IKnowledgeType getType(String name);
+
+    /**
+     * Returns the first value of the instance that is not typical for an instance of its type. The knowledge base
+     * keeps the values of its own instances, so they are not found again on each call.
+     *
+     * @param instance the instance
+     * @return the surprising value if any, else null
+     */
+    String getSurprisingValue(IKnowledgeInstance instance);
+
     /**
      * Returns true if an object with an id of objectId is found inside the scene with id of sceneId, returns false
      * otherwise
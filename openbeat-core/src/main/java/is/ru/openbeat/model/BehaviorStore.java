@@ -0,0 +1,162 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package is.ru.openbeat.model;
+
+import is.ru.openbeat.behavior.IBehavior;
+import is.ru.openbeat.behavior.IBehaviorContainer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>BehaviorStore</tt> holds the behaviors of all the nodes in an {@link Utterance utterance}. Only nodes
+ * which have behaviors take up room in the store, they are keyed by identity since the nodes compare by value.
+ * <p/>
+ * The store doesn't know the utterance, so a node which is kept after its utterance is done with, such as a referer
+ * in the discourse model, doesn't keep the utterance from being collected. The nodes which have behaviors are listed
+ * in time order by the {@link Utterance#getBehaviorContainers() utterance}, which walks its tree when asked.
+ * <p/>
+ * Like the nodes themselves a store is changed by one thread at a time, the {@link
+ * is.ru.openbeat.pipeline.ParallelGeneratorEngine generator engine} adds the behaviors from the calling thread.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ * @see Utterance#getBehaviorStore()
+ */
+public class BehaviorStore {
+    private final Map<IBehaviorContainer, List<IBehavior>> behaviors =
+        new IdentityHashMap<IBehaviorContainer, List<IBehavior>>();
+    private final Map<Class<? extends IBehavior>, Integer> counts =
+        new IdentityHashMap<Class<? extends IBehavior>, Integer>();
+
+    BehaviorStore() {
+    }
+
+    /**
+     * @param container the node
+     * @return the behaviors of the node, the list should not be modified directly
+     */
+    public List<IBehavior> get(IBehaviorContainer container) {
+        final List<IBehavior> list = behaviors.get(container);
+        return list != null ? list : Collections.<IBehavior>emptyList();
+    }
+
+    /**
+     * @return <tt>true</tt> if no node has a behavior
+     */
+    public boolean isEmpty() {
+        return behaviors.isEmpty();
+    }
+
+    /**
+     * @return the classes of the behaviors in the store
+     */
+    public Set<Class<? extends IBehavior>> getBehaviorClasses() {
+        return Collections.unmodifiableSet(counts.keySet());
+    }
+
+    /**
+     * @param behaviorClass the class of the behaviors
+     * @return <tt>true</tt> if some behavior in the store is an instance of the class
+     */
+    boolean hasBehaviorsOf(Class<?> behaviorClass) {
+        for (Class<?> klass : counts.keySet()) {
+            if (behaviorClass.isAssignableFrom(klass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean contains(IBehaviorContainer container) {
+        return behaviors.containsKey(container);
+    }
+
+    void add(IBehaviorContainer container, IBehavior behavior) {
+        List<IBehavior> list = behaviors.get(container);
+        if (list == null) {
+            list = new ArrayList<IBehavior>(2);
+            behaviors.put(container, list);
+        }
+        list.add(behavior);
+
+        final Integer count = counts.get(behavior.getClass());
+        counts.put(behavior.getClass(), count != null ? count + 1 : 1);
+    }
+
+    void remove(IBehaviorContainer container, IBehavior behavior) {
+        final List<IBehavior> list = behaviors.get(container);
+        if (list != null && list.remove(behavior)) {
+            uncount(behavior);
+            if (list.isEmpty()) {
+                behaviors.remove(container);
+            }
+        }
+    }
+
+    List<IBehavior> removeAll(IBehaviorContainer container) {
+        final List<IBehavior> list = behaviors.remove(container);
+        if (list == null) {
+            return Collections.emptyList();
+        }
+
+        for (IBehavior behavior : list) {
+            uncount(behavior);
+        }
+        return list;
+    }
+
+    private void uncount(IBehavior behavior) {
+        final int count = counts.get(behavior.getClass());
+        if (count == 1) {
+            counts.remove(behavior.getClass());
+        } else {
+            counts.put(behavior.getClass(), count - 1);
+        }
+    }
+}
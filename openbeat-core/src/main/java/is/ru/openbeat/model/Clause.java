@@ -45,20 +45,15 @@
 
 package is.ru.openbeat.model;
 
-import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.behavior.IBehavior;
-import is.ru.openbeat.behavior.IBehaviorContainer;
-
-import java.util.List;
 
 /**
  * Class <tt>Clause</tt> seperates utterance based on noun and verb placement against punctuations.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-public class Clause implements IBehaviorContainer {
+public class Clause extends BehaviorContainer {
     private final Pair<IArticulation, IArticulation> articulations;
-    private final List<IBehavior> behaviors = newArrayList();
 
     public Clause(Pair<IArticulation, IArticulation> articulations) {
         this.articulations = articulations;
@@ -68,18 +63,6 @@ public class Clause implements IBehaviorContainer {
         return articulations;
     }
 
-    public void addBehavior(IBehavior behavior) {
-        behaviors.add(behavior);
-    }
-
-    public void removeBehavior(IBehavior behavior) {
-        behaviors.remove(behavior);
-    }
-
-    public List<IBehavior> getBehaviors() {
-        return behaviors;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -102,7 +85,7 @@ public class Clause implements IBehaviorContainer {
     public String toString() {
         return "Clause{" +
             "articulations=" + articulations +
-            ", behaviors=" + behaviors +
+            ", behaviors=" + getBehaviors() +
             '}';
     }
 
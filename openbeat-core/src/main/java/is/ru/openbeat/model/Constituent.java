@@ -47,7 +47,6 @@ package is.ru.openbeat.model;
 
 import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.behavior.IBehavior;
-import is.ru.openbeat.behavior.IBehaviorContainer;
 
 import java.util.List;
 
@@ -56,10 +55,9 @@ import java.util.List;
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-public class Constituent implements IFeatureStructure, IBehaviorContainer {
+public class Constituent extends BehaviorContainer implements IFeatureStructure {
     private final IConstituentAttribute type;
     private final List<IFeatureStructure> features = newArrayList();
-    private final List<IBehavior> behaviors = newArrayList();
 
     public Constituent(IConstituentAttribute type) {
         this.type = type;
@@ -77,16 +75,8 @@ public class Constituent implements IFeatureStructure, IBehaviorContainer {
         return features;
     }
 
-    public void addBehavior(IBehavior behavior) {
-        behaviors.add(behavior);
-    }
-
-    public void removeBehavior(IBehavior behavior) {
-        behaviors.remove(behavior);
-    }
-
-    public List<IBehavior> getBehaviors() {
-        return behaviors;
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
     }
 
     @Override
@@ -96,7 +86,7 @@ public class Constituent implements IFeatureStructure, IBehaviorContainer {
 
         Constituent that = (Constituent) o;
 
-        if (behaviors != null ? !behaviors.equals(that.behaviors) : that.behaviors != null) return false;
+        if (!getBehaviors().equals(that.getBehaviors())) return false;
         if (features != null ? !features.equals(that.features) : that.features != null) return false;
         if (type != null ? !type.equals(that.type) : that.type != null) return false;
 
@@ -107,7 +97,7 @@ public class Constituent implements IFeatureStructure, IBehaviorContainer {
     public int hashCode() {
         int result = type != null ? type.hashCode() : 0;
         result = 31 * result + (features != null ? features.hashCode() : 0);
-        result = 31 * result + (behaviors != null ? behaviors.hashCode() : 0);
+        result = 31 * result + getBehaviors().hashCode();
         return result;
     }
 
@@ -116,7 +106,7 @@ public class Constituent implements IFeatureStructure, IBehaviorContainer {
         return getClass().getSimpleName() + "{" +
             "type='" + type + '\'' +
             ", features=" + features +
-            ", behaviors=" + behaviors +
+            ", behaviors=" + getBehaviors() +
             '}';
     }
 
@@ -53,4 +53,6 @@ package is.ru.openbeat.model;
  */
 public interface IArticulation {
     Iterable<IFeatureStructure> getPhrases();
+
+    void accept(IFeatureStructureVisitor visitor);
 }
@@ -45,5 +45,12 @@
 
 package is.ru.openbeat.model;
 
+/**
+ * Interface <tt>IFeatureStructure</tt> is a node in a {@link IArticulation articulation}, either a {@link Constituent
+ * constituent} or a {@link Word word}.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
 public interface IFeatureStructure {
+    void accept(IFeatureStructureVisitor visitor);
 }
@@ -0,0 +1,72 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+/**
+ * Interface <tt>IFeatureStructureVisitor</tt> is the visitor of the linguistic model. Each {@link IFeatureStructure
+ * feature structure} and {@link IArticulation articulation} calls the method for its own type from
+ * <tt>accept</tt>, so the node type is resolved with a plain virtual call instead of a {@link
+ * is.ru.openbeat.multimethod.Multimethod multimethod} lookup.
+ * <p/>
+ * The visitor only sees a single node, the children are left to the caller. {@link UtteranceWalker} walks a whole
+ * utterance and keeps track of where in the tree the visited node is.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ * @see FeatureStructureVisitor
+ */
+public interface IFeatureStructureVisitor {
+    void visit(Theme theme);
+
+    void visit(Rheme rheme);
+
+    void visit(Constituent constituent);
+
+    void visit(NounPhrase nounPhrase);
+
+    void visit(VerbPhrase verbPhrase);
+
+    void visit(Word word);
+}
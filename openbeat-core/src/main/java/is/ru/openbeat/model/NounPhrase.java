@@ -68,6 +68,11 @@ public class NounPhrase extends Constituent {
         this.id = id;
     }
 
+    @Override
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
+    }
+
     public static interface NounPhraseBuilder extends Builder<NounPhrase> {
         NounPhraseBuilder id(String id);
 
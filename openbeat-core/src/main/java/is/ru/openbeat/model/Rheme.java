@@ -47,7 +47,6 @@ package is.ru.openbeat.model;
 
 import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.behavior.IBehavior;
-import is.ru.openbeat.behavior.IBehaviorContainer;
 
 import java.util.List;
 
@@ -57,9 +56,8 @@ import java.util.List;
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-public class Rheme implements IArticulation, IBehaviorContainer {
+public class Rheme extends BehaviorContainer implements IArticulation {
     private final List<IFeatureStructure> phrases;
-    private final List<IBehavior> behaviors = newArrayList();
 
     public Rheme(List<IFeatureStructure> phrases) {
         this.phrases = phrases;
@@ -73,23 +71,15 @@ public class Rheme implements IArticulation, IBehaviorContainer {
         return phrases;
     }
 
-    public void addBehavior(IBehavior behavior) {
-        behaviors.add(behavior);
-    }
-
-    public void removeBehavior(IBehavior behavior) {
-        behaviors.remove(behavior);
-    }
-
-    public List<IBehavior> getBehaviors() {
-        return behaviors;
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
     }
 
     @Override
     public String toString() {
         return "Rheme{" +
             "phrases=" + phrases +
-            ", behaviors=" + behaviors +
+            ", behaviors=" + getBehaviors() +
             '}';
     }
 
@@ -100,7 +90,7 @@ public class Rheme implements IArticulation, IBehaviorContainer {
 
         Rheme rheme = (Rheme) o;
 
-        if (behaviors != null ? !behaviors.equals(rheme.behaviors) : rheme.behaviors != null) return false;
+        if (!getBehaviors().equals(rheme.getBehaviors())) return false;
         if (phrases != null ? !phrases.equals(rheme.phrases) : rheme.phrases != null) return false;
 
         return true;
@@ -109,7 +99,7 @@ public class Rheme implements IArticulation, IBehaviorContainer {
     @Override
     public int hashCode() {
         int result = phrases != null ? phrases.hashCode() : 0;
-        result = 31 * result + (behaviors != null ? behaviors.hashCode() : 0);
+        result = 31 * result + getBehaviors().hashCode();
         return result;
     }
 
@@ -0,0 +1,100 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package is.ru.openbeat.model;
+
+/**
+ * Class <tt>SingleWordRow</tt> backs a {@link Word} which was created on its own rather than by a {@link WordTable}.
+ * It holds the one row in plain fields, the row index is always zero.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+final class SingleWordRow extends WordRows {
+    private final String token;
+    private String lemma;
+    private WordAttributes attributes;
+    private Float beginTime;
+    private Float endTime;
+
+    SingleWordRow(String token, WordAttributes attributes) {
+        this.token = token;
+        this.attributes = attributes;
+    }
+
+    String getToken(int row) {
+        return token;
+    }
+
+    String getLemma(int row) {
+        return lemma;
+    }
+
+    void setLemma(int row, String lemma) {
+        this.lemma = lemma;
+    }
+
+    WordAttributes getAttributes(int row) {
+        return attributes;
+    }
+
+    void setAttributes(int row, WordAttributes attributes) {
+        this.attributes = attributes;
+    }
+
+    Float getBeginTime(int row) {
+        return beginTime;
+    }
+
+    void setBeginTime(int row, Float beginTime) {
+        this.beginTime = beginTime;
+    }
+
+    Float getEndTime(int row) {
+        return endTime;
+    }
+
+    void setEndTime(int row, Float endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -47,7 +47,6 @@ package is.ru.openbeat.model;
 
 import static com.google.common.collect.Lists.newArrayList;
 import is.ru.openbeat.behavior.IBehavior;
-import is.ru.openbeat.behavior.IBehaviorContainer;
 
 import java.util.List;
 
@@ -57,9 +56,8 @@ import java.util.List;
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-public class Theme implements IArticulation, IBehaviorContainer {
+public class Theme extends BehaviorContainer implements IArticulation {
     private final List<IFeatureStructure> phrases;
-    private final List<IBehavior> behaviors = newArrayList();
 
     public Theme(List<IFeatureStructure> phrases) {
         this.phrases = phrases;
@@ -73,16 +71,8 @@ public class Theme implements IArticulation, IBehaviorContainer {
         return phrases;
     }
 
-    public void addBehavior(IBehavior behavior) {
-        behaviors.add(behavior);
-    }
-
-    public void removeBehavior(IBehavior behavior) {
-        behaviors.remove(behavior);
-    }
-
-    public List<IBehavior> getBehaviors() {
-        return behaviors;
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
     }
 
     @Override
@@ -92,7 +82,7 @@ public class Theme implements IArticulation, IBehaviorContainer {
 
         Theme theme = (Theme) o;
 
-        if (behaviors != null ? !behaviors.equals(theme.behaviors) : theme.behaviors != null) return false;
+        if (!getBehaviors().equals(theme.getBehaviors())) return false;
         if (phrases != null ? !phrases.equals(theme.phrases) : theme.phrases != null) return false;
 
         return true;
@@ -101,7 +91,7 @@ public class Theme implements IArticulation, IBehaviorContainer {
     @Override
     public int hashCode() {
         int result = phrases != null ? phrases.hashCode() : 0;
-        result = 31 * result + (behaviors != null ? behaviors.hashCode() : 0);
+        result = 31 * result + getBehaviors().hashCode();
         return result;
     }
 
@@ -109,7 +99,7 @@ public class Theme implements IArticulation, IBehaviorContainer {
     public String toString() {
         return "Theme{" +
             "phrases=" + phrases +
-            ", behaviors=" + behaviors +
+            ", behaviors=" + getBehaviors() +
             '}';
     }
 
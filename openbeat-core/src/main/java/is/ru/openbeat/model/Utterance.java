@@ -46,7 +46,10 @@
 package is.ru.openbeat.model;
 
 import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.behavior.IBehavior;
+import is.ru.openbeat.behavior.IBehaviorContainer;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -54,20 +57,109 @@ import java.util.List;
  * <p/>
  * Each utterance holds a list of clauses. The clause boundaries are found by looking at verb and punctuation placement.
  * That process is carried out in the {@link is.ru.openbeat.pipeline.INlpSource nlp source}.
+ * <p/>
+ * The behaviors of all the nodes are kept in one {@link BehaviorStore store} for the utterance. The nodes are adopted
+ * by the store when the utterance is created, so the tree should be complete by then. The utterance lists the nodes
+ * which have behaviors in the order they are spoken, and the behaviors of a given class in the same order, so the
+ * compilers and filters don't have to look at every node for them. A node comes before its children and the children
+ * in the order of their words, which is the order of their timings.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
 public class Utterance {
     private final List<Clause> clauses;
+    private final BehaviorStore behaviorStore = new BehaviorStore();
 
     public Utterance(List<Clause> clauses) {
         this.clauses = clauses;
+        for (IBehaviorContainer node : nodes()) {
+            if (node instanceof BehaviorContainer) {
+                ((BehaviorContainer) node).adopt(behaviorStore);
+            }
+        }
     }
 
     public List<Clause> getClauses() {
         return clauses;
     }
 
+    /**
+     * @return the behaviors of the nodes in this utterance
+     */
+    public BehaviorStore getBehaviorStore() {
+        return behaviorStore;
+    }
+
+    /**
+     * @return the nodes which have behaviors, in time order
+     */
+    public List<IBehaviorContainer> getBehaviorContainers() {
+        final List<IBehaviorContainer> containers = newArrayList();
+        if (!behaviorStore.isEmpty()) {
+            for (IBehaviorContainer node : nodes()) {
+                if (behaviorStore.contains(node)) {
+                    containers.add(node);
+                }
+            }
+        }
+        return containers;
+    }
+
+    /**
+     * @param behaviorClass the class of the behaviors
+     * @return the behaviors which are instances of the class together with their nodes, in time order
+     */
+    public <T extends IBehavior> List<Pair<IBehaviorContainer, T>> getBehaviors(Class<T> behaviorClass) {
+        if (!behaviorStore.hasBehaviorsOf(behaviorClass)) {
+            return Collections.emptyList();
+        }
+
+        final List<Pair<IBehaviorContainer, T>> result = newArrayList();
+        for (IBehaviorContainer container : getBehaviorContainers()) {
+            for (IBehavior behavior : behaviorStore.get(container)) {
+                if (behaviorClass.isInstance(behavior)) {
+                    result.add(Pair.of(container, behaviorClass.cast(behavior)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the nodes of the utterance which can have behaviors, each node before its children
+     */
+    private List<IBehaviorContainer> nodes() {
+        final List<IBehaviorContainer> nodes = newArrayList();
+        if (clauses != null) {
+            for (Clause clause : clauses) {
+                collect(clause, nodes);
+            }
+        }
+        return nodes;
+    }
+
+    private static void collect(Object node, List<IBehaviorContainer> nodes) {
+        if (node instanceof IBehaviorContainer) {
+            nodes.add((IBehaviorContainer) node);
+        }
+
+        if (node instanceof Clause) {
+            final Pair<IArticulation, IArticulation> articulations = ((Clause) node).getArticulations();
+            if (articulations != null) {
+                collect(articulations.getFirst(), nodes);
+                collect(articulations.getSecond(), nodes);
+            }
+        } else if (node instanceof IArticulation) {
+            for (IFeatureStructure phrase : ((IArticulation) node).getPhrases()) {
+                collect(phrase, nodes);
+            }
+        } else if (node instanceof Constituent) {
+            for (IFeatureStructure feature : ((Constituent) node).getFeatures()) {
+                collect(feature, nodes);
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
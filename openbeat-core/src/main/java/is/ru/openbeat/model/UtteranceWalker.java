@@ -0,0 +1,176 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class <tt>UtteranceWalker</tt> walks an {@link Utterance utterance} depth first and calls a {@link
+ * IFeatureStructureVisitor visitor} for each articulation, constituent and word, in the same order the pipes recurse
+ * through the tree: clauses in order, the first articulation before the second, and each constituent before its
+ * features.
+ * <p/>
+ * While the visitor runs the walker knows where it is, the enclosing clause, articulation and noun phrase and the
+ * whole chain of ancestors. A walker keeps that state for one walk at a time, so it should not be shared between
+ * threads.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class UtteranceWalker {
+    private final List<Object> ancestors = newArrayList();
+    private final List<NounPhrase> nounPhrases = newArrayList();
+    private Clause clause;
+    private IArticulation articulation;
+
+    public void walk(Utterance utterance, IFeatureStructureVisitor visitor) {
+        for (Clause clause : utterance.getClauses()) {
+            walk(clause, visitor);
+        }
+    }
+
+    public void walk(Clause clause, IFeatureStructureVisitor visitor) {
+        this.clause = clause;
+        ancestors.add(clause);
+        try {
+            walk(clause.getArticulations().getFirst(), visitor);
+            walk(clause.getArticulations().getSecond(), visitor);
+        } finally {
+            // also leaves the walker clean when a visitor throws
+            ancestors.clear();
+            nounPhrases.clear();
+            this.articulation = null;
+            this.clause = null;
+        }
+    }
+
+    private void walk(IArticulation articulation, IFeatureStructureVisitor visitor) {
+        if (articulation == null) {
+            return;
+        }
+
+        this.articulation = articulation;
+        articulation.accept(visitor);
+        ancestors.add(articulation);
+        for (IFeatureStructure featureStructure : articulation.getPhrases()) {
+            walk(featureStructure, visitor);
+        }
+        ancestors.remove(ancestors.size() - 1);
+        this.articulation = null;
+    }
+
+    private void walk(IFeatureStructure featureStructure, IFeatureStructureVisitor visitor) {
+        featureStructure.accept(visitor);
+        if (featureStructure instanceof Constituent) {
+            final Constituent constituent = (Constituent) featureStructure;
+            final boolean nounPhrase = constituent instanceof NounPhrase;
+            ancestors.add(constituent);
+            if (nounPhrase) {
+                nounPhrases.add((NounPhrase) constituent);
+            }
+            for (IFeatureStructure feature : constituent.getFeatures()) {
+                walk(feature, visitor);
+            }
+            if (nounPhrase) {
+                nounPhrases.remove(nounPhrases.size() - 1);
+            }
+            ancestors.remove(ancestors.size() - 1);
+        }
+    }
+
+    /**
+     * @return the clause being walked, <tt>null</tt> outside a walk
+     */
+    public Clause getClause() {
+        return clause;
+    }
+
+    /**
+     * @return the articulation being walked, also while the articulation itself is visited
+     */
+    public IArticulation getArticulation() {
+        return articulation;
+    }
+
+    /**
+     * @return the innermost noun phrase enclosing the visited node, <tt>null</tt> if there is none
+     */
+    public NounPhrase getNounPhrase() {
+        return nounPhrases.isEmpty() ? null : nounPhrases.get(nounPhrases.size() - 1);
+    }
+
+    /**
+     * @return the outermost noun phrase enclosing the visited node, <tt>null</tt> if there is none
+     */
+    public NounPhrase getOutermostNounPhrase() {
+        return nounPhrases.isEmpty() ? null : nounPhrases.get(0);
+    }
+
+    /**
+     * @return the phrase of the articulation which encloses the visited node, <tt>null</tt> when visiting a phrase of
+     *         the articulation or the articulation itself
+     */
+    public Constituent getTopPhrase() {
+        return ancestors.size() > 2 ? (Constituent) ancestors.get(2) : null;
+    }
+
+    /**
+     * @return the parent of the visited node, the clause for an articulation and the articulation or constituent for
+     *         a feature structure
+     */
+    public Object getParent() {
+        return ancestors.isEmpty() ? null : ancestors.get(ancestors.size() - 1);
+    }
+
+    /**
+     * @return the ancestors of the visited node, outermost (the clause) first
+     */
+    public List<Object> getAncestors() {
+        return Collections.unmodifiableList(ancestors);
+    }
+}
@@ -68,6 +68,11 @@ public class VerbPhrase extends Constituent {
         this.id = id;
     }
 
+    @Override
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
+    }
+
     public static interface VerbPhraseBuilder extends Builder<VerbPhrase> {
         VerbPhraseBuilder id(String id);
 
@@ -45,17 +45,11 @@
 
 package is.ru.openbeat.model;
 
-import com.google.common.base.Nullable;
-import com.google.common.base.Predicate;
-import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
 import is.ru.openbeat.behavior.IBehavior;
-import is.ru.openbeat.behavior.IBehaviorContainer;
 
 import java.lang.annotation.Annotation;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -66,90 +60,94 @@ import java.util.Set;
  * Additional attributes are begin and end time which are read from an {@link is.ru.openbeat.pipeline.ITimingSource
  * speech timing source}, contrast words and the behaviors associated with it.
  * <p/>
+ * The token, lemma, attributes and timings are kept in a {@link WordTable} and the word is a view of its row. Words
+ * created by the nlp sources share one table for each utterance, a word created with a constructor keeps them in a
+ * single row of its own. The attributes are kept in a shared {@link WordAttributes} set, adding an attribute replaces the set of the
+ * word.
+ * <p/>
  * Note: word comparing words, referential equality (infix == operator) should be used to compare specifically two
  * different instances of being different words in an utterance, while {@link Word#equals(Object)} and {@link
  * Word#hashCode()} can be used for comparison based on the token, lemma and attributes alone.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-public class Word implements IFeatureStructure, IBehaviorContainer {
-    private final String token;
-    private final Set<IWordAttribute> attributes;
-    private final List<IBehavior> behaviors = newArrayList();
-    private Set<Word> contrasts = newHashSet();
-    private String lemma;
-
-    private Float beginTime;
-    private Float endTime;
+public class Word extends BehaviorContainer implements IFeatureStructure {
+    private final WordRows table;
+    private final int row;
+    private Set<Word> contrasts;
 
     public Word(String token, Set<IWordAttribute> attributes) {
-        this.token = token;
-        this.attributes = attributes;
+        this(new SingleWordRow(token, WordAttributes.of(attributes)), 0);
     }
 
     public Word(String token, IWordAttribute... attribute) {
-        this.token = token;
-        this.attributes = newHashSet(attribute);
+        this(new SingleWordRow(token, WordAttributes.of(attribute)), 0);
+    }
+
+    /**
+     * Creates a view of a row in a word table.
+     *
+     * @param table the table
+     * @param row   the row of the word
+     */
+    Word(WordRows table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     public String getToken() {
-        return token;
+        return table.getToken(row);
     }
 
     public Set<Word> getContrasts() {
-        return contrasts;
+        return contrasts != null ? contrasts : Collections.<Word>emptySet();
     }
 
     public void addContrast(Word contrast) {
+        if (contrasts == null) {
+            contrasts = newHashSet();
+        }
         contrasts.add(contrast);
     }
 
     public String getLemma() {
-        return lemma;
+        return table.getLemma(row);
     }
 
     public void setLemma(String lemma) {
-        this.lemma = lemma;
+        table.setLemma(row, lemma);
     }
 
     public Float getBeginTime() {
-        return beginTime;
+        return table.getBeginTime(row);
     }
 
     public void setBeginTime(Float beginTime) {
-        this.beginTime = beginTime;
+        table.setBeginTime(row, beginTime);
     }
 
     public Float getEndTime() {
-        return endTime;
+        return table.getEndTime(row);
     }
 
     public void setEndTime(Float endTime) {
-        this.endTime = endTime;
+        table.setEndTime(row, endTime);
     }
 
     public void addAttribute(IWordAttribute attribute) {
-        attributes.add(attribute);
+        table.setAttributes(row, table.getAttributes(row).with(attribute));
     }
 
-    public void addBehavior(IBehavior behavior) {
-        behaviors.add(behavior);
-    }
-
-    public void removeBehavior(IBehavior behavior) {
-        behaviors.remove(behavior);
-    }
-
-    public List<IBehavior> getBehaviors() {
-        return behaviors;
+    public void accept(IFeatureStructureVisitor visitor) {
+        visitor.visit(this);
     }
 
     public boolean is(IWordAttribute attribute) {
-        return attributes.contains(attribute);
+        return table.getAttributes(row).contains(attribute);
     }
 
     public boolean matches(Word word) {
-        String thisWord = lemma != null ? lemma : token;
+        String thisWord = getLemma() != null ? getLemma() : getToken();
         String thatWord = word.getLemma() != null ? word.getLemma() : word.getToken();
 
         IWordAttribute thisGender = findAttributeOf(WordAttributeType.Gender.class);
@@ -161,16 +159,8 @@ public class Word implements IFeatureStructure, IBehaviorContainer {
             thatGender) && thisNumber.equals(thatNumber));
     }
 
-    public IWordAttribute findAttributeOf(final Class<? extends Annotation> klass) {
-        try {
-            return find(attributes, new Predicate<IWordAttribute>() {
-                public boolean apply(@Nullable IWordAttribute input) {
-                    return input.getClass().getAnnotation(klass) != null;
-                }
-            });
-        } catch (NoSuchElementException e) {
-            return null;
-        }
+    public IWordAttribute findAttributeOf(Class<? extends Annotation> klass) {
+        return table.getAttributes(row).get(klass);
     }
 
     @Override
@@ -180,17 +170,21 @@ public class Word implements IFeatureStructure, IBehaviorContainer {
 
         Word word = (Word) o;
 
-        if (attributes != null ? !attributes.equals(word.attributes) : word.attributes != null) return false;
-        if (lemma != null ? !lemma.equals(word.lemma) : word.lemma != null) return false;
-        if (token != null ? !token.equals(word.token) : word.token != null) return false;
+        final String lemma = getLemma();
+        final String token = getToken();
+        if (!table.getAttributes(row).equals(word.table.getAttributes(word.row))) return false;
+        if (lemma != null ? !lemma.equals(word.getLemma()) : word.getLemma() != null) return false;
+        if (token != null ? !token.equals(word.getToken()) : word.getToken() != null) return false;
 
         return true;
     }
 
     @Override
     public int hashCode() {
+        final String lemma = getLemma();
+        final String token = getToken();
         int result = token != null ? token.hashCode() : 0;
-        result = 31 * result + (attributes != null ? attributes.hashCode() : 0);
+        result = 31 * result + table.getAttributes(row).hashCode();
         result = 31 * result + (lemma != null ? lemma.hashCode() : 0);
         return result;
     }
@@ -198,13 +192,13 @@ public class Word implements IFeatureStructure, IBehaviorContainer {
     @Override
     public String toString() {
         return "Word{" +
-            "token='" + token + '\'' +
-            ", attributes=" + attributes +
-            ", behaviors=" + behaviors +
-            ", contrasts=" + contrasts +
-            ", lemma='" + lemma + '\'' +
-            ", beginTime=" + beginTime +
-            ", endTime=" + endTime +
+            "token='" + getToken() + '\'' +
+            ", attributes=" + table.getAttributes(row) +
+            ", behaviors=" + getBehaviors() +
+            ", contrasts=" + getContrasts() +
+            ", lemma='" + getLemma() + '\'' +
+            ", beginTime=" + getBeginTime() +
+            ", endTime=" + getEndTime() +
             '}';
     }
 
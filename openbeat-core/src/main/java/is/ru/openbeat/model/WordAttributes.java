@@ -0,0 +1,265 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import java.lang.annotation.Annotation;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class <tt>WordAttributes</tt> is an immutable set of {@link IWordAttribute word attributes} kept as a bitmask. Each
+ * attribute gets a bit the first time it is seen, the attributes of the model are registered up front. There is one
+ * instance for each combination of attributes, so words with the same attributes share the same set.
+ * <p/>
+ * The set also holds the attribute of each {@link WordAttributeType type}, which makes {@link #get(Class)} a lookup
+ * instead of a search through the annotations of the attributes.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public final class WordAttributes extends AbstractSet<IWordAttribute> {
+    private static final int MAX_ATTRIBUTES = 64;
+
+    private static final List<Class<? extends Annotation>> TYPES = Arrays.<Class<? extends Annotation>>asList(
+        WordAttributeType.WordClass.class, WordAttributeType.Gender.class, WordAttributeType.Person.class,
+        WordAttributeType.Number.class, WordAttributeType.Case.class, WordAttributeType.Article.class);
+
+    private static final ConcurrentMap<IWordAttribute, Integer> bits = new ConcurrentHashMap<IWordAttribute, Integer>();
+    private static final ConcurrentMap<Long, WordAttributes> sets = new ConcurrentHashMap<Long, WordAttributes>();
+
+    // indexed by bit, replaced when an attribute is registered
+    private static volatile IWordAttribute[] attributes = new IWordAttribute[0];
+    private static volatile int[] types = new int[0];
+
+    static {
+        register(WordClassAttribute.values());
+        register(GenderAttribute.values());
+        register(PersonAttribute.values());
+        register(NumberAttribute.values());
+    }
+
+    public static final WordAttributes EMPTY = valueOf(0L);
+
+    private final long mask;
+    private final IWordAttribute[] slots = new IWordAttribute[TYPES.size()];
+    private final int hashCode;
+
+    private WordAttributes(long mask) {
+        this.mask = mask;
+
+        int hashCode = 0;
+        for (IWordAttribute attribute : this) {
+            final int type = types[bits.get(attribute)];
+            if (type >= 0 && slots[type] == null) {
+                slots[type] = attribute;
+            }
+            hashCode += attribute.hashCode();
+        }
+        this.hashCode = hashCode;
+    }
+
+    /**
+     * @param attributes the attributes
+     * @return the set of the given attributes
+     * @throws IllegalStateException if the attributes would need more than 64 distinct attributes in total
+     */
+    public static WordAttributes of(IWordAttribute... attributes) {
+        return of(Arrays.asList(attributes));
+    }
+
+    /**
+     * @param attributes the attributes
+     * @return the set of the given attributes
+     * @throws IllegalStateException if the attributes would need more than 64 distinct attributes in total
+     */
+    public static WordAttributes of(Collection<? extends IWordAttribute> attributes) {
+        if (attributes instanceof WordAttributes) {
+            return (WordAttributes) attributes;
+        }
+
+        long mask = 0L;
+        for (IWordAttribute attribute : attributes) {
+            mask |= 1L << bitOf(attribute);
+        }
+        return valueOf(mask);
+    }
+
+    /**
+     * @param attribute the attribute to add
+     * @return the set of these attributes and the given one
+     */
+    public WordAttributes with(IWordAttribute attribute) {
+        return valueOf(mask | 1L << bitOf(attribute));
+    }
+
+    /**
+     * Finds the attribute of a type, e.g. the {@link WordAttributeType.Gender gender} of a word.
+     *
+     * @param type the annotation which marks the attribute type
+     * @return the attribute of that type, <tt>null</tt> if there is none
+     */
+    public IWordAttribute get(Class<? extends Annotation> type) {
+        final int index = TYPES.indexOf(type);
+        if (index >= 0) {
+            return slots[index];
+        }
+
+        for (IWordAttribute attribute : this) {
+            if (attribute.getClass().getAnnotation(type) != null) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        final Integer bit = bits.get(o);
+        return bit != null && (mask & 1L << bit) != 0;
+    }
+
+    @Override
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    @Override
+    public Iterator<IWordAttribute> iterator() {
+        return new Iterator<IWordAttribute>() {
+            private long remaining = mask;
+
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            public IWordAttribute next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                final int bit = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return attributes[bit];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof WordAttributes) {
+            return mask == ((WordAttributes) o).mask;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    private static WordAttributes valueOf(long mask) {
+        final WordAttributes set = sets.get(mask);
+        if (set != null) {
+            return set;
+        }
+        final WordAttributes created = new WordAttributes(mask);
+        final WordAttributes existing = sets.putIfAbsent(mask, created);
+        return existing != null ? existing : created;
+    }
+
+    private static int bitOf(IWordAttribute attribute) {
+        final Integer bit = bits.get(attribute);
+        return bit != null ? bit : register(attribute);
+    }
+
+    private static synchronized int register(IWordAttribute... attributes) {
+        int bit = -1;
+        for (IWordAttribute attribute : attributes) {
+            final Integer existing = bits.get(attribute);
+            if (existing != null) {
+                bit = existing;
+                continue;
+            }
+
+            bit = WordAttributes.attributes.length;
+            if (bit == MAX_ATTRIBUTES) {
+                throw new IllegalStateException(
+                    "No more than " + MAX_ATTRIBUTES + " word attributes are supported, cannot add " + attribute);
+            }
+
+            final IWordAttribute[] extendedAttributes = Arrays.copyOf(WordAttributes.attributes, bit + 1);
+            extendedAttributes[bit] = attribute;
+            final int[] extendedTypes = Arrays.copyOf(types, bit + 1);
+            extendedTypes[bit] = typeOf(attribute);
+
+            // publish the arrays before the bit so readers which find the bit also find the attribute
+            WordAttributes.attributes = extendedAttributes;
+            types = extendedTypes;
+            bits.put(attribute, bit);
+        }
+        return bit;
+    }
+
+    private static int typeOf(IWordAttribute attribute) {
+        for (int i = 0; i < TYPES.size(); i++) {
+            if (attribute.getClass().getAnnotation(TYPES.get(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>WordTable</tt> stores the words of an {@link Utterance utterance} column by column. Tokens and lemmas are
+ * kept as indices into a list of distinct strings, attributes as {@link WordAttributes shared sets} and timings as
+ * primitive floats. Each {@link Word} created by the table is a view of one row, so a word costs a few array slots
+ * rather than a graph of objects.
+ * <p/>
+ * A table is filled by one {@link is.ru.openbeat.pipeline.INlpSource nlp source} at a time and is not safe for
+ * concurrent writes, reading from several threads is safe once the words have been added.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class WordTable extends WordRows {
+    private static final int NONE = -1;
+
+    private final List<String> strings = newArrayList();
+    private final Map<String, Integer> stringIds = newHashMap();
+
+    private int size;
+    private int[] tokens;
+    private int[] lemmas;
+    private WordAttributes[] attributes;
+    private float[] beginTimes;
+    private float[] endTimes;
+
+    public WordTable() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the number of words to reserve room for
+     */
+    public WordTable(int capacity) {
+        tokens = new int[capacity];
+        lemmas = new int[capacity];
+        attributes = new WordAttributes[capacity];
+        beginTimes = new float[capacity];
+        endTimes = new float[capacity];
+    }
+
+    /**
+     * Adds a word to the table.
+     *
+     * @param token      the token
+     * @param attributes the attributes of the word
+     * @return a view of the new row
+     */
+    public Word add(String token, Set<IWordAttribute> attributes) {
+        return new Word(this, addRow(token, WordAttributes.of(attributes)));
+    }
+
+    /**
+     * @return the number of words in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    int addRow(String token, WordAttributes attributes) {
+        if (size == tokens.length) {
+            final int capacity = Math.max(4, size * 2);
+            tokens = Arrays.copyOf(tokens, capacity);
+            lemmas = Arrays.copyOf(lemmas, capacity);
+            this.attributes = Arrays.copyOf(this.attributes, capacity);
+            beginTimes = Arrays.copyOf(beginTimes, capacity);
+            endTimes = Arrays.copyOf(endTimes, capacity);
+        }
+
+        final int row = size++;
+        tokens[row] = idOf(token);
+        lemmas[row] = NONE;
+        this.attributes[row] = attributes;
+        beginTimes[row] = Float.NaN;
+        endTimes[row] = Float.NaN;
+        return row;
+    }
+
+    String getToken(int row) {
+        return stringOf(tokens[row]);
+    }
+
+    String getLemma(int row) {
+        return stringOf(lemmas[row]);
+    }
+
+    void setLemma(int row, String lemma) {
+        lemmas[row] = idOf(lemma);
+    }
+
+    WordAttributes getAttributes(int row) {
+        return attributes[row];
+    }
+
+    void setAttributes(int row, WordAttributes attributes) {
+        this.attributes[row] = attributes;
+    }
+
+    Float getBeginTime(int row) {
+        return boxed(beginTimes[row]);
+    }
+
+    void setBeginTime(int row, Float beginTime) {
+        beginTimes[row] = unboxed(beginTime);
+    }
+
+    Float getEndTime(int row) {
+        return boxed(endTimes[row]);
+    }
+
+    void setEndTime(int row, Float endTime) {
+        endTimes[row] = unboxed(endTime);
+    }
+
+    private int idOf(String s) {
+        if (s == null) {
+            return NONE;
+        }
+
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private String stringOf(int id) {
+        return id == NONE ? null : strings.get(id);
+    }
+
+    // missing timings are kept as NaN, which is never a valid timing
+    private static Float boxed(float f) {
+        return Float.isNaN(f) ? null : f;
+    }
+
+    private static float unboxed(Float f) {
+        return f == null ? Float.NaN : f;
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.multimethod;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>DispatcherProcessor</tt> generates a {@link Dispatcher} for each class with {@link Multi},
+ * {@link Collect} or {@link Produce} methods, one per annotation. The generated class is named after the binary name
+ * of the class, e.g. <tt>BeatGenerator$$MultiDispatcher</tt>, and lives in the same package so it can call package
+ * private handlers. Classes with private handlers, or handlers that declare checked exceptions or take private types,
+ * are left to the reflective lookup.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+@SupportedAnnotationTypes({
+        "is.ru.openbeat.multimethod.Multi",
+        "is.ru.openbeat.multimethod.Collect",
+        "is.ru.openbeat.multimethod.Produce"})
+public class DispatcherProcessor extends AbstractProcessor {
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            final Map<TypeElement, List<ExecutableElement>> handlers = newLinkedHashMap();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                final TypeElement type = (TypeElement) element.getEnclosingElement();
+                List<ExecutableElement> methods = handlers.get(type);
+                if (methods == null) {
+                    methods = newArrayList();
+                    handlers.put(type, methods);
+                }
+                methods.add((ExecutableElement) element);
+            }
+
+            for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+                generate(entry.getKey(), annotation.getSimpleName().toString(), entry.getValue());
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type, String annotationName, List<ExecutableElement> methods) {
+        if (!isAccessible(type)) {
+            note(type, "not accessible from its package");
+            return;
+        }
+
+        final List<ExecutableElement> applicable = newArrayList();
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                note(method, "private handler");
+                return;
+            }
+            if (!method.getThrownTypes().isEmpty()) {
+                note(method, "handler declares exceptions");
+                return;
+            }
+            boolean primitive = false;
+            for (VariableElement parameter : method.getParameters()) {
+                final TypeMirror erasure = erasure(parameter.asType());
+                if (erasure.getKind().isPrimitive()) {
+                    // never applicable to boxed arguments, same as the reflective lookup
+                    primitive = true;
+                } else if (!isAccessible(erasure)) {
+                    note(method, "parameter type not accessible from its package");
+                    return;
+                }
+            }
+            if (!primitive) {
+                applicable.add(method);
+            }
+        }
+
+        final String packageName = packageOf(type).getQualifiedName().toString();
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String dispatcherName = MethodTable.dispatcherName(binaryName, annotationName);
+        final String simpleName = packageName.length() == 0
+                ? dispatcherName : dispatcherName.substring(packageName.length() + 1);
+
+        try {
+            final PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(dispatcherName, type)
+                    .openWriter());
+            try {
+                write(out, packageName, simpleName, type, new ElementOrder().sort(applicable));
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write dispatcher " + dispatcherName + ": " + e.getMessage(), type);
+        }
+    }
+
+    private void write(PrintWriter out, String packageName, String simpleName, TypeElement type,
+                       List<ExecutableElement> methods) {
+        final String typeName = erasure(type.asType()).toString();
+
+        if (packageName.length() > 0) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/** Generated by {@link " + DispatcherProcessor.class.getName() + "}, do not edit. */");
+        out.println("public final class " + simpleName + " implements " + Dispatcher.class.getName() + " {");
+        out.println("    @SuppressWarnings(\"unchecked\")");
+        out.println("    public Object dispatch(Object self, Object[] args, int offset) {");
+        out.println("        final " + typeName + " target = (" + typeName + ") self;");
+        out.println("        final int length = args.length - offset;");
+        for (ExecutableElement method : methods) {
+            final List<? extends VariableElement> parameters = method.getParameters();
+            final StringBuilder condition = new StringBuilder("length == ").append(parameters.size());
+            final StringBuilder call = new StringBuilder();
+            call.append(method.getModifiers().contains(Modifier.STATIC) ? typeName : "target");
+            call.append('.').append(method.getSimpleName()).append('(');
+            for (int i = 0; i < parameters.size(); i++) {
+                final String parameterType = erasure(parameters.get(i).asType()).toString();
+                final String arg = "args[offset + " + i + "]";
+                if (!Object.class.getName().equals(parameterType)) {
+                    // null is only applicable to Object parameters, which instanceof gives for free
+                    condition.append(" && ").append(arg).append(" instanceof ").append(parameterType);
+                }
+                call.append(i > 0 ? ", " : "").append('(').append(parameterType).append(") ").append(arg);
+            }
+            call.append(')');
+
+            out.println("        if (" + condition + ") {");
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                out.println("            " + call + ";");
+                out.println("            return null;");
+            } else {
+                out.println("            return " + call + ";");
+            }
+            out.println("        }");
+        }
+        out.println("        return NOT_APPLICABLE;");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private boolean isAccessible(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return isAccessible((TypeElement) ((DeclaredType) type).asElement());
+        }
+        return true;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            final TypeElement t = (TypeElement) element;
+            if (t.getModifiers().contains(Modifier.PRIVATE)
+                    || t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PackageElement packageOf(Element element) {
+        while (!(element instanceof PackageElement)) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private void note(Element element, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "No dispatcher generated, " + reason + ", using reflection", element);
+    }
+
+    private class ElementOrder extends SpecificityOrder<ExecutableElement> {
+        @Override
+        protected String key(ExecutableElement method) {
+            final StringBuilder sb = new StringBuilder(method.getSimpleName());
+            for (VariableElement parameter : method.getParameters()) {
+                sb.append(',').append(typeName(erasure(parameter.asType())));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        protected int arity(ExecutableElement method) {
+            return method.getParameters().size();
+        }
+
+        @Override
+        protected boolean isAssignable(ExecutableElement from, ExecutableElement to, int index) {
+            return processingEnv.getTypeUtils().isAssignable(parameterType(from, index), parameterType(to, index));
+        }
+
+        @Override
+        protected boolean isSameType(ExecutableElement l, ExecutableElement r, int index) {
+            return processingEnv.getTypeUtils().isSameType(parameterType(l, index), parameterType(r, index));
+        }
+
+        private TypeMirror parameterType(ExecutableElement method, int index) {
+            return erasure(method.getParameters().get(index).asType());
+        }
+
+        /** Same names as {@link Class#getName()} gives, except arrays which are named like in source. */
+        private String typeName(TypeMirror type) {
+            if (type.getKind() == TypeKind.ARRAY) {
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            }
+            if (type.getKind() == TypeKind.DECLARED) {
+                return processingEnv.getElementUtils()
+                        .getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+            }
+            return type.toString();
+        }
+    }
+}
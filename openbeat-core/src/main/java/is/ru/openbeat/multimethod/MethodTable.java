@@ -0,0 +1,327 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.multimethod;
+
+import static com.google.common.collect.Lists.immutableList;
+import static com.google.common.collect.Lists.newArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class <tt>MethodTable</tt> holds the handlers of one class for one annotation, either the generated
+ * {@link Dispatcher} or the sorted handler methods together with their dispatch cache. Tables are kept in a global
+ * registry keyed by class and annotation, so every {@link Multimethod} for the same class shares the same table and
+ * the reflective scan happens once per class. A table never changes after it is built, apart from its dispatch cache
+ * which is safe for concurrent use.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+final class MethodTable {
+    private static final Logger log = LoggerFactory.getLogger(MethodTable.class);
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, MethodTable>> tables =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<? extends Annotation>, MethodTable>>();
+
+    final Dispatcher dispatcher;
+    private final List<Method> methods;
+    private final ConcurrentMap<DispatchKey, Dispatch> dispatchCache = new ConcurrentHashMap<DispatchKey, Dispatch>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    private MethodTable(Dispatcher dispatcher, List<Method> methods) {
+        this.dispatcher = dispatcher;
+        this.methods = methods;
+    }
+
+    /**
+     * The table for a class and annotation, built on first use.
+     *
+     * @param source the class with the handlers
+     * @param target the handler annotation
+     * @return the shared table
+     */
+    static MethodTable of(Class<?> source, Class<? extends Annotation> target) {
+        ConcurrentMap<Class<? extends Annotation>, MethodTable> byTarget = tables.get(source);
+        if (byTarget == null) {
+            byTarget = new ConcurrentHashMap<Class<? extends Annotation>, MethodTable>(4);
+            final ConcurrentMap<Class<? extends Annotation>, MethodTable> previous =
+                    tables.putIfAbsent(source, byTarget);
+            if (previous != null) {
+                byTarget = previous;
+            }
+        }
+
+        MethodTable table = byTarget.get(target);
+        if (table == null) {
+            // racing threads may both build the table, only the first one is kept
+            table = build(source, target);
+            final MethodTable previous = byTarget.putIfAbsent(target, table);
+            if (previous != null) {
+                table = previous;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The name of the {@link Dispatcher} generated for a class and annotation.
+     *
+     * @param binaryName     the binary name of the class with the handlers
+     * @param annotationName the simple name of the handler annotation
+     * @return the binary name of the dispatcher
+     */
+    static String dispatcherName(String binaryName, String annotationName) {
+        return binaryName + "$$" + annotationName + "Dispatcher";
+    }
+
+    private static MethodTable build(Class<?> source, Class<? extends Annotation> target) {
+        final Dispatcher dispatcher = findDispatcher(source, target);
+        if (dispatcher != null) {
+            return new MethodTable(dispatcher, null);
+        }
+        return new MethodTable(null, findMethods(source, target));
+    }
+
+    private static Dispatcher findDispatcher(Class<?> source, Class<? extends Annotation> target) {
+        final ClassLoader loader = source.getClassLoader();
+        if (loader == null) {
+            return null;
+        }
+        try {
+            final Class<?> klass = loader.loadClass(dispatcherName(source.getName(), target.getSimpleName()));
+            log.trace("Using generated dispatcher {}", klass.getName());
+            return (Dispatcher) klass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InstantiationException e) {
+            throw new RuntimeException("Could not create dispatcher for '" + source.getName() + "'", e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not create dispatcher for '" + source.getName() + "'", e);
+        }
+    }
+
+    private static List<Method> findMethods(Class<?> source, Class<? extends Annotation> target) {
+        final List<Method> unsortedMethods = newArrayList();
+        for (Method method : source.getDeclaredMethods()) {
+            for (Annotation annotation : method.getAnnotations()) {
+                if (target.isAssignableFrom(annotation.getClass())) {
+                    if (!method.isAccessible()) {
+                        log.trace("Setting method {} as accessible", method);
+                        method.setAccessible(true);
+                    }
+                    unsortedMethods.add(method);
+                }
+            }
+        }
+
+        final List<Method> methods = immutableList(new MethodOrder().sort(unsortedMethods));
+        if (log.isTraceEnabled()) {
+            for (Method method : methods) {
+                log.trace("Method: {}", method.getName());
+            }
+        }
+        return methods;
+    }
+
+    long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Resolves the dispatch for the arguments starting at <tt>offset</tt>. In the static context the first argument
+     * is the receiver and is skipped by offset rather than copied out, so a cache hit does not allocate a new
+     * argument array.
+     *
+     * @param args   the arguments
+     * @param offset the index of the first argument
+     * @return the dispatch, {@link Dispatch#NONE} if no method is applicable
+     */
+    Dispatch findDispatch(Object[] args, int offset) {
+        final DispatchKey key = new DispatchKey(args, offset);
+        Dispatch dispatch = dispatchCache.get(key);
+        if (dispatch != null) {
+            cacheHits.incrementAndGet();
+            return dispatch;
+        }
+
+        cacheMisses.incrementAndGet();
+        final Method method = findMethod(args, offset);
+        dispatch = method != null ? new Dispatch(method) : Dispatch.NONE;
+        final Dispatch previous = dispatchCache.putIfAbsent(key, dispatch);
+        return previous != null ? previous : dispatch;
+    }
+
+    private Method findMethod(Object[] args, int offset) {
+        for (final Method method : methods) {
+            if (isApplicable(method, args, offset)) {
+                return method;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isApplicable(Method method, Object[] args, int offset) {
+        final Class[] classes = method.getParameterTypes();
+        if (args.length - offset != classes.length) {
+            return false;
+        }
+        for (int i = 0; i < classes.length; i++) {
+            final Class klass = classes[i];
+            final Object arg = args[i + offset];
+            if (!klass.isInstance(arg)) {
+                if (arg != null || !Object.class.equals(classes[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Key of the dispatch cache, the runtime classes of the arguments. A <tt>null</tt> argument is kept as a
+     * <tt>null</tt> class since applicability of a <tt>null</tt> only depends on the parameter type.
+     */
+    private static final class DispatchKey {
+        private final Class[] classes;
+        private final int hash;
+
+        DispatchKey(Object[] args, int offset) {
+            classes = new Class[args.length - offset];
+            for (int i = 0; i < classes.length; i++) {
+                final Object arg = args[i + offset];
+                classes[i] = arg != null ? arg.getClass() : null;
+            }
+            hash = Arrays.hashCode(classes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final DispatchKey that = (DispatchKey) o;
+
+            return hash == that.hash && Arrays.equals(classes, that.classes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Resolved method for a dispatch key, {@link #NONE} when no method is applicable. Holds what the invocation needs
+     * up front so the per call work is only the reflective call itself.
+     */
+    static final class Dispatch {
+        static final Dispatch NONE = new Dispatch(null);
+
+        final Method method;
+        private final String name;
+
+        Dispatch(Method method) {
+            this.method = method;
+            this.name = method != null ? method.getName() : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T invoke(Object context, Object[] args, int offset) {
+            final Object[] a = offset == 0 ? args : Arrays.copyOfRange(args, offset, args.length);
+            try {
+                return (T) method.invoke(context, a);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Method invocation failed, illegal access '" + name + "'", e);
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException("Method invocation failed '" + name + "'", e);
+            }
+        }
+    }
+
+    private static class MethodOrder extends SpecificityOrder<Method> {
+        @Override
+        protected String key(Method method) {
+            final StringBuilder sb = new StringBuilder(method.getName());
+            for (Class<?> klass : method.getParameterTypes()) {
+                sb.append(',').append(typeName(klass));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        protected int arity(Method method) {
+            return method.getParameterTypes().length;
+        }
+
+        @Override
+        protected boolean isAssignable(Method from, Method to, int index) {
+            return to.getParameterTypes()[index].isAssignableFrom(from.getParameterTypes()[index]);
+        }
+
+        @Override
+        protected boolean isSameType(Method l, Method r, int index) {
+            return l.getParameterTypes()[index].equals(r.getParameterTypes()[index]);
+        }
+
+        private static String typeName(Class<?> klass) {
+            return klass.isArray() ? typeName(klass.getComponentType()) + "[]" : klass.getName();
+        }
+    }
+}
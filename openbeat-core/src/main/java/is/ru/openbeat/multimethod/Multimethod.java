@@ -45,24 +45,17 @@
 
 package is.ru.openbeat.multimethod;
 
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Lists.sortedCopy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
 
 public final class Multimethod {
     private static final Logger log = LoggerFactory.getLogger(Multimethod.class);
 
-    private final List<Method> methods = newArrayList();
     private final Object self;
+    private final int offset;
+    private final MethodTable table;
 
     public Multimethod(Object self) {
         this(self, Multi.class);
@@ -70,8 +63,8 @@ public final class Multimethod {
 
     public Multimethod(Object self, Class<? extends Annotation> target) {
         this.self = self;
-
-        findMethods(self.getClass(), target);
+        this.offset = 0;
+        this.table = MethodTable.of(self.getClass(), target);
     }
 
     public Multimethod(Class<?> source) {
@@ -80,30 +73,8 @@ public final class Multimethod {
 
     public Multimethod(Class<?> source, Class<? extends Annotation> target) {
         this.self = null;
-
-        findMethods(source, target);
-    }
-
-    private void findMethods(Class<?> source, Class<? extends Annotation> target) {
-        final List<Method> unsortedMethods = newArrayList();
-        for (Method method : source.getDeclaredMethods()) {
-            for (Annotation annotation : method.getAnnotations()) {
-                if (target.isAssignableFrom(annotation.getClass())) {
-                    if (!method.isAccessible()) {
-                        log.trace("Setting method {} as accessible", method);
-                        method.setAccessible(true);
-                    }
-                    unsortedMethods.add(method);
-                }
-            }
-        }
-
-        methods.addAll(sortedCopy(unsortedMethods, new MethodComparator()));
-        if (log.isTraceEnabled()) {
-            for (Method method : methods) {
-                log.trace("Method: {}", method.getName());
-            }
-        }
+        this.offset = 1;
+        this.table = MethodTable.of(source, target);
     }
 
     /**
@@ -115,10 +86,9 @@ public final class Multimethod {
      */
     public <T> T invoke(Object... args) {
         final Object context = self != null ? self : args[0];
-        final Object[] a = self != null ? args : Arrays.copyOfRange(args, 1, args.length); // TODO: second case untested
-        final Method method = findMethod(a);
+        final Object result = dispatch(context, args);
 
-        if (method == null) {
+        if (result == Dispatcher.NOT_APPLICABLE) {
             StringBuilder sb = new StringBuilder();
             sb.append("No applicable/public method found for arguments in '").append(context).append("': ");
             for (Object arg : args) {
@@ -127,13 +97,7 @@ public final class Multimethod {
             throw new RuntimeException(sb.toString());
         }
 
-        try {
-            return (T) method.invoke(context, a);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Method invocation failed, illegal access '" + method.getName() + "'", e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException("Method invocation failed '" + method.getName() + "'", e);
-        }
+        return (T) result;
     }
 
     /**
@@ -145,75 +109,51 @@ public final class Multimethod {
      */
     public <T> T match(Object... args) {
         final Object context = self != null ? self : args[0];
-        final Object[] a = self != null ? args : Arrays.copyOfRange(args, 1, args.length); // TODO: second case untested
-        final Method method = findMethod(a);
+        final Object result = dispatch(context, args);
 
-        if (method == null) {
-            log.trace("No applicable/public method found for arguments in '{}': ", context);
-            for (Object arg : args) {
-                log.trace("  '{}'", arg);
+        if (result == Dispatcher.NOT_APPLICABLE) {
+            if (log.isTraceEnabled()) {
+                log.trace("No applicable/public method found for arguments in '{}': ", context);
+                for (Object arg : args) {
+                    log.trace("  '{}'", arg);
+                }
             }
             return null;
         }
 
-        try {
-            return (T) method.invoke(context, a);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Method invocation failed, illegal access '" + method.getName() + "'", e);
-        } catch (InvocationTargetException e) {
-            throw new RuntimeException("Method invocation failed '" + method.getName() + "'", e);
-        }
+        return (T) result;
     }
 
-    private Method findMethod(Object... args) {
-        for (final Method method : methods) {
-            if (isApplicable(method, args)) {
-                return method;
-            }
-        }
-
-        return null;
+    /**
+     * Number of lookups resolved from the dispatch cache, counted over all multimethods for the same class and
+     * annotation. Always zero when a generated {@link Dispatcher} is used.
+     *
+     * @return the cache hit count
+     */
+    public long getCacheHits() {
+        return table.getCacheHits();
     }
 
-    private boolean isApplicable(Method method, Object... args) {
-        final Class[] classes = method.getParameterTypes();
-        if (args.length != classes.length) {
-            return false;
-        }
-        for (int i = 0; i < classes.length; i++) {
-            final Class klass = classes[i];
-            if (!klass.isInstance(args[i])) {
-                if (args[i] != null || !Object.class.equals(classes[i])) {
-                    return false;
-                }
-            }
-        }
-        return true;
+    /**
+     * Number of lookups that had to scan the method list, one per distinct tuple of argument classes, counted over
+     * all multimethods for the same class and annotation.
+     *
+     * @return the cache miss count
+     */
+    public long getCacheMisses() {
+        return table.getCacheMisses();
     }
 
-    private static class MethodComparator implements Comparator<Method>, Serializable {
-        public int compare(Method l, Method r) {
-            // most specific methods first
-            final Class[] lc = l.getParameterTypes();
-            final Class[] rc = r.getParameterTypes();
+    boolean hasDispatcher() {
+        return table.dispatcher != null;
+    }
 
-            if (lc.length <= rc.length) {
-                return compare(lc, rc, 1);
-            } else {
-                return compare(rc, lc, -1);
-            }
+    private Object dispatch(Object context, Object[] args) {
+        if (table.dispatcher != null) {
+            return table.dispatcher.dispatch(context, args, offset);
         }
 
-        /** Ensures correct comparison of method parameters. The definition order of the parameteres */
-        private int compare(Class[] c1, Class[] c2, int mul) {
-            for (int i = 0; i < c1.length; i++) {
-                if (!c1[i].equals(c2[i])) {
-                    if (c1[i].isAssignableFrom(c2[i])) {
-                        return mul;
-                    }
-                }
-            }
-            return -1 * mul;
-        }
+        final MethodTable.Dispatch dispatch = table.findDispatch(args, offset);
+        return dispatch.method != null ? dispatch.invoke(context, args, offset) : Dispatcher.NOT_APPLICABLE;
     }
 }
@@ -0,0 +1,149 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.multimethod;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Class <tt>SpecificityOrder</tt> orders handler methods most specific first. A method precedes another of the same
+ * arity when each of its parameter types is assignable to the corresponding parameter type of the other. Methods
+ * that are not related that way keep a stable order by name and parameter type names, so the reflective lookup and
+ * the generated dispatchers resolve to the same method regardless of the order the methods were found in.
+ *
+ * @param <M> the method representation
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+abstract class SpecificityOrder<M> {
+    /**
+     * The stable key of a method, its name followed by its parameter type names.
+     *
+     * @param method the method
+     * @return the key
+     */
+    protected abstract String key(M method);
+
+    /**
+     * The number of parameters of a method.
+     *
+     * @param method the method
+     * @return the arity
+     */
+    protected abstract int arity(M method);
+
+    /**
+     * Checks if parameter <tt>index</tt> of <tt>from</tt> is assignable to the same parameter of <tt>to</tt>.
+     *
+     * @param from  the method with the possibly more specific parameter
+     * @param to    the method with the possibly more general parameter
+     * @param index the parameter index
+     * @return true if assignable
+     */
+    protected abstract boolean isAssignable(M from, M to, int index);
+
+    /**
+     * Checks if parameter <tt>index</tt> is of the same type in both methods.
+     *
+     * @param l     the left method
+     * @param r     the right method
+     * @param index the parameter index
+     * @return true if the same type
+     */
+    protected abstract boolean isSameType(M l, M r, int index);
+
+    public List<M> sort(Iterable<? extends M> methods) {
+        final List<M> remaining = newArrayList(methods);
+        Collections.sort(remaining, new Comparator<M>() {
+            public int compare(M l, M r) {
+                return key(l).compareTo(key(r));
+            }
+        });
+
+        final List<M> sorted = newArrayList();
+        while (!remaining.isEmpty()) {
+            for (Iterator<M> i = remaining.iterator(); i.hasNext();) {
+                final M candidate = i.next();
+                if (!hasMoreSpecific(candidate, remaining)) {
+                    sorted.add(candidate);
+                    i.remove();
+                    break;
+                }
+            }
+        }
+        return sorted;
+    }
+
+    private boolean hasMoreSpecific(M candidate, List<M> methods) {
+        for (M method : methods) {
+            if (method != candidate && isMoreSpecific(method, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isMoreSpecific(M l, M r) {
+        final int arity = arity(l);
+        if (arity != arity(r)) {
+            return false;
+        }
+
+        boolean differs = false;
+        for (int i = 0; i < arity; i++) {
+            if (!isSameType(l, r, i)) {
+                if (!isAssignable(l, r, i)) {
+                    return false;
+                }
+                differs = true;
+            }
+        }
+        return differs;
+    }
+}
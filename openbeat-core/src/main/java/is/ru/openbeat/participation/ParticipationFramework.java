@@ -48,10 +48,12 @@ package is.ru.openbeat.participation;
 import com.google.common.base.Nullable;
 import com.google.common.base.Predicate;
 import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -77,15 +79,34 @@ public class ParticipationFramework {
 
     public void removeParticipant(String participantName) {
         final Participant removed = participants.get(participantName);
-        if (speaker.equals(removed)) {
+        if (speaker != null && speaker.equals(removed)) {
             speaker = null;
         }
-        if (addressee.equals(removed)) {
+        if (addressee != null && addressee.equals(removed)) {
             addressee = null;
         }
         participants.remove(participantName);
     }
 
+    /**
+     * Makes the given names the participants. Participants who are still in the scene keep their state, so the speaker
+     * stays the speaker unless they left.
+     *
+     * @param participantNames the names of the participants in the scene
+     */
+    public void setParticipants(Collection<String> participantNames) {
+        for (String participantName : newArrayList(participants.keySet())) {
+            if (!participantNames.contains(participantName)) {
+                removeParticipant(participantName);
+            }
+        }
+        for (String participantName : participantNames) {
+            if (!participants.containsKey(participantName)) {
+                addParticipant(participantName);
+            }
+        }
+    }
+
     public void setSpeakerAddressing(String speakerName, String addresseeName) {
         if (speaker != null) {
             speaker.setState(Participant.State.HEARER);
@@ -45,40 +45,51 @@
 
 package is.ru.openbeat.participation;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import com.google.inject.Inject;
-import com.google.inject.Singleton;
 import is.ru.openbeat.knowledge.IKnowledgeBase;
 import is.ru.openbeat.knowledge.IKnowledgePerson;
 import is.ru.openbeat.knowledge.IKnowledgeScene;
 
+import java.util.List;
 import java.util.Map;
 
 /**
  * Class <tt>ParticipationFrameworkBase</tt> maps scenes to a specific {@link ParticipationFramework scene
- * participation}.
+ * participation}. Each {@link is.ru.openbeat.pipeline.PipelineSession session} has its own participation framework
+ * base.
+ * <p/>
+ * The current scene is looked up by its id in the knowledge base each time it's asked for, so it comes from the same
+ * version of the knowledge base as the rest of the utterance when the knowledge base is reloaded. The frameworks are
+ * kept by the id of the scene, so they outlive a reload, and a framework is created for a scene added by a reload when
+ * first needed. When a new version of a scene is read, for instance after a person walks in or out, the participants
+ * of its framework are brought in line with the scene; the speaker keeps speaking as long as they're still there.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-@Singleton
 public class ParticipationFrameworkBase {
-    private final Map<IKnowledgeScene, ParticipationFramework> frameworks = newHashMap();
+    private final Map<String, ParticipationFramework> frameworks = newHashMap();
+    private final Map<String, IKnowledgeScene> syncedScenes = newHashMap();
 
+    private final IKnowledgeBase knowledgeBase;
     private IKnowledgeScene currentScene;
 
     @Inject
     public ParticipationFrameworkBase(IKnowledgeBase knowledgeBase) {
+        this.knowledgeBase = knowledgeBase;
         for (IKnowledgeScene scene : knowledgeBase.getAllScenes()) {
-            final ParticipationFramework framework = new ParticipationFramework();
-            for (IKnowledgePerson person : scene.getParticipants()) {
-                framework.addParticipant(person.getId());
-            }
-            frameworks.put(scene, framework);
+            getParticipationFramework(scene);
         }
     }
 
+    /**
+     * Gets the current scene as it is in the knowledge base.
+     *
+     * @return the current scene, or null if there is none or it's no longer in the knowledge base
+     */
     public IKnowledgeScene getCurrentScene() {
-        return currentScene;
+        return currentScene != null ? knowledgeBase.getScene(currentScene.getId()) : null;
     }
 
     public void setCurrentScene(IKnowledgeScene currentScene) {
@@ -87,12 +98,44 @@ public class ParticipationFrameworkBase {
 
     public ParticipationFramework getCurrentParticipationFramework() {
         if (currentScene != null) {
-            return frameworks.get(currentScene);
+            return getParticipationFramework(currentScene);
         }
         return null;
     }
 
-    public ParticipationFramework getParticipationFramework(IKnowledgeScene scene) {
-        return frameworks.get(scene);
+    /**
+     * Gets the participation framework of a scene, with the participants of the scene as it is in the knowledge base.
+     *
+     * @param scene the scene, any version of it
+     * @return the participation framework, or null if the scene is null
+     */
+    public synchronized ParticipationFramework getParticipationFramework(IKnowledgeScene scene) {
+        if (scene == null) {
+            return null;
+        }
+        final IKnowledgeScene latest = knowledgeBase.getScene(scene.getId());
+        if (latest != null) {
+            scene = latest;
+        }
+
+        ParticipationFramework framework = frameworks.get(scene.getId());
+        if (framework == null) {
+            framework = new ParticipationFramework();
+            frameworks.put(scene.getId(), framework);
+        }
+        // a changed scene is a new version of it, so the participants are only compared when the version changes
+        if (syncedScenes.get(scene.getId()) != scene) {
+            framework.setParticipants(participantIds(scene));
+            syncedScenes.put(scene.getId(), scene);
+        }
+        return framework;
+    }
+
+    private static List<String> participantIds(IKnowledgeScene scene) {
+        final List<String> ids = newArrayList();
+        for (IKnowledgePerson person : scene.getParticipants()) {
+            ids.add(person.getId());
+        }
+        return ids;
     }
 }
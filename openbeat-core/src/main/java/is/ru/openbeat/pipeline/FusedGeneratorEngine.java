@@ -0,0 +1,207 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import static com.google.common.collect.Lists.immutableList;
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class <tt>FusedGeneratorEngine</tt> runs a list of {@link IBehaviorGenerator generators} as one. Consecutive {@link
+ * IFusedBehaviorGenerator fused generators} share a single walk of the utterance, their handlers are called at each
+ * node in list order. Other generators run on their own at their place in the list.
+ * <p/>
+ * Each fused generator writes to its own {@link BehaviorBuffer buffer} and the buffers are flushed after the walk in
+ * list order. Generators only read the linguistic model, so the outcome is the same as running the list one generator
+ * after another.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class FusedGeneratorEngine implements IBehaviorGenerator {
+    private static final Logger log = LoggerFactory.getLogger(FusedGeneratorEngine.class);
+
+    private final List<IBehaviorGenerator> generators;
+
+    public FusedGeneratorEngine(Iterable<? extends IBehaviorGenerator> generators) {
+        this.generators = immutableList(generators);
+    }
+
+    public List<IBehaviorGenerator> getGenerators() {
+        return generators;
+    }
+
+    public Utterance process(Utterance utterance) {
+        final List<IFusedBehaviorGenerator> fused = newArrayList();
+        for (IBehaviorGenerator generator : generators) {
+            if (generator instanceof IFusedBehaviorGenerator) {
+                fused.add((IFusedBehaviorGenerator) generator);
+            } else {
+                utterance = process(utterance, fused);
+                fused.clear();
+                utterance = generator.process(utterance);
+            }
+        }
+        return process(utterance, fused);
+    }
+
+    /**
+     * Runs the given fused generators in a single walk of the utterance.
+     *
+     * @param utterance  the utterance
+     * @param generators the generators, in the order their behaviors should be added
+     * @return the utterance
+     */
+    public static Utterance process(Utterance utterance, IFusedBehaviorGenerator... generators) {
+        return process(utterance, Arrays.asList(generators));
+    }
+
+    private static Utterance process(Utterance utterance, List<IFusedBehaviorGenerator> generators) {
+        if (generators.isEmpty()) {
+            return utterance;
+        }
+
+        final BehaviorBuffer[] buffers = walk(utterance, generators);
+        for (int i = 0; i < buffers.length; i++) {
+            log.trace("Adding {} behaviors from {}", buffers[i].size(), generators.get(i));
+            buffers[i].flush();
+        }
+        return utterance;
+    }
+
+    /**
+     * Walks the utterance once with the handlers of the given generators, without flushing the behaviors.
+     *
+     * @param utterance  the utterance
+     * @param generators the generators
+     * @return a buffer for each generator, holding the behaviors it generated
+     */
+    static BehaviorBuffer[] walk(Utterance utterance, List<? extends IFusedBehaviorGenerator> generators) {
+        final UtteranceWalker walker = new UtteranceWalker();
+        final BehaviorBuffer[] buffers = new BehaviorBuffer[generators.size()];
+        final GeneratorHandler[] handlers = new GeneratorHandler[generators.size()];
+        for (int i = 0; i < handlers.length; i++) {
+            buffers[i] = new BehaviorBuffer();
+            handlers[i] = generators.get(i).createHandler(utterance, walker, buffers[i]);
+        }
+
+        final CompositeHandler composite = new CompositeHandler(handlers);
+        for (Clause clause : utterance.getClauses()) {
+            composite.enter(clause);
+            walker.walk(clause, composite);
+            composite.leave(clause);
+        }
+        return buffers;
+    }
+
+    private static class CompositeHandler extends GeneratorHandler {
+        private final GeneratorHandler[] handlers;
+
+        private CompositeHandler(GeneratorHandler[] handlers) {
+            this.handlers = handlers;
+        }
+
+        @Override
+        public void enter(Clause clause) {
+            for (GeneratorHandler handler : handlers) {
+                handler.enter(clause);
+            }
+        }
+
+        @Override
+        public void leave(Clause clause) {
+            for (GeneratorHandler handler : handlers) {
+                handler.leave(clause);
+            }
+        }
+
+        @Override
+        public void visit(Theme theme) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(theme);
+            }
+        }
+
+        @Override
+        public void visit(Rheme rheme) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(rheme);
+            }
+        }
+
+        @Override
+        public void visit(Constituent constituent) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(constituent);
+            }
+        }
+
+        @Override
+        public void visit(NounPhrase nounPhrase) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(nounPhrase);
+            }
+        }
+
+        @Override
+        public void visit(VerbPhrase verbPhrase) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(verbPhrase);
+            }
+        }
+
+        @Override
+        public void visit(Word word) {
+            for (GeneratorHandler handler : handlers) {
+                handler.visit(word);
+            }
+        }
+    }
+}
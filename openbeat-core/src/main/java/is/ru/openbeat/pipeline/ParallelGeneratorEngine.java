@@ -0,0 +1,239 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import static com.google.common.collect.Lists.immutableList;
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.model.Utterance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class <tt>ParallelGeneratorEngine</tt> runs a list of {@link IBehaviorGenerator generators} concurrently. The
+ * generators are split into stages: a generator is placed after the generators it {@link RunsAfter runs after}, and
+ * generators which are not {@link IFusedBehaviorGenerator fused} get a stage of their own since they change the
+ * utterance directly.
+ * <p/>
+ * The fused generators of a stage walk the utterance at the same time, each writing to its own {@link BehaviorBuffer
+ * buffer}. When the stage is done the buffers are flushed in list order, so the outcome does not depend on how the
+ * threads were scheduled. Without any declared dependencies the outcome is the same as running the list one generator
+ * after another. The generators run in the {@link PipelineSession session} of the calling thread.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class ParallelGeneratorEngine implements IBehaviorGenerator {
+    private static final Logger log = LoggerFactory.getLogger(ParallelGeneratorEngine.class);
+
+    private final List<IBehaviorGenerator> generators;
+    private final List<List<IBehaviorGenerator>> stages;
+    private final ExecutorService executor;
+
+    /**
+     * Creates an engine which runs on a shared pool of daemon threads, one for each available processor.
+     *
+     * @param generators the generators, in the order their behaviors should be added
+     */
+    public ParallelGeneratorEngine(Iterable<? extends IBehaviorGenerator> generators) {
+        this(generators, SharedExecutor.INSTANCE);
+    }
+
+    /**
+     * @param generators the generators, in the order their behaviors should be added
+     * @param executor   the executor to run the generators on
+     * @throws IllegalArgumentException if the dependencies of the generators form a cycle
+     */
+    public ParallelGeneratorEngine(Iterable<? extends IBehaviorGenerator> generators, ExecutorService executor) {
+        this.generators = immutableList(generators);
+        this.stages = stages(this.generators);
+        this.executor = executor;
+        log.debug("Running generators in stages {}", stages);
+    }
+
+    public List<IBehaviorGenerator> getGenerators() {
+        return generators;
+    }
+
+    public Utterance process(Utterance utterance) {
+        for (List<IBehaviorGenerator> stage : stages) {
+            if (stage.get(0) instanceof IFusedBehaviorGenerator) {
+                utterance = process(utterance, stage);
+            } else {
+                utterance = stage.get(0).process(utterance);
+            }
+        }
+        return utterance;
+    }
+
+    private Utterance process(final Utterance utterance, List<IBehaviorGenerator> stage) {
+        final PipelineSession session = PipelineSession.current();
+        final List<Future<BehaviorBuffer[]>> futures = newArrayList();
+        try {
+            // the calling thread takes the first generator itself
+            for (int i = 1; i < stage.size(); i++) {
+                final IFusedBehaviorGenerator generator = (IFusedBehaviorGenerator) stage.get(i);
+                futures.add(executor.submit(session.wrap(new Callable<BehaviorBuffer[]>() {
+                    public BehaviorBuffer[] call() {
+                        return FusedGeneratorEngine.walk(utterance, Collections.singletonList(generator));
+                    }
+                })));
+            }
+            final BehaviorBuffer[] first = FusedGeneratorEngine.walk(utterance,
+                Collections.singletonList((IFusedBehaviorGenerator) stage.get(0)));
+
+            first[0].flush();
+            for (Future<BehaviorBuffer[]> future : futures) {
+                future.get()[0].flush();
+            }
+            return utterance;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while generating behaviors", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            for (Future<BehaviorBuffer[]> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Splits the generators into stages, each generator is placed in the first stage after all of its dependencies.
+     * A generator which is not fused depends on every generator before it and every generator after it depends on it.
+     */
+    private static List<List<IBehaviorGenerator>> stages(List<IBehaviorGenerator> generators) {
+        final int[] levels = new int[generators.size()];
+        int count = 0;
+        for (int i = 0; i < generators.size(); i++) {
+            count = Math.max(count, level(generators, i, levels) + 1);
+        }
+
+        final List<List<IBehaviorGenerator>> stages = newArrayList();
+        for (int level = 0; level < count; level++) {
+            final List<IBehaviorGenerator> stage = newArrayList();
+            for (int i = 0; i < generators.size(); i++) {
+                if (levels[i] - 1 == level) {
+                    stage.add(generators.get(i));
+                }
+            }
+            if (!stage.isEmpty()) {
+                stages.add(Collections.unmodifiableList(stage));
+            }
+        }
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Finds the stage of a generator, stored in <tt>levels</tt> plus one. Zero means not yet known and minus one means
+     * the generator is being resolved.
+     */
+    private static int level(List<IBehaviorGenerator> generators, int i, int[] levels) {
+        if (levels[i] == -1) {
+            throw new IllegalArgumentException("Cyclic generator dependency at " + generators.get(i));
+        }
+        if (levels[i] == 0) {
+            levels[i] = -1;
+            int level = 0;
+            for (int j = 0; j < generators.size(); j++) {
+                if (dependsOn(generators, i, j)) {
+                    level = Math.max(level, level(generators, j, levels) + 1);
+                }
+            }
+            levels[i] = level + 1;
+        }
+        return levels[i] - 1;
+    }
+
+    private static boolean dependsOn(List<IBehaviorGenerator> generators, int i, int j) {
+        final IBehaviorGenerator generator = generators.get(i);
+        final IBehaviorGenerator other = generators.get(j);
+        if (j < i && !(generator instanceof IFusedBehaviorGenerator && other instanceof IFusedBehaviorGenerator)) {
+            return true;
+        }
+
+        final RunsAfter runsAfter = generator.getClass().getAnnotation(RunsAfter.class);
+        if (runsAfter != null && i != j) {
+            for (Class<? extends IBehaviorGenerator> klass : runsAfter.value()) {
+                if (klass.isInstance(other)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Holds the default executor, created when first used.
+     */
+    private static class SharedExecutor {
+        private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "generator-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Class <tt>PipelineSession</tt> holds the state of one conversation, such as the discourse model and the
+ * participation framework. Objects bound in the {@link #SCOPE session scope} are created once for each session, while
+ * the NLP models and the knowledge base remain shared by all sessions.
+ * <p/>
+ * A session is made current for the duration of {@link #call(Callable)}. A thread which is not running in any
+ * session uses a default session, so a single conversation needs no set up at all.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public final class PipelineSession {
+    /** Scopes a binding to the current session. */
+    public static final Scope SCOPE = new Scope() {
+        public <T> Provider<T> scope(final Key<T> key, final Provider<T> unscoped) {
+            return new Provider<T>() {
+                public T get() {
+                    return current().get(key, unscoped);
+                }
+
+                @Override
+                public String toString() {
+                    return unscoped + "[" + SCOPE + "]";
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "PipelineSession.SCOPE";
+        }
+    };
+
+    private static final PipelineSession DEFAULT = new PipelineSession();
+    private static final ThreadLocal<PipelineSession> CURRENT = new ThreadLocal<PipelineSession>();
+
+    private final ConcurrentMap<Key<?>, Object> instances = new ConcurrentHashMap<Key<?>, Object>();
+
+    /**
+     * Gets the session of the calling thread.
+     *
+     * @return the current session, or the default session if the thread is not running in one
+     */
+    public static PipelineSession current() {
+        final PipelineSession session = CURRENT.get();
+        return session != null ? session : DEFAULT;
+    }
+
+    /**
+     * Calls <tt>callable</tt> with this session as the current session of the calling thread.
+     *
+     * @param callable the work to do in this session
+     * @return the result of <tt>callable</tt>
+     * @throws Exception if <tt>callable</tt> throws
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        final PipelineSession previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return callable.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Wraps <tt>callable</tt> so that it runs in this session on whichever thread calls it, used to hand work to other
+     * threads.
+     *
+     * @param callable the work to do in this session
+     * @return the wrapped callable
+     */
+    public <T> Callable<T> wrap(final Callable<T> callable) {
+        return new Callable<T>() {
+            public T call() throws Exception {
+                return PipelineSession.this.call(callable);
+            }
+        };
+    }
+
+    /** Forgets the objects of this session, they are created again when next needed. */
+    public void clear() {
+        instances.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key<T> key, Provider<T> unscoped) {
+        Object instance = instances.get(key);
+        if (instance == null) {
+            synchronized (instances) {
+                instance = instances.get(key);
+                if (instance == null) {
+                    instance = unscoped.get();
+                    instances.put(key, instance);
+                }
+            }
+        }
+        return (T) instance;
+    }
+}
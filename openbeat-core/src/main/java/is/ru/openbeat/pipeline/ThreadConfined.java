@@ -0,0 +1,94 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import com.google.inject.Provider;
+
+/**
+ * Class <tt>ThreadConfined</tt> provides one instance per thread of an object which must not be used by several
+ * threads at once, such as the taggers and parsers of the NLP sources. A thread creates its own instance from the
+ * unscoped provider the first time it asks for one and keeps using it from then on, so concurrent callers never share
+ * an instance while a single thread only pays for the creation once.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public final class ThreadConfined<T> implements Provider<T> {
+    private final Provider<T> provider;
+    private final ThreadLocal<T> instances = new ThreadLocal<T>() {
+        @Override
+        protected T initialValue() {
+            return provider.get();
+        }
+    };
+
+    private ThreadConfined(Provider<T> provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * Confines the instances of <tt>provider</tt> to the threads that ask for them.
+     *
+     * @param provider creates a new instance on each call
+     * @return a provider of one instance per thread
+     */
+    public static <T> ThreadConfined<T> of(Provider<T> provider) {
+        return new ThreadConfined<T>(provider);
+    }
+
+    /**
+     * Gets the instance of the calling thread, creating it if the thread has none.
+     *
+     * @return the instance of the calling thread
+     */
+    public T get() {
+        return instances.get();
+    }
+
+    @Override
+    public String toString() {
+        return provider + "[ThreadConfined]";
+    }
+}
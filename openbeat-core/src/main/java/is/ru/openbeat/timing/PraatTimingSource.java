@@ -88,17 +88,17 @@ public class PraatTimingSource implements ITimingSource {
     private final Multimethod mm = new Multimethod(this);
 
     private final Provider<String> directoryPath;
-    private final ParticipationFrameworkBase participationFrameworkBase;
+    private final Provider<ParticipationFrameworkBase> participationFrameworkBase;
 
     @Inject
     public PraatTimingSource(@Named("praat.dir") Provider<String> directoryPath,
-                             ParticipationFrameworkBase participationFrameworkBase) {
+                             Provider<ParticipationFrameworkBase> participationFrameworkBase) {
         this.directoryPath = directoryPath;
         this.participationFrameworkBase = participationFrameworkBase;
     }
 
     public void play() {
-        final String dir = directoryPath.get() + File.separator + participationFrameworkBase.getCurrentParticipationFramework().getSpeaker().getName();
+        final String dir = directoryPath.get() + File.separator + participationFrameworkBase.get().getCurrentParticipationFramework().getSpeaker().getName();
         final String filename = dir + File.separator + "sentence.wav";
 
         final File speechFile = new File(filename);
@@ -112,7 +112,7 @@ public class PraatTimingSource implements ITimingSource {
     }
 
     public Utterance process(Utterance utterance) {
-        final String dir = directoryPath.get() + File.separator + participationFrameworkBase.getCurrentParticipationFramework().getSpeaker().getName();
+        final String dir = directoryPath.get() + File.separator + participationFrameworkBase.get().getCurrentParticipationFramework().getSpeaker().getName();
         log.debug("Reading praat timings from '{}' directory", dir);
 
         final File directory = new File(dir);
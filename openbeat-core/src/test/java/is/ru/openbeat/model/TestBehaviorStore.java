@@ -0,0 +1,148 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.behavior.IBehavior;
+import is.ru.openbeat.behavior.IBehaviorContainer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+public class TestBehaviorStore {
+    private final Word car = new Word("car");
+    private final Word red = new Word("red");
+    private final Word drives = new Word("drives");
+    private final NounPhrase nounPhrase = NounPhrase.with().features(red, car).build();
+    private final VerbPhrase verbPhrase = VerbPhrase.with().features(drives).build();
+    private final Theme theme = Theme.with(nounPhrase).build();
+    private final Rheme rheme = Rheme.with(verbPhrase).build();
+    private final Clause clause = Clause.with(theme, rheme).build();
+
+    @Test
+    public void testAdopt() {
+        final Gesture wave = new Gesture();
+        car.addBehavior(wave);
+
+        final Utterance utterance = Utterance.with(clause).build();
+        assertThat(car.getBehaviors(), is(equalTo((List<IBehavior>) newArrayList((IBehavior) wave))));
+        assertThat(utterance.getBehaviorStore().get(car).get(0) == wave, is(true));
+
+        car.removeBehavior(wave);
+        assertThat(car.getBehaviors().isEmpty(), is(true));
+        assertThat(utterance.getBehaviorStore().isEmpty(), is(true));
+        assertThat(utterance.getBehaviorStore().getBehaviorClasses().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testTimeOrder() {
+        final Utterance utterance = Utterance.with(clause).build();
+        drives.addBehavior(new Gesture());
+        car.addBehavior(new Gesture());
+        theme.addBehavior(new Nod());
+        red.addBehavior(new Nod());
+
+        final List<IBehaviorContainer> containers = utterance.getBehaviorContainers();
+        assertThat(containers.size(), is(4));
+        assertThat(containers.get(0) == theme, is(true));
+        assertThat(containers.get(1) == red, is(true));
+        assertThat(containers.get(2) == car, is(true));
+        assertThat(containers.get(3) == drives, is(true));
+    }
+
+    @Test
+    public void testBehaviorsOfClass() {
+        final Utterance utterance = Utterance.with(clause).build();
+        final Gesture second = new Gesture();
+        final Gesture first = new Gesture();
+        drives.addBehavior(second);
+        red.addBehavior(new Nod());
+        car.addBehavior(first);
+
+        final List<Pair<IBehaviorContainer, Gesture>> gestures = utterance.getBehaviors(Gesture.class);
+        assertThat(gestures.size(), is(2));
+        assertThat(gestures.get(0).getFirst() == car && gestures.get(0).getSecond() == first, is(true));
+        assertThat(gestures.get(1).getFirst() == drives && gestures.get(1).getSecond() == second, is(true));
+        assertThat(utterance.getBehaviors(IBehavior.class).size(), is(3));
+        assertThat(utterance.getBehaviorStore().getBehaviorClasses().size(), is(2));
+    }
+
+    @Test
+    public void testNodeDoesNotRetainUtterance() throws InterruptedException {
+        Utterance utterance = Utterance.with(clause).build();
+        final Gesture wave = new Gesture();
+        car.addBehavior(wave);
+
+        final WeakReference<Utterance> reference = new WeakReference<Utterance>(utterance);
+        utterance = null;
+        for (int i = 0; i < 10 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(reference.get() == null, is(true));
+        assertThat(car.getBehaviors().size(), is(1));
+        assertThat(car.getBehaviors().get(0) == wave, is(true));
+    }
+
+    private static class Tag implements IBehavior {
+        public void setPriority(Integer priority) {
+        }
+
+        public Integer getPriority() {
+            return null;
+        }
+    }
+
+    private static class Gesture extends Tag {
+    }
+
+    private static class Nod extends Tag {
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestUtteranceWalker {
+    private final Word car = new Word("car");
+    private final Word red = new Word("red");
+    private final Word drives = new Word("drives");
+    private final NounPhrase nounPhrase = NounPhrase.with().features(red, car).build();
+    private final VerbPhrase verbPhrase = VerbPhrase.with().features(drives).build();
+    private final Theme theme = Theme.with(nounPhrase).build();
+    private final Rheme rheme = Rheme.with(verbPhrase).build();
+    private final Clause clause = Clause.with(theme, rheme).build();
+    private final Utterance utterance = Utterance.with(clause).build();
+
+    @Test
+    public void testOrder() {
+        final List<String> visited = newArrayList();
+        new UtteranceWalker().walk(utterance, new IFeatureStructureVisitor() {
+            public void visit(Theme theme) {
+                visited.add("Theme");
+            }
+
+            public void visit(Rheme rheme) {
+                visited.add("Rheme");
+            }
+
+            public void visit(Constituent constituent) {
+                visited.add("Constituent");
+            }
+
+            public void visit(NounPhrase nounPhrase) {
+                visited.add("NP");
+            }
+
+            public void visit(VerbPhrase verbPhrase) {
+                visited.add("VP");
+            }
+
+            public void visit(Word word) {
+                visited.add(word.getToken());
+            }
+        });
+
+        assertThat(visited, is(equalTo(newArrayList("Theme", "NP", "red", "car", "Rheme", "VP", "drives"))));
+    }
+
+    @Test
+    public void testContext() {
+        final UtteranceWalker walker = new UtteranceWalker();
+        final List<Object> parents = newArrayList();
+        walker.walk(utterance, new FeatureStructureVisitor() {
+            @Override
+            public void visit(Constituent constituent) {
+                assertThat(walker.getParent(), is(equalTo((Object) walker.getArticulation())));
+                assertThat(walker.getNounPhrase() == null, is(true));
+            }
+
+            @Override
+            public void visit(Word word) {
+                assertThat(walker.getClause(), is(equalTo(clause)));
+                assertThat(walker.getAncestors().size(), is(equalTo(3)));
+                parents.add(walker.getParent());
+                if (word == car) {
+                    assertThat(walker.getArticulation(), is(equalTo((IArticulation) theme)));
+                    assertThat(walker.getNounPhrase(), is(equalTo(nounPhrase)));
+                } else if (word == drives) {
+                    assertThat(walker.getArticulation(), is(equalTo((IArticulation) rheme)));
+                    assertThat(walker.getNounPhrase() == null, is(true));
+                }
+            }
+        });
+
+        assertThat(parents, is(equalTo(newArrayList((Object) nounPhrase, nounPhrase, verbPhrase))));
+        assertThat(walker.getClause() == null, is(true));
+        assertThat(walker.getParent() == null, is(true));
+    }
+}
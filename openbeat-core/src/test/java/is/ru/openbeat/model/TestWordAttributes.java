@@ -0,0 +1,118 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static is.ru.openbeat.model.GenderAttribute.FEMININE;
+import static is.ru.openbeat.model.NumberAttribute.PLURAL;
+import static is.ru.openbeat.model.NumberAttribute.SINGULAR;
+import static is.ru.openbeat.model.WordClassAttribute.NOUN;
+import static is.ru.openbeat.model.WordClassAttribute.VERB;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Test;
+
+import java.util.Set;
+
+public class TestWordAttributes {
+    @Test
+    public void testCanonical() {
+        final WordAttributes attributes = WordAttributes.of(NOUN, PLURAL);
+
+        assertThat(WordAttributes.of(PLURAL, NOUN), sameInstance(attributes));
+        assertThat(WordAttributes.of(NOUN).with(PLURAL), sameInstance(attributes));
+        assertThat(WordAttributes.of(newHashSet(NOUN, PLURAL)), sameInstance(attributes));
+        assertThat(WordAttributes.of(), sameInstance(WordAttributes.EMPTY));
+    }
+
+    @Test
+    public void testSet() {
+        final Set<IWordAttribute> expected = newHashSet((IWordAttribute) NOUN, FEMININE, SINGULAR);
+        final WordAttributes attributes = WordAttributes.of(expected);
+
+        assertThat(attributes.size(), is(3));
+        assertThat(attributes.contains(NOUN), is(true));
+        assertThat(attributes.contains(VERB), is(false));
+        assertThat(attributes.contains(null), is(false));
+        assertThat(attributes, equalTo(expected));
+        assertThat(expected, equalTo((Set<IWordAttribute>) attributes));
+        assertThat(attributes.hashCode(), is(expected.hashCode()));
+        assertThat(newHashSet(attributes), equalTo(expected));
+    }
+
+    @Test
+    public void testGet() {
+        final WordAttributes attributes = WordAttributes.of(NOUN, FEMININE, SINGULAR);
+
+        assertThat(attributes.get(WordAttributeType.WordClass.class), is((IWordAttribute) NOUN));
+        assertThat(attributes.get(WordAttributeType.Gender.class), is((IWordAttribute) FEMININE));
+        assertThat(attributes.get(WordAttributeType.Number.class), is((IWordAttribute) SINGULAR));
+        assertThat(attributes.get(WordAttributeType.Person.class), nullValue());
+        assertThat(attributes.get(Test.class), nullValue());
+    }
+
+    @Test
+    public void testUnknownAttribute() {
+        final IWordAttribute custom = new IWordAttribute() {
+        };
+        final WordAttributes attributes = WordAttributes.of(NOUN).with(custom);
+
+        assertThat(attributes.contains(custom), is(true));
+        assertThat(attributes.size(), is(2));
+        assertThat(attributes.get(WordAttributeType.WordClass.class), is((IWordAttribute) NOUN));
+    }
+
+    @Test
+    public void testWord() {
+        final Word word = new Word("cars", NOUN);
+        word.addAttribute(PLURAL);
+
+        assertThat(word.is(PLURAL), is(true));
+        assertThat(word.findAttributeOf(WordAttributeType.Number.class), is((IWordAttribute) PLURAL));
+        assertThat(word, equalTo(new Word("cars", newHashSet((IWordAttribute) NOUN, PLURAL))));
+        assertThat(word.matches(Word.with("bikes").attributes(NOUN, PLURAL).build()), is(false));
+    }
+}
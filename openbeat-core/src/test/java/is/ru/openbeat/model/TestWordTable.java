@@ -0,0 +1,114 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.model;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static is.ru.openbeat.model.NumberAttribute.PLURAL;
+import static is.ru.openbeat.model.WordClassAttribute.NOUN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Test;
+
+public class TestWordTable {
+    private final WordTable table = new WordTable(1);
+
+    @Test
+    public void testViews() {
+        final Word cars = table.add("cars", newHashSet((IWordAttribute) NOUN));
+        final Word drive = table.add("drive", WordAttributes.EMPTY);
+        cars.addAttribute(PLURAL);
+        cars.setLemma("car");
+
+        assertThat(table.size(), is(2));
+        assertThat(cars.getToken(), is("cars"));
+        assertThat(cars.getLemma(), is("car"));
+        assertThat(cars.is(PLURAL), is(true));
+        assertThat(drive.getToken(), is("drive"));
+        assertThat(drive.getLemma(), nullValue());
+        assertThat(drive.is(NOUN), is(false));
+        assertThat(cars, equalTo(Word.with("cars").attributes(NOUN, PLURAL).lemma("car").build()));
+    }
+
+    @Test
+    public void testTimings() {
+        final Word word = table.add("car", WordAttributes.EMPTY);
+        assertThat(word.getBeginTime(), nullValue());
+        assertThat(word.getEndTime(), nullValue());
+
+        word.setBeginTime(0.5F);
+        word.setEndTime(1.25F);
+        assertThat(word.getBeginTime(), is(0.5F));
+        assertThat(word.getEndTime(), is(1.25F));
+
+        word.setBeginTime(null);
+        assertThat(word.getBeginTime(), nullValue());
+    }
+
+    @Test
+    public void testStandaloneWord() {
+        final Word cars = new Word("cars", NOUN);
+        cars.addAttribute(PLURAL);
+        cars.setLemma("car");
+        cars.setEndTime(1.25F);
+
+        assertThat(cars.getToken(), is("cars"));
+        assertThat(cars.getLemma(), is("car"));
+        assertThat(cars.getBeginTime(), nullValue());
+        assertThat(cars.getEndTime(), is(1.25F));
+        assertThat(cars, equalTo(Word.with("cars").attributes(NOUN, PLURAL).lemma("car").build()));
+    }
+
+    @Test
+    public void testContrasts() {
+        final Word car = table.add("car", WordAttributes.EMPTY);
+        final Word bike = table.add("bike", WordAttributes.EMPTY);
+        assertThat(car.getContrasts().isEmpty(), is(true));
+
+        car.addContrast(bike);
+        assertThat(car.getContrasts().contains(bike), is(true));
+        assertThat(bike.getContrasts().isEmpty(), is(true));
+    }
+}
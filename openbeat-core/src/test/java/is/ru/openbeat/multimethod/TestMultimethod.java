@@ -115,4 +115,71 @@ public class TestMultimethod {
         assertThat(recorder.ints, is(equalTo(newArrayList(1, 2, 3, 4, 5, 6))));
     }
 
+    @Test
+    public void testDispatchCache() {
+        final VerbPhraseRecorder recorder = new VerbPhraseRecorder();
+        recorder.mm.match(new VerbPhrase());
+        recorder.mm.match(new Constituent(PhraseAttribute.ADVERB_PHRASE));
+
+        final long hits = recorder.mm.getCacheHits();
+        final long misses = recorder.mm.getCacheMisses();
+        recorder.mm.match(new VerbPhrase());
+        recorder.mm.match(new Constituent(PhraseAttribute.ADVERB_PHRASE));
+        recorder.mm.match(new VerbPhrase());
+
+        assertThat(recorder.ints, is(equalTo(newArrayList(2, 1, 2, 1, 2))));
+        assertThat(recorder.mm.getCacheMisses(), is(equalTo(misses)));
+        assertThat(recorder.mm.getCacheHits(), is(equalTo(hits + 3)));
+    }
+
+    @Test
+    public void testDispatchCacheNullArgument() {
+        final VerbPhraseRecorder recorder = new VerbPhraseRecorder();
+        recorder.mm.match((Object) null);
+
+        final long hits = recorder.mm.getCacheHits();
+        final long misses = recorder.mm.getCacheMisses();
+        recorder.mm.match((Object) null);
+
+        assertThat(recorder.ints.isEmpty(), is(true));
+        assertThat(recorder.mm.getCacheMisses(), is(equalTo(misses)));
+        assertThat(recorder.mm.getCacheHits(), is(equalTo(hits + 1)));
+    }
+
+    @Test
+    public void testSharedMethodTable() {
+        new VerbPhraseRecorder().mm.match(new Word("car"), new VerbPhrase());
+
+        final VerbPhraseRecorder recorder = new VerbPhraseRecorder();
+        final long misses = recorder.mm.getCacheMisses();
+        recorder.mm.match(new Word("car"), new VerbPhrase());
+
+        assertThat(recorder.ints, is(equalTo(newArrayList(3))));
+        assertThat(recorder.mm.getCacheMisses(), is(equalTo(misses)));
+    }
+
+    @Test
+    public void testStaticContext() {
+        final VerbPhraseRecorder recorder = new VerbPhraseRecorder();
+        final Multimethod mm = new Multimethod(VerbPhraseRecorder.class);
+        mm.match(recorder, new VerbPhrase());
+        mm.match(recorder, new Constituent(PhraseAttribute.ADVERB_PHRASE));
+        mm.invoke(recorder, new VerbPhrase());
+
+        assertThat(recorder.ints, is(equalTo(newArrayList(2, 1, 2))));
+    }
+
+    @Test
+    public void testGeneratedDispatcher() {
+        final NounPhraseRecorder recorder = new NounPhraseRecorder();
+        assertThat(recorder.mm.hasDispatcher(), is(true));
+        assertThat(new VerbPhraseRecorder().mm.hasDispatcher(), is(false));
+
+        recorder.mm.match((Object) null);
+        recorder.mm.match(new NounPhrase());
+        recorder.mm.match(new Constituent(PhraseAttribute.ADVERB_PHRASE));
+        new Multimethod(NounPhraseRecorder.class).invoke(recorder, new NounPhrase());
+
+        assertThat(recorder.ints, is(equalTo(newArrayList(2, 1, 2))));
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.behavior.IBehavior;
+import is.ru.openbeat.model.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestParallelGeneratorEngine {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final Word car = new Word("car");
+    private final Word drives = new Word("drives");
+    private final Utterance utterance = Utterance.with(
+        Clause.with(
+            Theme.with(NounPhrase.with().features(car).build()).build(),
+            Rheme.with(VerbPhrase.with().features(drives).build()).build()
+        ).build()
+    ).build();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrder() {
+        final IBehaviorGenerator c = new IBehaviorGenerator() {
+            public Utterance process(Utterance utterance) {
+                car.addBehavior(new Tag("c"));
+                return utterance;
+            }
+        };
+        final ParallelGeneratorEngine engine = new ParallelGeneratorEngine(Arrays.<IBehaviorGenerator>asList(
+            new WordTagger("a"), new WordTagger("b"), c, new WordTagger("d"), new WordTagger("e")), executor);
+        engine.process(utterance);
+
+        // same outcome as running the generators one after another
+        assertThat(car.getBehaviors().toString(), equalTo("[a, b, c, d, e]"));
+        assertThat(drives.getBehaviors().toString(), equalTo("[a, b, d, e]"));
+    }
+
+    @Test
+    public void testRunsAfter() {
+        final WordTagger a = new WordTagger("a");
+        final WordCounter counter = new WordCounter();
+        final WordTagger b = new WordTagger("b");
+        new ParallelGeneratorEngine(Arrays.<IBehaviorGenerator>asList(counter, a, b), executor).process(utterance);
+
+        // the counter is moved to a later stage and sees the behaviors of the taggers
+        assertThat(car.getBehaviors().toString(), equalTo("[a, b, 2]"));
+        assertThat(drives.getBehaviors().toString(), equalTo("[a, b, 2]"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCycle() {
+        new ParallelGeneratorEngine(Arrays.<IBehaviorGenerator>asList(new WordCounter(), new CyclicCounter()),
+            executor);
+    }
+
+    private static class WordTagger implements IFusedBehaviorGenerator {
+        private final String name;
+
+        private WordTagger(String name) {
+            this.name = name;
+        }
+
+        public Utterance process(Utterance utterance) {
+            return FusedGeneratorEngine.process(utterance, this);
+        }
+
+        public GeneratorHandler createHandler(Utterance utterance, UtteranceWalker walker,
+                                              final IBehaviorBuffer buffer) {
+            return new GeneratorHandler() {
+                @Override
+                public void visit(Word word) {
+                    buffer.add(word, new Tag(name));
+                }
+            };
+        }
+    }
+
+    @RunsAfter(WordTagger.class)
+    private static class WordCounter implements IFusedBehaviorGenerator {
+        public Utterance process(Utterance utterance) {
+            return FusedGeneratorEngine.process(utterance, this);
+        }
+
+        public GeneratorHandler createHandler(Utterance utterance, UtteranceWalker walker,
+                                              final IBehaviorBuffer buffer) {
+            return new GeneratorHandler() {
+                @Override
+                public void visit(Word word) {
+                    buffer.add(word, new Tag(String.valueOf(word.getBehaviors().size())));
+                }
+            };
+        }
+    }
+
+    @RunsAfter(WordCounter.class)
+    private static class CyclicCounter extends WordTagger {
+        private CyclicCounter() {
+            super("cyclic");
+        }
+    }
+
+    private static class Tag implements IBehavior {
+        private final String name;
+
+        private Tag(String name) {
+            this.name = name;
+        }
+
+        public void setPriority(Integer priority) {
+        }
+
+        public Integer getPriority() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.pipeline;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestPipelineSession {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Provider<Object> scoped = PipelineSession.SCOPE.scope(Key.get(Object.class), new Provider<Object>() {
+        public Object get() {
+            return new Object();
+        }
+    });
+
+    private final Callable<Object> lookup = new Callable<Object>() {
+        public Object call() {
+            return scoped.get();
+        }
+    };
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSessions() throws Exception {
+        final PipelineSession first = new PipelineSession();
+        final PipelineSession second = new PipelineSession();
+
+        final Object standalone = scoped.get();
+        assertThat(scoped.get(), sameInstance(standalone));
+
+        final Object inFirst = first.call(lookup);
+        assertThat(inFirst, not(sameInstance(standalone)));
+        assertThat(first.call(lookup), sameInstance(inFirst));
+        assertThat(second.call(lookup), not(sameInstance(inFirst)));
+        assertThat(scoped.get(), sameInstance(standalone));
+
+        first.clear();
+        assertThat(first.call(lookup), not(sameInstance(inFirst)));
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        final PipelineSession session = new PipelineSession();
+        final Object inSession = session.call(lookup);
+
+        assertThat(executor.submit(session.wrap(lookup)).get(), sameInstance(inSession));
+        assertThat(executor.submit(lookup).get(), not(sameInstance(inSession)));
+    }
+}
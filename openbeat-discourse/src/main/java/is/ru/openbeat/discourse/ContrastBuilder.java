@@ -103,7 +103,7 @@ public class ContrastBuilder {
     }
 
     @Collect
-    private void collectWord(Map<Word, List<String>> contrastMap, Word word) {
+    void collectWord(Map<Word, List<String>> contrastMap, Word word) {
         final List<String> contrasts = dictionarySource.findContrasts(word);
         if (!contrasts.isEmpty()) {
             log.debug("Collecting word: " + word);
@@ -112,14 +112,14 @@ public class ContrastBuilder {
     }
 
     @Collect
-    private void collectConstituent(Map<Word, List<String>> contrastMap, Constituent constituent) {
+    void collectConstituent(Map<Word, List<String>> contrastMap, Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             c.match(contrastMap, featureStructure);
         }
     }
 
     @Produce
-    private void produceWord(Map<Word, List<String>> contrastMap, Word word) {
+    void produceWord(Map<Word, List<String>> contrastMap, Word word) {
         // TODO: athuga hvort lemma á word, sé einhver staðar inn í contrastMap, ef svo, tengja orð
         for (Map.Entry<Word, List<String>> entry : contrastMap.entrySet()) {
             for (String constrastString : entry.getValue()) {
@@ -132,7 +132,7 @@ public class ContrastBuilder {
     }
 
     @Produce
-    private void procudeConstituent(Map<Word, List<String>> contrastMap, Constituent constituent) {
+    void procudeConstituent(Map<Word, List<String>> contrastMap, Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             p.match(contrastMap, featureStructure);
         }
@@ -46,7 +46,9 @@
 package is.ru.openbeat.discourse;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.google.inject.util.Providers;
 import is.ru.openbeat.model.*;
 import is.ru.openbeat.multimethod.Multi;
 import is.ru.openbeat.multimethod.Multimethod;
@@ -68,13 +70,17 @@ public class DiscourseCompiler implements ICompiler {
 
     private final Multimethod mm = new Multimethod(this);
 
-    private final IDiscourseModel discourseModel;
+    private final Provider<IDiscourseModel> discourseModel;
 
     @Inject
-    public DiscourseCompiler(IDiscourseModel discourseModel) {
+    public DiscourseCompiler(Provider<IDiscourseModel> discourseModel) {
         this.discourseModel = discourseModel;
     }
 
+    public DiscourseCompiler(IDiscourseModel discourseModel) {
+        this(Providers.of(discourseModel));
+    }
+
     public String process(Utterance utterance) {
         final StringBuilder sb = new StringBuilder();
 
@@ -89,13 +95,13 @@ public class DiscourseCompiler implements ICompiler {
         sb.append(NEWLINE);
 
         // collect discourse model
-        new DiscourseCollector(discourseModel, sb);
+        new DiscourseCollector(discourseModel.get(), sb);
 
         return sb.toString();
     }
 
     @Multi
-    private void handleRheme(StringBuilder sb, Rheme rheme) {
+    void handleRheme(StringBuilder sb, Rheme rheme) {
         sb.append("    + Rheme");
         sb.append(NEWLINE);
         for (IFeatureStructure featureStructure : rheme.getPhrases()) {
@@ -104,7 +110,7 @@ public class DiscourseCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleTheme(StringBuilder sb, Theme theme) {
+    void handleTheme(StringBuilder sb, Theme theme) {
         sb.append("    + Theme");
         sb.append(NEWLINE);
         for (IFeatureStructure featureStructure : theme.getPhrases()) {
@@ -113,7 +119,7 @@ public class DiscourseCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleNounPhrase(Integer indent, StringBuilder sb, NounPhrase nounPhrase) {
+    void handleNounPhrase(Integer indent, StringBuilder sb, NounPhrase nounPhrase) {
         sb.append(spaceFor(indent));
         sb.append("+ NP");
         sb.append(NEWLINE);
@@ -123,7 +129,7 @@ public class DiscourseCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleVerbPhrase(Integer indent, StringBuilder sb, VerbPhrase verbPhrase) {
+    void handleVerbPhrase(Integer indent, StringBuilder sb, VerbPhrase verbPhrase) {
         sb.append(spaceFor(indent));
         sb.append("+ VP");
         sb.append(NEWLINE);
@@ -133,7 +139,7 @@ public class DiscourseCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleConstituent(Integer indent, StringBuilder sb, Constituent constituent) {
+    void handleConstituent(Integer indent, StringBuilder sb, Constituent constituent) {
         sb.append(spaceFor(indent));
         sb.append("+ Constituent (").append(constituent.getType()).append(")");
         sb.append(NEWLINE);
@@ -143,7 +149,7 @@ public class DiscourseCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleWord(Integer indent, StringBuilder sb, Word word) {
+    void handleWord(Integer indent, StringBuilder sb, Word word) {
         sb.append(spaceFor(indent));
         sb.append("- ");
         sb.append(word.getToken());
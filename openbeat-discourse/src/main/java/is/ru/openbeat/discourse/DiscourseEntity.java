@@ -53,24 +53,52 @@ import java.util.List;
 
 /**
  * Class <tt>DiscourseEntity</tt> withholds information about a single element in the discourse structure.
+ * <p/>
+ * The identifier is kept as the reference name, shared by all entities with that name, and the number of the entity
+ * among them. The <tt>"CAR1"</tt> string is only built when it is first asked for.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
 public class DiscourseEntity implements IDiscourseEntity {
-    private final String id;
+    private final String name;
+    private final int number;
     private final Word word;
     private final List<Constituent> constituentReferers = newArrayList();
+    private String id;
 
     public DiscourseEntity(String id, Word word) {
-        this.id = id;
+        this(id, 0, word);
+    }
+
+    /**
+     * Creates the <tt>number</tt>-th entity with the reference <tt>name</tt>.
+     *
+     * @param name   the reference name, e.g. <tt>CAR</tt>
+     * @param number the number of the entity, or <tt>0</tt> if the name is the whole identifier
+     * @param word   the word
+     */
+    public DiscourseEntity(String name, int number, Word word) {
+        this.name = name;
+        this.number = number;
         this.word = word;
     }
 
     public String getId() {
+        if (id == null) {
+            id = number != 0 ? name + number : name;
+        }
         return id;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
     public Word getWord() {
         return word;
     }
@@ -83,6 +111,12 @@ public class DiscourseEntity implements IDiscourseEntity {
         constituentReferers.add(constituent);
     }
 
+    public void retainReferers(int count) {
+        if (constituentReferers.size() > count) {
+            constituentReferers.subList(0, constituentReferers.size() - count).clear();
+        }
+    }
+
     public List<Constituent> getReferingExpressions() {
         return constituentReferers;
     }
@@ -94,7 +128,7 @@ public class DiscourseEntity implements IDiscourseEntity {
 
         DiscourseEntity that = (DiscourseEntity) o;
 
-        if (!id.equals(that.id)) return false;
+        if (!getId().equals(that.getId())) return false;
         if (!word.equals(that.word)) return false;
 
         return true;
@@ -102,7 +136,7 @@ public class DiscourseEntity implements IDiscourseEntity {
 
     @Override
     public int hashCode() {
-        int result = id.hashCode();
+        int result = getId().hashCode();
         result = 31 * result + word.hashCode();
         return result;
     }
@@ -110,7 +144,7 @@ public class DiscourseEntity implements IDiscourseEntity {
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
-            "id='" + id + '\'' +
+            "id='" + getId() + '\'' +
             ", word=" + word +
             ", constituentReferers=" + constituentReferers +
             '}';
@@ -45,68 +45,357 @@
 
 package is.ru.openbeat.discourse;
 
-import com.google.inject.Singleton;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import is.ru.openbeat.model.IWordAttribute;
 import is.ru.openbeat.model.Word;
+import is.ru.openbeat.model.WordAttributeType;
+import is.ru.openbeat.model.WordAttributes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
 
 /**
  * Class <tt>DiscourseModel</tt> uses the recency method to find new entities in each discourse entity
+ * <p/>
+ * The entities are kept in a doubly-linked recency list, most recent first, and indexed by identity so that adding,
+ * referring and the <tt>new</tt> check do not depend on the length of the discourse. The entities are also indexed by
+ * the lemma of their word and by its gender and number, ordered by when they were last mentioned, so candidates for
+ * co-reference are found without visiting the rest of the discourse.
+ * <p/>
+ * The model can be bounded to a discourse window, by the number of entities, by the number of utterances since an
+ * entity was last mentioned and by the number of refering expressions kept for each entity. The window is unbounded
+ * unless configured.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
-@Singleton
 public class DiscourseModel implements IDiscourseModel {
     private static final Logger log = LoggerFactory.getLogger(DiscourseModel.class);
 
-    private final Deque<IDiscourseEntity> recent = new ArrayDeque<IDiscourseEntity>();
+    private final Map<IDiscourseEntity, Node> nodes = new IdentityHashMap<IDiscourseEntity, Node>();
+    private final Map<Word, Integer> words = new IdentityHashMap<Word, Integer>();
+    private final Map<String, NavigableMap<Long, Node>> byLemma = newHashMap();
+    private final Map<WordAttributes, NavigableMap<Long, Node>> byAgreement = newHashMap();
+
+    private Node first;
+    private Node last;
+    private long clock;
+    private int size;
+    private int utterance;
+
+    private int maxEntities;
+    private int maxUtterances;
+    private int maxReferers;
 
     public DiscourseModel() {
     }
 
+    /**
+     * Bounds the number of entities in the discourse window, the least recently mentioned entities are forgotten first.
+     *
+     * @param maxEntities the number of entities to keep, <tt>0</tt> for no bound
+     */
+    @Inject(optional = true)
+    public void setMaxEntities(@Named("discourse.entities") int maxEntities) {
+        this.maxEntities = maxEntities;
+    }
+
+    /**
+     * Bounds how many utterances may pass without an entity being mentioned before it is forgotten.
+     *
+     * @param maxUtterances the number of utterances, <tt>0</tt> for no bound
+     */
+    @Inject(optional = true)
+    public void setMaxUtterances(@Named("discourse.utterances") int maxUtterances) {
+        this.maxUtterances = maxUtterances;
+    }
+
+    /**
+     * Bounds the number of refering expressions kept for each entity, which is what holds on to the words of old utterances.
+     *
+     * @param maxReferers the number of refering expressions, <tt>0</tt> for no bound
+     */
+    @Inject(optional = true)
+    public void setMaxReferers(@Named("discourse.referers") int maxReferers) {
+        this.maxReferers = maxReferers;
+    }
+
     public void addEntity(IDiscourseEntity entity) {
-        recent.addFirst(entity);
+        Node node = nodes.get(entity);
+        if (node != null) {
+            log.debug("{} is already in the recency list", entity);
+            moveToFront(node);
+        } else {
+            node = new Node(entity, lemmaOf(entity.getWord()), agreementOf(entity.getWord()));
+            nodes.put(entity, node);
+            linkFirst(node);
+            size++;
+
+            final Integer count = words.get(entity.getWord());
+            words.put(entity.getWord(), count == null ? 1 : count + 1);
+        }
+        retainReferers(entity);
     }
 
     public void refer(IDiscourseEntity entity) {
-        if (!recent.contains(entity)) {
+        final Node node = nodes.get(entity);
+        if (node == null) {
             throw new IllegalStateException("Attempting to move " + entity + " up recent list without it being in it");
         }
 
-        final IDiscourseEntity mostRecent = recent.getFirst();
-        if (mostRecent != null && !mostRecent.equals(entity)) {
+        if (node != first) {
             log.debug("Moving {} to beginning of recency list", entity);
-
-            recent.remove(entity);
-            recent.addFirst(entity);
+            moveToFront(node);
         }
+        retainReferers(entity);
     }
 
     public Iterable<IDiscourseEntity> getEntities() {
-        return recent;
+        return new Iterable<IDiscourseEntity>() {
+            public Iterator<IDiscourseEntity> iterator() {
+                return new Iterator<IDiscourseEntity>() {
+                    private Node next = first;
+
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    public IDiscourseEntity next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        final IDiscourseEntity entity = next.entity;
+                        next = next.next;
+                        return entity;
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
     }
 
-    public boolean isNew(Word word) {
-        for (IDiscourseEntity entity : recent) {
-            if (entity.getWord() == word) { // compare instances, not equality
-                return true;
+    public Iterable<IDiscourseEntity> getCandidates(Word word) {
+        final NavigableMap<Long, Node> sameLemma = byLemma.get(lemmaOf(word));
+        final WordAttributes agreement = agreementOf(word);
+        final NavigableMap<Long, Node> sameAgreement = agreement != null ? byAgreement.get(agreement) : null;
+
+        return new Iterable<IDiscourseEntity>() {
+            public Iterator<IDiscourseEntity> iterator() {
+                return new RecencyIterator(sameLemma, sameAgreement);
             }
+        };
+    }
+
+    public boolean isNew(Word word) {
+        return words.containsKey(word); // compare instances, not equality
+    }
+
+    public List<IDiscourseEntity> nextUtterance() {
+        utterance++;
+
+        final List<IDiscourseEntity> forgotten = newArrayList();
+        while (last != null && !isInWindow(last)) {
+            final Node node = last;
+            remove(node);
+            node.entity.retainReferers(0);
+            forgotten.add(node.entity);
+        }
+
+        if (!forgotten.isEmpty()) {
+            log.debug("Forgetting {} entities outside of the discourse window", forgotten.size());
         }
-        return false;
+        return forgotten;
     }
 
     public void clearState() {
-        recent.clear();
+        nodes.clear();
+        words.clear();
+        byLemma.clear();
+        byAgreement.clear();
+        first = null;
+        last = null;
+        size = 0;
+        utterance = 0;
+    }
+
+    private boolean isInWindow(Node node) {
+        return (maxEntities <= 0 || size <= maxEntities) &&
+            (maxUtterances <= 0 || utterance - node.utterance <= maxUtterances);
+    }
+
+    private void retainReferers(IDiscourseEntity entity) {
+        if (maxReferers > 0) {
+            entity.retainReferers(maxReferers);
+        }
+    }
+
+    private void remove(Node node) {
+        unlink(node);
+        nodes.remove(node.entity);
+        size--;
+
+        if (byLemma.get(node.lemma).isEmpty()) {
+            byLemma.remove(node.lemma);
+        }
+        if (node.agreement != null && byAgreement.get(node.agreement).isEmpty()) {
+            byAgreement.remove(node.agreement);
+        }
+
+        final Word word = node.entity.getWord();
+        final int count = words.get(word);
+        if (count > 1) {
+            words.put(word, count - 1);
+        } else {
+            words.remove(word);
+        }
+    }
+
+    private void moveToFront(Node node) {
+        unlink(node);
+        linkFirst(node);
+    }
+
+    private void linkFirst(Node node) {
+        node.stamp = ++clock;
+        node.utterance = utterance;
+        bucket(byLemma, node.lemma).put(node.stamp, node);
+        if (node.agreement != null) {
+            bucket(byAgreement, node.agreement).put(node.stamp, node);
+        }
+
+        node.previous = null;
+        node.next = first;
+        if (first != null) {
+            first.previous = node;
+        } else {
+            last = node;
+        }
+        first = node;
+    }
+
+    private void unlink(Node node) {
+        byLemma.get(node.lemma).remove(node.stamp);
+        if (node.agreement != null) {
+            byAgreement.get(node.agreement).remove(node.stamp);
+        }
+
+        if (node.previous != null) {
+            node.previous.next = node.next;
+        } else {
+            first = node.next;
+        }
+        if (node.next != null) {
+            node.next.previous = node.previous;
+        } else {
+            last = node.previous;
+        }
+        node.previous = null;
+        node.next = null;
+    }
+
+    private static <K> NavigableMap<Long, Node> bucket(Map<K, NavigableMap<Long, Node>> index, K key) {
+        NavigableMap<Long, Node> bucket = index.get(key);
+        if (bucket == null) {
+            bucket = new TreeMap<Long, Node>();
+            index.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static String lemmaOf(Word word) {
+        return word.getLemma() != null ? word.getLemma() : word.getToken();
+    }
+
+    /**
+     * Gets the gender and number of the word, which are what {@link Word#matches(Word)} compares besides the lemma.
+     *
+     * @return the gender and number, or <tt>null</tt> if the word lacks either
+     */
+    private static WordAttributes agreementOf(Word word) {
+        final IWordAttribute gender = word.findAttributeOf(WordAttributeType.Gender.class);
+        final IWordAttribute number = word.findAttributeOf(WordAttributeType.Number.class);
+        return gender != null && number != null ? WordAttributes.of(gender, number) : null;
     }
 
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
-            "recent=" + recent +
+            "recent=" + newArrayList(getEntities()) +
             '}';
     }
+
+    /** A link in the recency list. */
+    private static final class Node {
+        private final IDiscourseEntity entity;
+        private final String lemma;
+        private final WordAttributes agreement;
+        private long stamp;
+        private int utterance;
+        private Node previous;
+        private Node next;
+
+        private Node(IDiscourseEntity entity, String lemma, WordAttributes agreement) {
+            this.entity = entity;
+            this.lemma = lemma;
+            this.agreement = agreement;
+        }
+    }
+
+    /** Merges two index buckets, most recently mentioned first, visiting an entity in both buckets once. */
+    private static final class RecencyIterator implements Iterator<IDiscourseEntity> {
+        private final Iterator<Node> first;
+        private final Iterator<Node> second;
+        private Node nextFirst;
+        private Node nextSecond;
+
+        private RecencyIterator(NavigableMap<Long, Node> first, NavigableMap<Long, Node> second) {
+            this.first = first != null ? first.descendingMap().values().iterator() : null;
+            this.second = second != null ? second.descendingMap().values().iterator() : null;
+            nextFirst = advance(this.first);
+            nextSecond = advance(this.second);
+        }
+
+        public boolean hasNext() {
+            return nextFirst != null || nextSecond != null;
+        }
+
+        public IDiscourseEntity next() {
+            final Node node;
+            if (nextSecond == null || (nextFirst != null && nextFirst.stamp >= nextSecond.stamp)) {
+                node = nextFirst;
+                if (nextSecond == node) {
+                    nextSecond = advance(second);
+                }
+                nextFirst = advance(first);
+            } else {
+                node = nextSecond;
+                nextSecond = advance(second);
+            }
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            return node.entity;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private static Node advance(Iterator<Node> iterator) {
+            return iterator != null && iterator.hasNext() ? iterator.next() : null;
+        }
+    }
 }
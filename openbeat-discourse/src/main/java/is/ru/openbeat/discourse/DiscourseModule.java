@@ -48,17 +48,19 @@ package is.ru.openbeat.discourse;
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
 import is.ru.openbeat.pipeline.ICompiler;
+import is.ru.openbeat.pipeline.PipelineSession;
 
 /**
- * Class <tt>DiscourseModule</tt> binds discourse classes to the pipeline
+ * Class <tt>DiscourseModule</tt> binds discourse classes to the pipeline. The discourse state belongs to the {@link
+ * PipelineSession session} of the conversation.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
 public class DiscourseModule extends AbstractModule {
     protected void configure() {
-        bind(IDiscourseModel.class).to(DiscourseModel.class);
-        bind(IDiscourseTagger.class).to(DiscourseTagger.class);
+        bind(IDiscourseModel.class).to(DiscourseModel.class).in(PipelineSession.SCOPE);
+        bind(IDiscourseTagger.class).to(DiscourseTagger.class).in(PipelineSession.SCOPE);
 
         final Multibinder<ICompiler> multibinder = Multibinder.newSetBinder(binder(), ICompiler.class);
         multibinder.addBinding().to(DiscourseCompiler.class);
@@ -47,7 +47,6 @@ package is.ru.openbeat.discourse;
 
 import static com.google.common.collect.Maps.newHashMap;
 import com.google.inject.Inject;
-import com.google.inject.Singleton;
 import is.ru.openbeat.model.*;
 import static is.ru.openbeat.model.PersonAttribute.*;
 import static is.ru.openbeat.model.WordClassAttribute.*;
@@ -60,18 +59,18 @@ import java.util.Map;
 
 /**
  * Class <tt>DiscourseTagger</tt> uses the {@link IDiscourseModel} to mark new entities according to the recency
- * method.
+ * method. Only the {@link IDiscourseModel#getCandidates(Word) candidates} of a word are compared with it, most recent
+ * first.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
-@Singleton
 public class DiscourseTagger implements IDiscourseTagger {
     private static final Logger log = LoggerFactory.getLogger(DiscourseTagger.class);
 
     private final Multimethod mm = new Multimethod(this);
 
-    private final Map<String, Integer> entityMap = newHashMap();
+    private final Map<String, Reference> entityMap = newHashMap();
 
     private final IDiscourseModel discourseModel;
 
@@ -88,46 +87,36 @@ public class DiscourseTagger implements IDiscourseTagger {
         log.debug("Tagged discourse model: {}", discourseModel);
     }
 
+    public void nextUtterance() {
+        discourseModel.nextUtterance();
+    }
+
     public void clearState() {
         discourseModel.clearState();
         entityMap.clear();
     }
 
     @Multi
-    private void handleAdjective(Constituent constituent, Word word) {
+    void handleAdjective(Constituent constituent, Word word) {
         if (word.is(ADJECTIVE)) {
             log.debug("Hit adjective {}", word);
 
-            boolean matched = false;
-            for (IDiscourseEntity entity : discourseModel.getEntities()) {
-                if (entity.getWord().equals(word)) {
-                    entity.addReferer(constituent);
-                    discourseModel.refer(entity);
-                    matched = true;
-                    break;
-                }
-            }
-            if (!matched) {
-                final IDiscourseEntity entity = new DiscourseEntity(createIdentifier(word), word);
+            final IDiscourseEntity entity = findEqual(word);
+            if (entity != null) {
                 entity.addReferer(constituent);
-                discourseModel.addEntity(entity);
+                discourseModel.refer(entity);
+            } else {
+                addEntity(constituent, word);
             }
         } else if (word.is(VERB)) {
             log.debug("Hit verb {}", word);
 
-            boolean matched = false;
-            for (IDiscourseEntity entity : discourseModel.getEntities()) {
-                if (entity.getWord().equals(word)) {
-                    entity.addReferer(constituent);
-                    discourseModel.refer(entity);
-                    matched = true;
-                    break;
-                }
-            }
-            if (!matched) {
-                final IDiscourseEntity entity = new DiscourseEntity(createIdentifier(word), word);
+            final IDiscourseEntity entity = findEqual(word);
+            if (entity != null) {
                 entity.addReferer(constituent);
-                discourseModel.addEntity(entity);
+                discourseModel.refer(entity);
+            } else {
+                addEntity(constituent, word);
             }
         }
     }
@@ -139,35 +128,26 @@ public class DiscourseTagger implements IDiscourseTagger {
      * @param word       the word which is being checked
      */
     @Multi
-    private void handleNounPhraseWord(NounPhrase nounPhrase, Word word) {
+    void handleNounPhraseWord(NounPhrase nounPhrase, Word word) {
         if (word.is(NOUN) || (word.is(PRONOUN) && !word.is(PERSONAL_PRONOUN)) || (word.is(PERSONAL_PRONOUN) && (word.is(
             FIRST) || word.is(SECOND)))) {
 
             // if word is new, add refering expression, else create entity
-            boolean matched = false;
             log.debug("[Word] Hit noun/pronoun, creating refering expression: {}", word);
-            for (IDiscourseEntity entity : discourseModel.getEntities()) {
-                if (entity.matches(word)) {
-                    entity.addReferer(nounPhrase);
-                    discourseModel.refer(entity);
-                    matched = true;
-                    break;
-                }
-            }
-            if (!matched) {
-                log.trace("[Word] Hit noun/pronoun, creating entity: {}", word);
-                final IDiscourseEntity entity = new DiscourseEntity(createIdentifier(word), word);
+            final IDiscourseEntity entity = findMatching(word);
+            if (entity != null) {
                 entity.addReferer(nounPhrase);
-                discourseModel.addEntity(entity);
+                discourseModel.refer(entity);
+            } else {
+                log.trace("[Word] Hit noun/pronoun, creating entity: {}", word);
+                addEntity(nounPhrase, word);
             }
         } else if (word.is(PERSONAL_PRONOUN) && word.is(THIRD)) {
-            for (IDiscourseEntity entity : discourseModel.getEntities()) {
-                if (entity.matches(word)) {
-                    log.debug("[Word] Hit personal pronoun, matches {}, adding referer: {}", entity, word);
-                    entity.addReferer(nounPhrase);
-                    discourseModel.refer(entity);
-                    break;
-                }
+            final IDiscourseEntity entity = findMatching(word);
+            if (entity != null) {
+                log.debug("[Word] Hit personal pronoun, matches {}, adding referer: {}", entity, word);
+                entity.addReferer(nounPhrase);
+                discourseModel.refer(entity);
             }
         } else {
             log.trace("[Word] Word doesn't match any criteria: {}", word);
@@ -175,14 +155,14 @@ public class DiscourseTagger implements IDiscourseTagger {
     }
 
     @Multi
-    private void handleNounPhraseConstituent(NounPhrase nounPhrase, Constituent constituent) {
+    void handleNounPhraseConstituent(NounPhrase nounPhrase, Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             mm.match(nounPhrase, featureStructure);
         }
     }
 
     @Multi
-    private void handleNounPhrase(NounPhrase nounPhrase) {
+    void handleNounPhrase(NounPhrase nounPhrase) {
         log.trace("Hit nounPhrase: {}", nounPhrase);
 
         for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
@@ -191,23 +171,57 @@ public class DiscourseTagger implements IDiscourseTagger {
     }
 
     @Multi
-    private void handleConstituent(Constituent constituent) {
+    void handleConstituent(Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             mm.match(constituent, featureStructure);
         }
     }
 
-    private String createIdentifier(Word word) {
-        String ref = word.is(PERSONAL_PRONOUN) ? "producer" : word.getToken();
-        ref = ref.toUpperCase();
-        if (entityMap.containsKey(ref)) {
-            Integer number = entityMap.get(ref);
-            number += 1;
-            entityMap.put(ref, number);
-            return ref + Integer.toString(number);
-        } else {
-            entityMap.put(ref, 1);
-            return ref + Integer.toString(1);
+    private IDiscourseEntity findEqual(Word word) {
+        for (IDiscourseEntity entity : discourseModel.getCandidates(word)) {
+            if (entity.getWord().equals(word)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    private IDiscourseEntity findMatching(Word word) {
+        for (IDiscourseEntity entity : discourseModel.getCandidates(word)) {
+            if (entity.matches(word)) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    private void addEntity(Constituent constituent, Word word) {
+        final String ref = referenceOf(word);
+        Reference reference = entityMap.get(ref);
+        if (reference == null) {
+            reference = new Reference(ref);
+            entityMap.put(ref, reference);
+        }
+
+        final IDiscourseEntity entity = new DiscourseEntity(reference.name, ++reference.count, word);
+        entity.addReferer(constituent);
+        discourseModel.addEntity(entity);
+    }
+
+    private static String referenceOf(Word word) {
+        return (word.is(PERSONAL_PRONOUN) ? "producer" : word.getToken()).toUpperCase();
+    }
+
+    /**
+     * The name of a reference, shared by its entities, and the number of entities created for it. A reference is kept
+     * after its entities have left the discourse window, so an identifier is never given to two entities.
+     */
+    private static final class Reference {
+        private final String name;
+        private int count;
+
+        private Reference(String name) {
+            this.name = name;
         }
     }
 }
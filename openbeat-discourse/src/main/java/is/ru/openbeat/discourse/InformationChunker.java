@@ -60,7 +60,8 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 /**
- * Class <tt>InformationChunker</tt> chunks sentences into featurestructures
+ * Class <tt>InformationChunker</tt> chunks sentences into featurestructures. The chunker is stateless, each call to
+ * {@link #chunk(Iterable)} collects its clauses in its own {@link Chunking} so sentences can be chunked concurrently.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
@@ -69,51 +70,52 @@ import java.util.List;
 public class InformationChunker {
     private static final Logger log = LoggerFactory.getLogger(InformationChunker.class);
 
-    private final Multimethod mm = new Multimethod(this);
-
-    private final List<Iterable<IFeatureStructure>> clauses = newArrayList();
-    private final List<IFeatureStructure> features = newArrayList();
-    private boolean hasVerb;
-
     public InformationChunker() {
     }
 
     public Iterable<Iterable<IFeatureStructure>> chunk(Iterable<IFeatureStructure> sentences) {
-        clauses.clear();
-        features.clear();
-        hasVerb = false;
+        return new Chunking(sentences).clauses;
+    }
 
-        for (IFeatureStructure featureStructure : sentences) {
-            features.add(featureStructure);
-            mm.match(featureStructure);
-        }
+    class Chunking {
+        private final Multimethod mm = new Multimethod(this);
 
-        if (clauses.isEmpty()) {
-            log.warn("Sentence probably didn't end with punctuation, cleaning up afterwards");
-            clauses.add(newArrayList(features));
-        }
-        return clauses;
-    }
+        private final List<Iterable<IFeatureStructure>> clauses = newArrayList();
+        private final List<IFeatureStructure> features = newArrayList();
+        private boolean hasVerb;
 
-    @Multi
-    public void handleWord(Word word) {
-        if (word.is(VERB)) {
-            hasVerb = true;
-        }
+        private Chunking(Iterable<IFeatureStructure> sentences) {
+            for (IFeatureStructure featureStructure : sentences) {
+                features.add(featureStructure);
+                mm.match(featureStructure);
+            }
 
-        if (word.is(PUNCTUATION)) {
-            if (hasVerb) {
+            if (clauses.isEmpty()) {
+                log.warn("Sentence probably didn't end with punctuation, cleaning up afterwards");
                 clauses.add(newArrayList(features));
-                features.clear();
-                hasVerb = false;
             }
         }
-    }
 
-    @Multi
-    public void handleConstituent(Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(featureStructure);
+        @Multi
+        public void handleWord(Word word) {
+            if (word.is(VERB)) {
+                hasVerb = true;
+            }
+
+            if (word.is(PUNCTUATION)) {
+                if (hasVerb) {
+                    clauses.add(newArrayList(features));
+                    features.clear();
+                    hasVerb = false;
+                }
+            }
+        }
+
+        @Multi
+        public void handleConstituent(Constituent constituent) {
+            for (IFeatureStructure featureStructure : constituent.getFeatures()) {
+                mm.match(featureStructure);
+            }
         }
     }
 }
@@ -47,6 +47,9 @@ package is.ru.openbeat.discourse;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.util.Providers;
 import is.ru.openbeat.model.*;
 import is.ru.openbeat.multimethod.Multi;
 import is.ru.openbeat.multimethod.Multimethod;
@@ -57,33 +60,35 @@ import java.util.List;
 
 /**
  * Class <tt>InformationStructureBuilder</tt> creates information struction from a given feature structure. Divides each <tt>CLAUSE</tt> into a <tt>RHEME</tt> and a <tt>THEME</tt> according to
- * heuristic rules that look at the location of <tt>NEW</tt> tagged words with respect to the verb head of the clause
+ * heuristic rules that look at the location of <tt>NEW</tt> tagged words with respect to the verb head of the clause.
+ * <p/>
+ * The builder is stateless, each call collects the clause in its own {@link StructureBuilding}.
  *
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
+@Singleton
 public class InformationStructureBuilder {
     private static final Logger log = LoggerFactory.getLogger(InformationStructureBuilder.class);
 
-    private final Multimethod mm = new Multimethod(this);
+    private final Provider<IDiscourseModel> discourseModel;
 
-    private final IDiscourseModel discourseModel;
-    private final List<IFeatureStructure> pre = newArrayList();
-    private final List<IFeatureStructure> post = newArrayList();
-    private VerbPhrase verb;
-
-    private boolean preVerb;
-    private boolean hasVerb;
-    private boolean postVerb;
-    private boolean focused;
+    /**
+     * Constructor InformationStructureBuilder creates a new <tt>InformationStructureBuilder</tt> instance.
+     *
+     * @param discourseModel provides the discourse model of the current session
+     */
+    @Inject
+    public InformationStructureBuilder(Provider<IDiscourseModel> discourseModel) {
+        this.discourseModel = discourseModel;
+    }
 
     /**
      * Constructor InformationStructureBuilder creates a new <tt>InformationStructureBuilder</tt> instance.
      *
      * @param discourseModel the discourseModel
      */
-    @Inject
     public InformationStructureBuilder(IDiscourseModel discourseModel) {
-        this.discourseModel = discourseModel;
+        this(Providers.of(discourseModel));
     }
 
 
@@ -93,144 +98,157 @@ public class InformationStructureBuilder {
      * @param structure the feature structure
      * @return Pair<IArticulation, IArticulation> the information structure
      */
-    @SuppressWarnings({"ConstantConditions"})
     public Pair<IArticulation, IArticulation> buildInformationStructure(Iterable<IFeatureStructure> structure) {
-        pre.clear();
-        post.clear();
-        verb = null;
+        return new StructureBuilding(discourseModel.get(), structure).build();
+    }
 
-        preVerb = false;
-        hasVerb = false;
-        postVerb = false;
-        focused = false;
+    class StructureBuilding {
+        private final Multimethod mm = new Multimethod(this);
 
-        for (IFeatureStructure featureStructure : structure) {
-            log.trace("Matching on {}", featureStructure);
-            mm.match(featureStructure);
+        private final IDiscourseModel discourseModel;
+        private final List<IFeatureStructure> pre = newArrayList();
+        private final List<IFeatureStructure> post = newArrayList();
+        private VerbPhrase verb;
 
-            if (verb == null) {
-                pre.add(featureStructure);
-            } else if (!verb.equals(featureStructure)) {
-                post.add(featureStructure);
-            }
-        }
+        private boolean preVerb;
+        private boolean hasVerb;
+        private boolean postVerb;
+        private boolean focused;
 
-        final List<IFeatureStructure> themes = newArrayList();
-        final List<IFeatureStructure> rhemes = newArrayList();
-
-        log.trace("preVerb: {}", preVerb);
-        log.trace("hasVerb: {}", hasVerb);
-        log.trace("postVerb: {}", postVerb);
-        if (!preVerb && !hasVerb && !postVerb) {
-            log.debug("Case 1");
-            themes.addAll(pre);
-            addVerb(rhemes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (preVerb && hasVerb && !postVerb) {
-            log.debug("Case 2");
-            themes.addAll(pre);
-            addVerb(rhemes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (preVerb && !hasVerb && postVerb) {
-            log.debug("Case 3");
-            themes.addAll(pre);
-            addVerb(themes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (!preVerb && hasVerb && postVerb) {
-            log.debug("Case 4");
-            themes.addAll(pre);
-            addVerb(themes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (postVerb && preVerb && hasVerb) {
-            log.debug("Case 5");
-            themes.addAll(pre);
-            addVerb(themes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (preVerb && !hasVerb && !postVerb) {
-            log.debug("Case 6");
-            rhemes.addAll(pre);
-            addVerb(themes, verb);
-            themes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Rheme(rhemes), new Theme(themes));
-        } else if (!preVerb && hasVerb && !postVerb) {
-            log.debug("Case 7");
-            themes.addAll(pre);
-            addVerb(rhemes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        } else if (!preVerb && !hasVerb && postVerb) {
-            log.debug("Case 8");
-            themes.addAll(pre);
-            addVerb(themes, verb);
-            rhemes.addAll(post);
-            return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
-        }
+        private StructureBuilding(IDiscourseModel discourseModel, Iterable<IFeatureStructure> structure) {
+            this.discourseModel = discourseModel;
 
-        throw new IllegalStateException(
-                String.format("No legal state after processing themes/rhemes with preVerb: %s, hasVerb: %s, postVerb: %s",
-                        preVerb, hasVerb, postVerb));
-    }
+            for (IFeatureStructure featureStructure : structure) {
+                log.trace("Matching on {}", featureStructure);
+                mm.match(featureStructure);
 
-    private void addVerb(List<IFeatureStructure> collection, IFeatureStructure verb) {
-        if (verb != null) {
-            collection.add(verb);
-        } else {
-            log.warn("No verb found");
-        }                                                         
-    }
+                if (verb == null) {
+                    pre.add(featureStructure);
+                } else if (!verb.equals(featureStructure)) {
+                    post.add(featureStructure);
+                }
+            }
+        }
+
+        @SuppressWarnings({"ConstantConditions"})
+        private Pair<IArticulation, IArticulation> build() {
+            final List<IFeatureStructure> themes = newArrayList();
+            final List<IFeatureStructure> rhemes = newArrayList();
+
+            log.trace("preVerb: {}", preVerb);
+            log.trace("hasVerb: {}", hasVerb);
+            log.trace("postVerb: {}", postVerb);
+            if (!preVerb && !hasVerb && !postVerb) {
+                log.debug("Case 1");
+                themes.addAll(pre);
+                addVerb(rhemes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (preVerb && hasVerb && !postVerb) {
+                log.debug("Case 2");
+                themes.addAll(pre);
+                addVerb(rhemes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (preVerb && !hasVerb && postVerb) {
+                log.debug("Case 3");
+                themes.addAll(pre);
+                addVerb(themes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (!preVerb && hasVerb && postVerb) {
+                log.debug("Case 4");
+                themes.addAll(pre);
+                addVerb(themes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (postVerb && preVerb && hasVerb) {
+                log.debug("Case 5");
+                themes.addAll(pre);
+                addVerb(themes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (preVerb && !hasVerb && !postVerb) {
+                log.debug("Case 6");
+                rhemes.addAll(pre);
+                addVerb(themes, verb);
+                themes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Rheme(rhemes), new Theme(themes));
+            } else if (!preVerb && hasVerb && !postVerb) {
+                log.debug("Case 7");
+                themes.addAll(pre);
+                addVerb(rhemes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            } else if (!preVerb && !hasVerb && postVerb) {
+                log.debug("Case 8");
+                themes.addAll(pre);
+                addVerb(themes, verb);
+                rhemes.addAll(post);
+                return new Pair<IArticulation, IArticulation>(new Theme(themes), new Rheme(rhemes));
+            }
 
-    @Multi
-    private void handleConstituent(Constituent constituent) {
-        for (IFeatureStructure featureStructure : constituent.getFeatures()) {
-            mm.match(featureStructure);
+            throw new IllegalStateException(
+                    String.format("No legal state after processing themes/rhemes with preVerb: %s, hasVerb: %s, postVerb: %s",
+                            preVerb, hasVerb, postVerb));
         }
-    }
 
-    @Multi
-    private void handleNounPhrase(NounPhrase nounPhrase) {
-        for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
-            mm.match(nounPhrase, featureStructure);
+        private void addVerb(List<IFeatureStructure> collection, IFeatureStructure verb) {
+            if (verb != null) {
+                collection.add(verb);
+            } else {
+                log.warn("No verb found");
+            }                                                         
         }
 
-        if (verb == null) {
-            preVerb = preVerb || focused;
-        } else {
-            postVerb = postVerb || focused;
+        @Multi
+        void handleConstituent(Constituent constituent) {
+            for (IFeatureStructure featureStructure : constituent.getFeatures()) {
+                mm.match(featureStructure);
+            }
         }
-    }
 
-    /**
-     * Method handleVerbPhrase is the part of the algorithm described in the class that handles {@link is.ru.openbeat.model.VerbPhrase} instances.
-     *
-     * @param verbPhrase the verb phrase
-     */
-    @Multi
-    private void handleVerbPhrase(VerbPhrase verbPhrase) {
-        log.debug("Handling verb phrase");
-        for (IFeatureStructure featureStructure : verbPhrase.getFeatures()) {
-            mm.match(verbPhrase, featureStructure);
+        @Multi
+        void handleNounPhrase(NounPhrase nounPhrase) {
+            for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
+                mm.match(nounPhrase, featureStructure);
+            }
+
+            if (verb == null) {
+                preVerb = preVerb || focused;
+            } else {
+                postVerb = postVerb || focused;
+            }
         }
 
-        if (verb == null) {
-            log.debug("Setting verb phrase: {}", verbPhrase);
-            verb = verbPhrase;
-            hasVerb = focused;
+        /**
+         * Method handleVerbPhrase is the part of the algorithm described in the class that handles {@link is.ru.openbeat.model.VerbPhrase} instances.
+         *
+         * @param verbPhrase the verb phrase
+         */
+        @Multi
+        void handleVerbPhrase(VerbPhrase verbPhrase) {
+            log.debug("Handling verb phrase");
+            for (IFeatureStructure featureStructure : verbPhrase.getFeatures()) {
+                mm.match(verbPhrase, featureStructure);
+            }
+
+            if (verb == null) {
+                log.debug("Setting verb phrase: {}", verbPhrase);
+                verb = verbPhrase;
+                hasVerb = focused;
+            }
         }
-    }
 
-    /**
-     * Method handleWord checks if a given word is <tt>NEW</tt>.
-     *
-     * @param constituent the constituent this words belongs to
-     * @param word the word
-     */
-    @Multi
-    private void handleWord(Constituent constituent, Word word) {
-        focused = discourseModel.isNew(word);
+        /**
+         * Method handleWord checks if a given word is <tt>NEW</tt>.
+         *
+         * @param constituent the constituent this words belongs to
+         * @param word the word
+         */
+        @Multi
+        void handleWord(Constituent constituent, Word word) {
+            focused = discourseModel.isNew(word);
+        }
     }
 }
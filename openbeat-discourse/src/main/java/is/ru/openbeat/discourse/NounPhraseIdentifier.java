@@ -92,14 +92,14 @@ public class NounPhraseIdentifier {
     }
 
     @Multi
-    private void handleConstituent(Constituent constituent) {
+    void handleConstituent(Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             mm.match(featureStructure);
         }
     }
 
     @Multi
-    private void handleNounPhrase(NounPhrase nounPhrase) {
+    void handleNounPhrase(NounPhrase nounPhrase) {
         final List<String> words = newArrayList();
         for (IFeatureStructure featureStructure : nounPhrase.getFeatures()) {
             mm.match(words, featureStructure);
@@ -116,7 +116,7 @@ public class NounPhraseIdentifier {
     }
 
     @Multi
-    private void handleWord(List<String> words, Word word) {
+    void handleWord(List<String> words, Word word) {
         log.trace("Adding {} to words", word);
         words.add(word.getLemma() != null ? word.getLemma() : word.getToken());
     }
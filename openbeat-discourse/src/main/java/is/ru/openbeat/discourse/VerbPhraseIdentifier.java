@@ -88,14 +88,14 @@ public class VerbPhraseIdentifier {
     }
 
     @Multi
-    private void handleConstituents(Constituent constituent) {
+    void handleConstituents(Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             mm.match(featureStructure);
         }
     }
 
     @Multi
-    private void handleVerbPhrase(VerbPhrase verbPhrase) {
+    void handleVerbPhrase(VerbPhrase verbPhrase) {
         for (IFeatureStructure featureStructure : verbPhrase.getFeatures()) {
             mm.match(verbPhrase, featureStructure);
         }
@@ -108,14 +108,14 @@ public class VerbPhraseIdentifier {
      * @param word the word which is being checked
      */
     @Multi
-    private void handleWord(VerbPhrase verbPhrase, Word word) {
+    void handleWord(VerbPhrase verbPhrase, Word word) {
         if (word.is(WordClassAttribute.VERB)) {
-            final String identifier = word.getLemma() != null ? word.getLemma().toUpperCase() : word.getToken().toUpperCase();
+            final String identifier = word.getLemma() != null ? word.getLemma() : word.getToken();
             log.debug("Checking if '{}' is an verbPhrase identifier in knowledge base", identifier);
             final IGesture gestureBehavior = knowledgeBase.getGesture(identifier);
             if (gestureBehavior != null) {
-                log.debug("Setting verbPhrase identifier {}", identifier);
-                verbPhrase.setId(identifier);
+                log.debug("Setting verbPhrase identifier {}", gestureBehavior.getValue());
+                verbPhrase.setId(gestureBehavior.getValue());
             } else {
                 // TODO: looks up hypernyms in dictionary source, and try to mark them
             }
@@ -0,0 +1,169 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.discourse;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static is.ru.openbeat.model.GenderAttribute.MASCULINE;
+import static is.ru.openbeat.model.NumberAttribute.SINGULAR;
+import static is.ru.openbeat.model.PersonAttribute.THIRD;
+import is.ru.openbeat.model.Constituent;
+import is.ru.openbeat.model.NounPhrase;
+import is.ru.openbeat.model.Word;
+import static is.ru.openbeat.model.WordClassAttribute.NOUN;
+import static is.ru.openbeat.model.WordClassAttribute.PERSONAL_PRONOUN;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Class <tt>TestDiscourseModel</tt> tests the recency list of the {@link DiscourseModel}.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class TestDiscourseModel {
+    private DiscourseModel discourseModel;
+    private IDiscourseEntity car;
+    private IDiscourseEntity house;
+    private IDiscourseEntity tree;
+
+    @Before
+    public void setUp() {
+        discourseModel = new DiscourseModel();
+        car = new DiscourseEntity("CAR1", new Word("car", NOUN));
+        house = new DiscourseEntity("HOUSE1", new Word("house", NOUN));
+        tree = new DiscourseEntity("TREE1", new Word("tree", NOUN));
+
+        discourseModel.addEntity(car);
+        discourseModel.addEntity(house);
+        discourseModel.addEntity(tree);
+    }
+
+    @Test
+    public void testRecencyOrder() {
+        assertThat(newArrayList(discourseModel.getEntities()), is(Arrays.asList(tree, house, car)));
+
+        discourseModel.refer(car);
+        assertThat(newArrayList(discourseModel.getEntities()), is(Arrays.asList(car, tree, house)));
+
+        discourseModel.refer(car);
+        discourseModel.refer(house);
+        assertThat(newArrayList(discourseModel.getEntities()), is(Arrays.asList(house, car, tree)));
+    }
+
+    @Test
+    public void testIsNew() {
+        assertThat(discourseModel.isNew(car.getWord()), is(true));
+        assertThat(discourseModel.isNew(new Word("car", NOUN)), is(false));
+
+        discourseModel.clearState();
+        assertThat(discourseModel.isNew(car.getWord()), is(false));
+        assertThat(discourseModel.getEntities().iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testCandidates() {
+        final IDiscourseEntity dog = new DiscourseEntity("DOG", 1, new Word("dog", NOUN, MASCULINE, SINGULAR));
+        final IDiscourseEntity man = new DiscourseEntity("MAN", 1, new Word("man", NOUN, MASCULINE, SINGULAR));
+        discourseModel.addEntity(dog);
+        discourseModel.addEntity(man);
+        discourseModel.refer(car);
+
+        assertThat(newArrayList(discourseModel.getCandidates(new Word("car", NOUN))), is(Arrays.asList(car)));
+        final Word he = new Word("he", PERSONAL_PRONOUN, THIRD, MASCULINE, SINGULAR);
+        assertThat(newArrayList(discourseModel.getCandidates(he)), is(Arrays.asList(man, dog)));
+        assertThat(newArrayList(discourseModel.getCandidates(new Word("dog", NOUN, MASCULINE, SINGULAR))),
+            is(Arrays.asList(man, dog)));
+
+        discourseModel.refer(dog);
+        assertThat(newArrayList(discourseModel.getCandidates(new Word("dog", NOUN, MASCULINE, SINGULAR))),
+            is(Arrays.asList(dog, man)));
+        assertThat(discourseModel.getCandidates(new Word("bike", NOUN)).iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testEntityWindow() {
+        discourseModel.setMaxEntities(2);
+        discourseModel.refer(car);
+
+        assertThat(discourseModel.nextUtterance(), is(Arrays.asList(house)));
+        assertThat(newArrayList(discourseModel.getEntities()), is(Arrays.asList(car, tree)));
+        assertThat(discourseModel.isNew(house.getWord()), is(false));
+        assertThat(discourseModel.getCandidates(house.getWord()).iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void testUtteranceWindow() {
+        discourseModel.setMaxUtterances(2);
+
+        assertThat(discourseModel.nextUtterance().isEmpty(), is(true));
+        discourseModel.refer(house);
+        assertThat(discourseModel.nextUtterance().isEmpty(), is(true));
+        assertThat(discourseModel.nextUtterance(), is(Arrays.asList(car, tree)));
+        assertThat(newArrayList(discourseModel.getEntities()), is(Arrays.asList(house)));
+    }
+
+    @Test
+    public void testRefererWindow() {
+        discourseModel.setMaxReferers(2);
+        final Constituent first = NounPhrase.with().features(new Word("car", NOUN)).build();
+        final Constituent second = NounPhrase.with().features(new Word("car", NOUN)).build();
+        final Constituent third = NounPhrase.with().features(new Word("it", PERSONAL_PRONOUN)).build();
+
+        for (Constituent constituent : Arrays.asList(first, second, third)) {
+            car.addReferer(constituent);
+            discourseModel.refer(car);
+        }
+        assertThat(car.getReferingExpressions(), is(Arrays.asList(second, third)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReferUnknown() {
+        discourseModel.refer(new DiscourseEntity("CAR2", new Word("car", NOUN)));
+    }
+}
@@ -48,18 +48,24 @@ package is.ru.openbeat;
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.TypeLiteral;
 import is.ru.openbeat.pipeline.IPipelineRunner;
+import is.ru.openbeat.pipeline.IService;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.Set;
 
 
 /**
  * Class <tt>Launcher</tt> loads all configured com.google.inject.Module classes, see {@link ServiceLoader} for more
  * details on how it's configured.
  * <p/>
+ * The bound {@link IService services} are started before the pipeline runs and stopped when the vm shuts down.
+ * <p/>
  * Needs to be run with vm parameter: "-Xmx512m" and "-splash:src/main/resources/OpenBEATsplash.png" for splash.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
@@ -72,6 +78,17 @@ public class Launcher {
             System.out.println("Loading module " + module.getClass().getSimpleName());
         }
         final Injector injector = Guice.createInjector(modules);
+        final Set<IService> services = injector.getInstance(Key.get(new TypeLiteral<Set<IService>>() {}));
+        for (IService service : services) {
+            service.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread("service-shutdown") {
+            public void run() {
+                for (IService service : services) {
+                    service.stop();
+                }
+            }
+        });
         final IPipelineRunner runner = injector.getInstance(IPipelineRunner.class);
         runner.run();
     }
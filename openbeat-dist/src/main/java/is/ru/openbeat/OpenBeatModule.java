@@ -64,6 +64,7 @@ public class OpenBeatModule extends AbstractModule {
         bind(String.class).annotatedWith(Names.named("praat.dir")).toProvider(Configuration.of("praat/is"));
         bind(String.class).annotatedWith(Names.named("bml.host")).toProvider(Configuration.of("localhost"));
         bind(Integer.class).annotatedWith(Names.named("bml.port")).toProvider(Configuration.of(15000));
+        bind(Double.class).annotatedWith(Names.named("kb.fuzzy.threshold")).toProvider(Configuration.of(0.5));
 
         bindConstant().annotatedWith(Names.named("kb.file")).to("database.yaml");
         bindConstant().annotatedWith(Names.named("freetts.stretch")).to(2F);
@@ -100,8 +101,11 @@ public class OpenBeatModule extends AbstractModule {
         return sortedCopy(outputWriters, new SimpleNameComparator());
     }
 
+    /**
+     * Lists the timing sources of the current session, the list is not a singleton since timing sources may be bound
+     * in the {@link PipelineSession#SCOPE session scope}.
+     */
     @Provides
-    @Singleton
     public List<ITimingSource> listTimingSources(Set<ITimingSource> timingSources) {
         return sortedCopy(timingSources, new SimpleNameComparator());
     }
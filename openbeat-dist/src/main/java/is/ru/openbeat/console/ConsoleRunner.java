@@ -46,7 +46,9 @@
 package is.ru.openbeat.console;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import is.ru.openbeat.knowledge.ReloadingKnowledgeBase;
 import is.ru.openbeat.model.*;
 import is.ru.openbeat.multimethod.Multi;
 import is.ru.openbeat.multimethod.Multimethod;
@@ -54,6 +56,7 @@ import is.ru.openbeat.pipeline.IBehaviorGenerator;
 import is.ru.openbeat.pipeline.INlpSource;
 import is.ru.openbeat.pipeline.IPipelineRunner;
 import is.ru.openbeat.pipeline.ITimingSource;
+import is.ru.openbeat.pipeline.ParallelGeneratorEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,15 +80,18 @@ public class ConsoleRunner implements IPipelineRunner {
     private final Scanner scanner = new Scanner(System.in);
 
     private final List<INlpSource> nlpSources;
-    private final Set<IBehaviorGenerator> generators;
+    private final ParallelGeneratorEngine generators;
     private INlpSource currentSource;
-    private final ITimingSource timingSource;
+    private final Provider<ITimingSource> timingSource;
+    private final ReloadingKnowledgeBase knowledgeBase;
 
     @Inject
-    public ConsoleRunner(List<INlpSource> nlpSources, Set<IBehaviorGenerator> generators, ITimingSource timingSource) {
+    public ConsoleRunner(List<INlpSource> nlpSources, Set<IBehaviorGenerator> generators,
+                         Provider<ITimingSource> timingSource, ReloadingKnowledgeBase knowledgeBase) {
         this.nlpSources = nlpSources;
-        this.generators = generators;
+        this.generators = new ParallelGeneratorEngine(generators);
         this.timingSource = timingSource;
+        this.knowledgeBase = knowledgeBase;
     }
 
     public void run() {
@@ -93,24 +99,17 @@ public class ConsoleRunner implements IPipelineRunner {
         System.out.print("> Type utterances at the prompt or '.' to exit.");
 
         while (scanner.hasNextLine()) {
-            String line = scanner.nextLine();
+            final String line = scanner.nextLine();
             if ("switch nlp".equals(line)) {
                 selectNlpSource();
             } else if (".".equals(line)) {
                 break;
             } else if (!line.isEmpty()) {
-                Utterance utterance = currentSource.process(line);
-                for (IBehaviorGenerator generator : generators) {
-                    utterance = generator.process(utterance);
-                }
-                utterance = timingSource.process(utterance);
-
-                System.out.println("> Output from NLP source:");
-                for (Clause clause : utterance.getClauses()) {
-                    System.out.println(String.format("- Clause [%s]", clause.getBehaviors()));
-                    mm.match(clause.getArticulations().getFirst());
-                    mm.match(clause.getArticulations().getSecond());
-                }
+                knowledgeBase.pin(new Runnable() {
+                    public void run() {
+                        process(line);
+                    }
+                });
                 System.out.print(NEWLINE + "> ");
             } else {
                 System.out.print(NEWLINE + "> ");
@@ -118,6 +117,19 @@ public class ConsoleRunner implements IPipelineRunner {
         }
     }
 
+    private void process(String line) {
+        Utterance utterance = currentSource.process(line);
+        utterance = generators.process(utterance);
+        utterance = timingSource.get().process(utterance);
+
+        System.out.println("> Output from NLP source:");
+        for (Clause clause : utterance.getClauses()) {
+            System.out.println(String.format("- Clause [%s]", clause.getBehaviors()));
+            mm.match(clause.getArticulations().getFirst());
+            mm.match(clause.getArticulations().getSecond());
+        }
+    }
+
     private void selectNlpSource() {
         log.debug("Nlp sources: {}", nlpSources);
 
@@ -157,13 +169,13 @@ public class ConsoleRunner implements IPipelineRunner {
     }
 
     @Multi
-    private void handleWord(Integer indent, Word word) {
+    void handleWord(Integer indent, Word word) {
         outputIndent(indent);
         System.out.println(String.format("    - Word [%s, %s]", word.getToken(), word.getBehaviors()));
     }
 
     @Multi
-    private void handleConstituent(Integer indent, Constituent constituent) {
+    void handleConstituent(Integer indent, Constituent constituent) {
         outputIndent(indent);
         System.out.println(
             String.format("    - %s (%s) [%s]", constituent.getClass().getSimpleName(), constituent.getType(),
@@ -174,7 +186,7 @@ public class ConsoleRunner implements IPipelineRunner {
     }
 
     @Multi
-    private void handleRheme(Rheme rheme) {
+    void handleRheme(Rheme rheme) {
         System.out.println("  - " + rheme.getClass().getSimpleName() + ": " + rheme.getBehaviors());
         for (IFeatureStructure featureStructure : rheme.getPhrases()) {
             mm.match(0, featureStructure);
@@ -182,7 +194,7 @@ public class ConsoleRunner implements IPipelineRunner {
     }
 
     @Multi
-    private void handleTheme(Theme theme) {
+    void handleTheme(Theme theme) {
         System.out.println("  - " + theme.getClass().getSimpleName() + ": " + theme.getBehaviors());
         for (IFeatureStructure featureStructure : theme.getPhrases()) {
             mm.match(0, featureStructure);
@@ -47,10 +47,11 @@ package is.ru.openbeat.gui;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
-import is.ru.openbeat.knowledge.IKnowledgeBase;
 import is.ru.openbeat.knowledge.IKnowledgePerson;
 import is.ru.openbeat.knowledge.IKnowledgeScene;
+import is.ru.openbeat.knowledge.ReloadingKnowledgeBase;
 import is.ru.openbeat.model.Pair;
 import is.ru.openbeat.model.Utterance;
 import is.ru.openbeat.participation.ParticipationFrameworkBase;
@@ -74,7 +75,9 @@ public class RunnerPanel extends JPanel {
 
     private static final String DEFAULT_STATUS_TEXT = "Ready";
 
-    private final ParticipationFrameworkBase participationFrameworkBase;
+    private final ReloadingKnowledgeBase knowledgeBase;
+    private final Provider<ParticipationFrameworkBase> participationFrameworkBase;
+    private final Provider<List<ITimingSource>> timingSources;
 
     private JComboBox nlp;
     private JComboBox timing;
@@ -84,6 +87,9 @@ public class RunnerPanel extends JPanel {
     private List<Pair<IBehaviorGenerator, JCheckBox>> generatorCheckBoxes = newArrayList();
     private List<Pair<IBehaviorFilter, JCheckBox>> filterCheckBoxes = newArrayList();
 
+    // kept until the selected generators change, so the stages aren't worked out again for every utterance
+    private volatile ParallelGeneratorEngine generatorEngine;
+
     private JTextArea input;
     private JTextArea output;
 
@@ -93,13 +99,15 @@ public class RunnerPanel extends JPanel {
     private JComboBox speaker;
 
     @Inject
-    public RunnerPanel(final List<INlpSource> nlpSources, final List<ITimingSource> timingSources,
+    public RunnerPanel(final List<INlpSource> nlpSources, final Provider<List<ITimingSource>> timingSources,
                        final List<IBehaviorGenerator> generators, final List<IBehaviorFilter> filters,
                        final List<ICompiler> compilers, final List<IOutputWriter> outputWriters,
-                       final IKnowledgeBase knowledgeBase,
-                       final ParticipationFrameworkBase participationFrameworkBase) {
+                       final ReloadingKnowledgeBase knowledgeBase,
+                       final Provider<ParticipationFrameworkBase> participationFrameworkBase) {
         super(new MigLayout("wrap 2", "[] [grow]", "[grow] []"));
+        this.knowledgeBase = knowledgeBase;
         this.participationFrameworkBase = participationFrameworkBase;
+        this.timingSources = timingSources;
 
         // left panel
         add(new JPanel(new MigLayout("wrap", "[grow]")) {{
@@ -112,7 +120,7 @@ public class RunnerPanel extends JPanel {
 
                     addActionListener(new ActionListener() {
                         public void actionPerformed(ActionEvent e) {
-                            participationFrameworkBase.setCurrentScene(getScene());
+                            participationFrameworkBase.get().setCurrentScene(getScene());
                             speaker.removeAllItems();
                             for (IKnowledgePerson person : getScene().getParticipants()) {
                                 speaker.addItem(person);
@@ -121,7 +129,7 @@ public class RunnerPanel extends JPanel {
                     });
                 }}, "grow");
             }}, "grow");
-            participationFrameworkBase.setCurrentScene(getScene());
+            participationFrameworkBase.get().setCurrentScene(getScene());
 
             add(new JPanel(new MigLayout()) {{
                 setBorder(BorderFactory.createTitledBorder("Sources"));
@@ -132,7 +140,7 @@ public class RunnerPanel extends JPanel {
                 }}, "grow, wrap");
 
                 add(new JLabel("Timing"));
-                add(timing = new JComboBox(timingSources.toArray()) {{
+                add(timing = new JComboBox(timingSources.get().toArray()) {{
                     setEditable(false);
                 }}, "grow, wrap");
 
@@ -196,12 +204,12 @@ public class RunnerPanel extends JPanel {
 
                     addActionListener(new ActionListener() {
                         public void actionPerformed(ActionEvent e) {
-                            participationFrameworkBase.getParticipationFramework(getScene()).setSpeaker(
+                            participationFrameworkBase.get().getParticipationFramework(getScene()).setSpeaker(
                                 getSpeaker().getId());
                         }
                     });
                 }});
-                participationFrameworkBase.getParticipationFramework(getScene()).setSpeaker(getSpeaker().getId());
+                participationFrameworkBase.get().getParticipationFramework(getScene()).setSpeaker(getSpeaker().getId());
 
                 add(new JScrollPane(input = new JTextArea() {{
                     setLineWrap(true);
@@ -302,7 +310,19 @@ public class RunnerPanel extends JPanel {
         }}, "span 2, gapbefore push");
     }
 
+    /**
+     * Compiles the input with the knowledge base pinned, so a reload of the knowledge base doesn't change it in the
+     * middle of the utterance.
+     */
     private void compile() {
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                compilePinned();
+            }
+        });
+    }
+
+    private void compilePinned() {
         final long t1 = System.currentTimeMillis();
 
         final String s = input.getText().trim();
@@ -312,11 +332,7 @@ public class RunnerPanel extends JPanel {
         Utterance utterance = getNlpSource().process(s);
 
         // generate behaviors
-        for (Pair<IBehaviorGenerator, JCheckBox> pair : generatorCheckBoxes) {
-            if (pair.getSecond().isSelected()) {
-                utterance = pair.getFirst().process(utterance);
-            }
-        }
+        utterance = getGenerators().process(utterance);
 
         // filter behaviors
         for (Pair<IBehaviorFilter, JCheckBox> pair : filterCheckBoxes) {
@@ -343,6 +359,14 @@ public class RunnerPanel extends JPanel {
     }
 
     private void compileAndWrite() {
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                compileAndWritePinned();
+            }
+        });
+    }
+
+    private void compileAndWritePinned() {
         final long t1 = System.currentTimeMillis();
 
         final String s = input.getText().trim();
@@ -352,11 +376,7 @@ public class RunnerPanel extends JPanel {
         Utterance utterance = getNlpSource().process(s);
 
         // generate behaviors
-        for (Pair<IBehaviorGenerator, JCheckBox> pair : generatorCheckBoxes) {
-            if (pair.getSecond().isSelected()) {
-                utterance = pair.getFirst().process(utterance);
-            }
-        }
+        utterance = getGenerators().process(utterance);
 
         // filter behaviors
         for (Pair<IBehaviorFilter, JCheckBox> pair : filterCheckBoxes) {
@@ -386,6 +406,21 @@ public class RunnerPanel extends JPanel {
         });
     }
 
+    private ParallelGeneratorEngine getGenerators() {
+        final List<IBehaviorGenerator> generators = newArrayList();
+        for (Pair<IBehaviorGenerator, JCheckBox> pair : generatorCheckBoxes) {
+            if (pair.getSecond().isSelected()) {
+                generators.add(pair.getFirst());
+            }
+        }
+
+        ParallelGeneratorEngine engine = generatorEngine;
+        if (engine == null || !engine.getGenerators().equals(generators)) {
+            generatorEngine = engine = new ParallelGeneratorEngine(generators);
+        }
+        return engine;
+    }
+
     private IKnowledgeScene getScene() {
         return (IKnowledgeScene) scene.getSelectedItem();
     }
@@ -398,8 +433,12 @@ public class RunnerPanel extends JPanel {
         return (INlpSource) nlp.getSelectedItem();
     }
 
+    /**
+     * Gets the selected timing source of the current session, the timing sources keep the timings of the session they
+     * belong to.
+     */
     private ITimingSource getTimingSource() {
-        return (ITimingSource) timing.getSelectedItem();
+        return timingSources.get().get(timing.getSelectedIndex());
     }
 
     private ICompiler getCompiler() {
@@ -56,6 +56,7 @@ import com.sun.speech.freetts.VoiceManager;
 import com.sun.speech.freetts.audio.NullAudioPlayer;
 import com.sun.speech.freetts.audio.JavaStreamingAudioPlayer;
 import is.ru.openbeat.pipeline.ITimingSource;
+import is.ru.openbeat.pipeline.PipelineSession;
 
 import java.util.List;
 
@@ -64,12 +65,17 @@ public class FreeTtsTimingModule extends AbstractModule {
         System.setProperty("freetts.voices", "com.sun.speech.freetts.en.us.cmu_us_kal.KevinVoiceDirectory");
         
         final Multibinder<ITimingSource> multibinder = Multibinder.newSetBinder(binder(), ITimingSource.class);
-        multibinder.addBinding().to(FreeTtsTimingSource.class);
+        multibinder.addBinding().to(FreeTtsTimingSource.class).in(PipelineSession.SCOPE);
+
+        bind(TimingProcessor.class).in(PipelineSession.SCOPE);
     }
 
+    /**
+     * Creates a timing voice for the timing source of a session, each voice reports to the timing processor of that
+     * session.
+     */
     @Named("freetts.timingvoice")
     @Provides
-    @Singleton
     public Voice createVoice(TimingProcessor timingProcessor, @Named("freetts.stretch") Float durationStretch) {
         final VoiceManager voiceManager = VoiceManager.getInstance();
         final Voice voice = voiceManager.getVoices()[1];
@@ -98,10 +104,4 @@ public class FreeTtsTimingModule extends AbstractModule {
 
         return voice;
     }
-
-    @Provides
-    @Singleton
-    public TimingProcessor createProcessor() {
-        return new TimingProcessor();
-    }
 }
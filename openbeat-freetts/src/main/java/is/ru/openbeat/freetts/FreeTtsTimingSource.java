@@ -47,7 +47,6 @@ package is.ru.openbeat.freetts;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
-import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.sun.speech.freetts.Voice;
 import is.ru.openbeat.model.*;
@@ -62,11 +61,11 @@ import java.util.List;
 
 /**
  * Class <tt>FreeTtsTimingSource</tt> reads timing information from FreeTTS based on the text in this utterance. Timings
- * are then associated back onto the words in the utterance.
+ * are then associated back onto the words in the utterance. Each {@link is.ru.openbeat.pipeline.PipelineSession
+ * session} has its own timing source and timing voice.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-@Singleton
 class FreeTtsTimingSource implements ITimingSource {
     private static final Logger log = LoggerFactory.getLogger(FreeTtsTimingSource.class);
 
@@ -128,14 +127,14 @@ class FreeTtsTimingSource implements ITimingSource {
     }
 
     @Collect
-    private void handleConstituent(StringBuilder sb, Constituent constituent) {
+    void handleConstituent(StringBuilder sb, Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             c.match(sb, featureStructure);
         }
     }
 
     @Collect
-    private void handleWord(StringBuilder sb, Word word) {
+    void handleWord(StringBuilder sb, Word word) {
         sb.append(word.getToken());
         if (!word.is(WordClassAttribute.PUNCTUATION)) {
             sb.append(" ");
@@ -149,14 +148,14 @@ class FreeTtsTimingSource implements ITimingSource {
     }
 
     @Produce
-    private void handleConstituent(List<Pair<String, Float>> timings, Constituent constituent) {
+    void handleConstituent(List<Pair<String, Float>> timings, Constituent constituent) {
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
             p.match(timings, featureStructure);
         }
     }
 
     @Produce
-    private void handleWord(List<Pair<String, Float>> timings, Word word) {
+    void handleWord(List<Pair<String, Float>> timings, Word word) {
         Pair<String, Float> remove = null;
         for (Pair<String, Float> pair : timings) {
             if (word.getToken().equalsIgnoreCase(pair.getFirst())) {
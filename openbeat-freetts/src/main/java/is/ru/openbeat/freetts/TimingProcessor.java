@@ -47,7 +47,6 @@ package is.ru.openbeat.freetts;
 
 import static com.google.common.collect.Lists.immutableList;
 import static com.google.common.collect.Lists.newArrayList;
-import com.google.inject.Singleton;
 import com.sun.speech.freetts.Item;
 import com.sun.speech.freetts.ProcessException;
 import com.sun.speech.freetts.Utterance;
@@ -68,7 +67,6 @@ import java.util.List;
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
-@Singleton
 class TimingProcessor implements UtteranceProcessor {
     private static final Logger log = LoggerFactory.getLogger(TimingProcessor.class);
 
@@ -51,13 +51,22 @@ import atunit.Unit;
 import atunit.guice.GuiceContainer;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.name.Names;
 import is.ru.openbeat.model.*;
+import is.ru.openbeat.pipeline.ITimingSource;
+import is.ru.openbeat.pipeline.PipelineSession;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Set;
+import java.util.concurrent.Callable;
+
 @RunWith(AtUnit.class)
 @Container(GuiceContainer.class)
 public class IntegrationTestFreeTtsTimingSource extends AbstractModule {
@@ -67,6 +76,9 @@ public class IntegrationTestFreeTtsTimingSource extends AbstractModule {
     @Unit
     private FreeTtsTimingSource timingSource;
 
+    @Inject
+    private Provider<Set<ITimingSource>> timingSources;
+
     protected void configure() {
         install(new FreeTtsTimingModule());
         bindConstant().annotatedWith(Names.named("freetts.stretch")).to(2F);
@@ -94,4 +106,19 @@ public class IntegrationTestFreeTtsTimingSource extends AbstractModule {
 
         log.debug("Timed utterance: {}", utteranceFixture);
     }
+
+    @Test
+    public void testSessions() throws Exception {
+        final Callable<ITimingSource> lookup = new Callable<ITimingSource>() {
+            public ITimingSource call() {
+                return timingSources.get().iterator().next();
+            }
+        };
+        final PipelineSession first = new PipelineSession();
+        final PipelineSession second = new PipelineSession();
+
+        final ITimingSource inFirst = first.call(lookup);
+        assertThat(first.call(lookup), sameInstance(inFirst));
+        assertThat(second.call(lookup), not(sameInstance(inFirst)));
+    }
 }
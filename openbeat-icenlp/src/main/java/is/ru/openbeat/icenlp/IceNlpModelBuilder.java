@@ -70,6 +70,7 @@ class IceNlpModelBuilder {
 
     public List<IFeatureStructure> build(String parsedText) {
         final List<IFeatureStructure> structure = newArrayList();
+        final WordTable words = new WordTable();
         final Scanner scanner = new Scanner(parsedText);
         while (scanner.hasNextLine()) {
             final String line = scanner.nextLine().trim();
@@ -81,18 +82,18 @@ class IceNlpModelBuilder {
                 final String type = line.substring(1, line.indexOf(" "));
                 final Constituent phrase = buildConstituent(type);
                 final String trimmedLine = line.substring(line.indexOf(" ") + 1, line.lastIndexOf(" "));
-                consumePhrase(phrase, trimmedLine);
+                consumePhrase(words, phrase, trimmedLine);
                 structure.add(phrase);
             } else {
                 final String[] t = line.split(" ");
-                structure.add(buildWord(t[0], t[1]));
+                structure.add(buildWord(words, t[0], t[1]));
             }
         }
 
         return structure;
     }
 
-    private void consumePhrase(Constituent parent, String line) {
+    private void consumePhrase(WordTable words, Constituent parent, String line) {
         final StringTokenizer tokenizer = new StringTokenizer(line, " ");
         while (tokenizer.hasMoreTokens()) {
             final String token = tokenizer.nextToken();
@@ -116,9 +117,9 @@ class IceNlpModelBuilder {
                     }
                 }
                 log.debug("Consuming '{}' with {}", rest.substring(1), phrase);
-                consumePhrase(phrase, rest.substring(1));
+                consumePhrase(words, phrase, rest.substring(1));
             } else if (!token.endsWith("]")) {
-                parent.addFeature(buildWord(token, tokenizer.nextToken()));
+                parent.addFeature(buildWord(words, token, tokenizer.nextToken()));
             }
         }
     }
@@ -156,7 +157,7 @@ class IceNlpModelBuilder {
         });
     }
 
-    private Word buildWord(String token, String tag) {
-        return new Word(token, tagResolver.resolveAttributes(tag));
+    private Word buildWord(WordTable words, String token, String tag) {
+        return words.add(token, tagResolver.resolveAttributes(tag));
     }
 }
@@ -81,8 +81,11 @@ public class IceNlpModule extends AbstractModule {
         return new Lexicon(fromFile(ICENLP_PATH_PREFIX + "dict/tokenizer/lexicon.txt"));
     }
 
+    // the lexicons are only read once loaded and are shared, while the tokenizer, tagger (with its morphological
+    // analyzer) and parser keep the state of the sentence they are working on and are created for each thread of the
+    // IceNlpSource
+
     @Provides
-    @Singleton
     public Tokenizer createTokenizer(Lexicon lexicon) {
         Tokenizer tokenizer = new Tokenizer(2, true, lexicon);
         tokenizer.findMultiWords(false);
@@ -121,7 +124,6 @@ public class IceNlpModule extends AbstractModule {
     }*/
 
     @Provides
-    @Singleton
     public IceMorphy createIceMorphy(IceTaggerLexicons iceTaggerLexicons) {
         return new IceMorphy(iceTaggerLexicons.morphyLexicons.dict, iceTaggerLexicons.morphyLexicons.baseDict,
             iceTaggerLexicons.morphyLexicons.endingsBase, iceTaggerLexicons.morphyLexicons.endings,
@@ -130,7 +132,6 @@ public class IceNlpModule extends AbstractModule {
     }
 
     @Provides
-    @Singleton
     public IceTagger createIceTagger(IceMorphy iceMorphy, IceTaggerLexicons iceTaggerLexicons) {
         return new IceTagger(0, null, iceMorphy, iceTaggerLexicons.morphyLexicons.baseDict,
             iceTaggerLexicons.morphyLexicons.dict, iceTaggerLexicons.idioms, iceTaggerLexicons.verbPrep,
@@ -142,7 +143,6 @@ public class IceNlpModule extends AbstractModule {
     }*/
 
     @Provides
-    @Singleton
     public IceParserFacade createIceParserFacade() {
         return new IceParserFacade();
     }
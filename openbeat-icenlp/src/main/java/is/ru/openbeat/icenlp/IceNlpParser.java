@@ -46,8 +46,10 @@
 package is.ru.openbeat.icenlp;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.cs.nlp.icenlp.facade.IceParserFacade;
+import is.ru.openbeat.pipeline.ThreadConfined;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,11 +59,11 @@ import java.io.IOException;
 class IceNlpParser {
     private static final Logger log = LoggerFactory.getLogger(IceNlpParser.class);
 
-    private final IceParserFacade parserFacade;
+    private final ThreadConfined<IceParserFacade> parserFacade;
 
     @Inject
-    IceNlpParser(IceParserFacade parserFacade) {
-        this.parserFacade = parserFacade;
+    IceNlpParser(Provider<IceParserFacade> parserFacade) {
+        this.parserFacade = ThreadConfined.of(parserFacade);
     }
 
     String parse(String text) {
@@ -74,6 +76,6 @@ class IceNlpParser {
     }
 
     String unsafeParse(String text) throws IOException {
-        return parserFacade.parse(text, false, true);
+        return parserFacade.get().parse(text, false, true);
     }
 }
@@ -47,6 +47,7 @@ package is.ru.openbeat.icenlp;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.discourse.*;
 import is.ru.openbeat.model.*;
@@ -64,7 +65,7 @@ class IceNlpSource implements INlpSource {
     private final IceNlpTagger tagger;
     private final IceNlpParser parser;
     private final IceNlpModelBuilder modelBuilder;
-    private final IDiscourseTagger discourseTagger;
+    private final Provider<IDiscourseTagger> discourseTagger;
     private final InformationStructureBuilder informationStructureBuilder;
     private final InformationChunker informationChunker;
     private final NounPhraseIdentifier nounPhraseIdentifier;
@@ -72,7 +73,7 @@ class IceNlpSource implements INlpSource {
 
     @Inject
     IceNlpSource(IceNlpSegmentizer segmentizer, IceNlpTagger tagger, IceNlpParser parser,
-                 IceNlpModelBuilder modelBuilder, IDiscourseTagger discourseTagger,
+                 IceNlpModelBuilder modelBuilder, Provider<IDiscourseTagger> discourseTagger,
                  InformationStructureBuilder informationStructureBuilder, InformationChunker informationChunker,
                  NounPhraseIdentifier nounPhraseIdentifier, VerbPhraseIdentifier verbPhraseIdentifier) {
         this.segmentizer = segmentizer;
@@ -89,6 +90,8 @@ class IceNlpSource implements INlpSource {
     public Utterance process(String text) {
         log.debug("Processing {}", text);
 
+        discourseTagger.get().nextUtterance();
+
         final List<Iterable<IFeatureStructure>> structure = newArrayList();
 
         final List<String> sentences = segmentizer.segmentize(text);
@@ -103,15 +106,15 @@ class IceNlpSource implements INlpSource {
         }
 
         for (Iterable<IFeatureStructure> featureStructure : structure) {
-            discourseTagger.tag(featureStructure);
+            discourseTagger.get().tag(featureStructure);
         }
 
         final List<Clause> clauses = newArrayList();
         for (Iterable<IFeatureStructure> sentenceStructure : structure) {
             final Iterable<Iterable<IFeatureStructure>> chunks = informationChunker.chunk(sentenceStructure);
             for (Iterable<IFeatureStructure> chunk : chunks) {
-                final Pair<IArticulation, IArticulation> articulations = informationStructureBuilder.buildInformationStructure(
-                    chunk);
+                final Pair<IArticulation, IArticulation> articulations =
+                    informationStructureBuilder.buildInformationStructure(chunk);
                 log.debug("Articulations: {}", articulations);
                 clauses.add(new Clause(articulations));
             }
@@ -127,7 +130,7 @@ class IceNlpSource implements INlpSource {
     }
 
     public void clearState() {
-        discourseTagger.clearState();
+        discourseTagger.get().clearState();
     }
 
     @Override
@@ -50,10 +50,12 @@ import static com.google.common.base.Join.join;
 import com.google.common.base.Nullable;
 import static com.google.common.collect.Iterables.transform;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.cs.nlp.icenlp.core.icetagger.IceTagger;
 import is.ru.cs.nlp.icenlp.core.tokenizer.IceTokenTags;
 import is.ru.cs.nlp.icenlp.core.tokenizer.Tokenizer;
+import is.ru.openbeat.pipeline.ThreadConfined;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,13 +65,13 @@ import java.io.IOException;
 class IceNlpTagger {
     private static final Logger log = LoggerFactory.getLogger(IceNlpTagger.class);
 
-    private final IceTagger tagger;
-    private final Tokenizer tokenizer;
+    private final ThreadConfined<IceTagger> tagger;
+    private final ThreadConfined<Tokenizer> tokenizer;
 
     @Inject
-    IceNlpTagger(IceTagger tagger, Tokenizer tokenizer) {
-        this.tagger = tagger;
-        this.tokenizer = tokenizer;
+    IceNlpTagger(Provider<IceTagger> tagger, Provider<Tokenizer> tokenizer) {
+        this.tagger = ThreadConfined.of(tagger);
+        this.tokenizer = ThreadConfined.of(tokenizer);
     }
 
     String tag(String sentence) {
@@ -83,11 +85,13 @@ class IceNlpTagger {
 
     String unsafeTag(String sentence) throws IOException {
         if (!"".equals(sentence)) {
+            // the tokenizer and tagger keep the tokens of the sentence, each thread tags with its own instances
+            final Tokenizer tokenizer = this.tokenizer.get();
             tokenizer.tokenize(sentence);
 
             if (!tokenizer.tokens.isEmpty()) {
                 tokenizer.splitAbbreviations();
-                tagger.tagTokens(tokenizer.tokens);
+                tagger.get().tagTokens(tokenizer.tokens);
 
                 return (join(" ", transform(tokenizer.tokens, new Function<IceTokenTags, String>() {
                     public String apply(@Nullable IceTokenTags from) {
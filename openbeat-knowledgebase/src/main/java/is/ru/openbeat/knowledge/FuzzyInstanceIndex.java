@@ -0,0 +1,296 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>FuzzyInstanceIndex</tt> finds the instance whose values are most like the words of a description when
+ * they are misspelled or inflected, such as <tt>choclates</tt> for <tt>Chocolates</tt>. The distinct words of the
+ * values are indexed by their trigrams, the three letter parts of the word padded with <tt>$</tt> at both ends. Two
+ * words are as alike as the Jaccard similarity of their trigrams, and a word of the description matches the words
+ * which are at least as alike as the threshold and share at least three trigrams with it, so short words which only
+ * share an ending, such as <tt>clue</tt> and <tt>Blue</tt>, don't match however low the threshold. Such a word shares
+ * at least the threshold times the number of trigrams of the word of the description, so it must share one of its
+ * rarer trigrams, and only the words found under those are compared. Trigrams which are common to most words, such as
+ * <tt>$th</tt>, are then never read.
+ * <p/>
+ * A matched word adds its similarity to the score of each instance which has it, weighted by how rare the word is
+ * among the instances. The most specific word of the description, the one found in the fewest instances, picks the
+ * candidates, and the more common words only rank them, so a word found in many instances doesn't make the whole
+ * knowledge base a candidate. As with the exact match, no instance is returned unless a single instance has the best
+ * score.
+ * <p/>
+ * The index keeps the positions of the instances in the list it was built from, not the instances, so it doesn't keep
+ * a version of the knowledge base from being collected.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class FuzzyInstanceIndex {
+    /** Words of the description shorter than this are left out. */
+    private static final int MIN_LENGTH = 3;
+
+    /** The fewest trigrams two words share to match. */
+    private static final int MIN_SHARED = 3;
+
+    private final int instanceCount;
+    private final String[] vocabulary;
+    private final int[] sizes;
+    private final int[][] owners;
+    private final Map<String, int[]> postings = newHashMap();
+
+    public FuzzyInstanceIndex(List<IKnowledgeInstance> instances) {
+        this.instanceCount = instances.size();
+
+        final Map<String, Integer> ids = newHashMap();
+        final List<List<Integer>> ownerLists = newArrayList();
+        final List<String> words = newArrayList();
+        for (int i = 0; i < instances.size(); i++) {
+            for (String value : instances.get(i).getAllValues()) {
+                for (String word : words(value)) {
+                    Integer id = ids.get(word);
+                    if (id == null) {
+                        id = words.size();
+                        ids.put(word, id);
+                        words.add(word);
+                        ownerLists.add(new ArrayList<Integer>());
+                    }
+                    final List<Integer> list = ownerLists.get(id);
+                    if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                        list.add(i);
+                    }
+                }
+            }
+        }
+
+        vocabulary = words.toArray(new String[words.size()]);
+        sizes = new int[words.size()];
+        owners = new int[words.size()][];
+        final Map<String, List<Integer>> postingLists = newHashMap();
+        for (int id = 0; id < words.size(); id++) {
+            owners[id] = toArray(ownerLists.get(id));
+            final Set<String> trigrams = trigrams(words.get(id));
+            sizes[id] = trigrams.size();
+            for (String trigram : trigrams) {
+                List<Integer> list = postingLists.get(trigram);
+                if (list == null) {
+                    list = newArrayList();
+                    postingLists.put(trigram, list);
+                }
+                list.add(id);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : postingLists.entrySet()) {
+            postings.put(entry.getKey(), toArray(entry.getValue()));
+        }
+    }
+
+    /**
+     * Finds the instance whose values are most like the words of a description.
+     *
+     * @param description the description
+     * @param threshold   how alike two words must be to match, from 0 to 1
+     * @return the position of the best instance in the list the index was built from, or -1 if there is no single best
+     *         one
+     */
+    public int match(String description, double threshold) {
+        final List<Map<Integer, Double>> matches = newArrayList();
+        for (String word : newHashSet(words(description))) {
+            if (word.length() >= MIN_LENGTH) {
+                final Map<Integer, Double> similar = similarWords(word, threshold);
+                if (!similar.isEmpty()) {
+                    matches.add(similar);
+                }
+            }
+        }
+        Collections.sort(matches, new Comparator<Map<Integer, Double>>() {
+            public int compare(Map<Integer, Double> o1, Map<Integer, Double> o2) {
+                return ownerCount(o1) - ownerCount(o2);
+            }
+        });
+
+        final Map<Integer, Double> scores = newHashMap();
+        for (Map<Integer, Double> similar : matches) {
+            if (scores.isEmpty()) {
+                for (Map.Entry<Integer, Double> entry : similar.entrySet()) {
+                    final double score = entry.getValue() * weight(entry.getKey());
+                    for (int instance : owners[entry.getKey()]) {
+                        final Double best = scores.get(instance);
+                        if (best == null || score > best) {
+                            scores.put(instance, score);
+                        }
+                    }
+                }
+            } else {
+                for (Map.Entry<Integer, Double> candidate : scores.entrySet()) {
+                    double best = 0;
+                    for (Map.Entry<Integer, Double> entry : similar.entrySet()) {
+                        if (Arrays.binarySearch(owners[entry.getKey()], candidate.getKey()) >= 0) {
+                            best = Math.max(best, entry.getValue() * weight(entry.getKey()));
+                        }
+                    }
+                    candidate.setValue(candidate.getValue() + best);
+                }
+            }
+        }
+
+        int best = -1;
+        double maxScore = 0;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (entry.getValue() > maxScore) {
+                best = entry.getKey();
+                maxScore = entry.getValue();
+                bestCount = 1;
+            } else if (entry.getValue() == maxScore) {
+                bestCount++;
+            }
+        }
+        return bestCount == 1 ? best : -1;
+    }
+
+    /**
+     * Finds the indexed words which share enough trigrams with a word.
+     *
+     * @return the similarity of each word, by its id
+     */
+    private Map<Integer, Double> similarWords(String word, double threshold) {
+        final Set<String> trigrams = trigrams(word);
+        final List<String> rarest = newArrayList(trigrams);
+        Collections.sort(rarest, new Comparator<String>() {
+            public int compare(String o1, String o2) {
+                return postingCount(o1) - postingCount(o2);
+            }
+        });
+
+        // a word which is alike enough shares at least this many trigrams, one of which is among the rarest
+        final int minShared = Math.max(MIN_SHARED, (int) Math.ceil(threshold * trigrams.size()));
+        final Set<Integer> candidates = newHashSet();
+        for (String trigram : rarest.subList(0, Math.max(0, rarest.size() - minShared + 1))) {
+            final int[] ids = postings.get(trigram);
+            if (ids != null) {
+                for (int id : ids) {
+                    candidates.add(id);
+                }
+            }
+        }
+
+        final Map<Integer, Double> similar = newHashMap();
+        for (int id : candidates) {
+            int count = 0;
+            for (String trigram : trigrams(vocabulary[id])) {
+                if (trigrams.contains(trigram)) {
+                    count++;
+                }
+            }
+            final double similarity = (double) count / (trigrams.size() + sizes[id] - count);
+            if (count >= minShared && similarity >= threshold) {
+                similar.put(id, similarity);
+            }
+        }
+        return similar;
+    }
+
+    private int postingCount(String trigram) {
+        final int[] ids = postings.get(trigram);
+        return ids != null ? ids.length : 0;
+    }
+
+    private int ownerCount(Map<Integer, Double> similar) {
+        int count = 0;
+        for (int id : similar.keySet()) {
+            count += owners[id].length;
+        }
+        return count;
+    }
+
+    /**
+     * The inverse document frequency of a word, a word found in fewer instances weighs more.
+     */
+    private double weight(int id) {
+        return Math.log(1 + (double) instanceCount / owners[id].length);
+    }
+
+    private static List<String> words(String value) {
+        final List<String> words = newArrayList();
+        if (value != null) {
+            for (String word : value.toLowerCase(Locale.ENGLISH).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() > 0) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> trigrams(String word) {
+        final String padded = "$" + word + "$";
+        final Set<String> trigrams = newHashSet();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
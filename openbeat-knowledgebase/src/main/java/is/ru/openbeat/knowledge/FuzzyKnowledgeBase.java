@@ -0,0 +1,191 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Class <tt>FuzzyKnowledgeBase</tt> is a knowledge base which tolerates misspelled and inflected descriptions when it
+ * looks for the best instance match. The exact match of the knowledge base it wraps is tried first, and only when it
+ * found no value at all is a {@link FuzzyInstanceIndex} of the version being read asked; a description whose values
+ * were found for several instances is ambiguous and stays unmatched. Everything else is read from the wrapped
+ * knowledge base.
+ * <p/>
+ * The index of a version is built the first time a description of it has to be matched fuzzily, not when the version
+ * is loaded or committed, and is kept until the version is collected. A version which keeps the instances of the one
+ * before it shares its index.
+ * <p/>
+ * A {@link MappedKnowledgeBase} is never matched fuzzily. Its instances are kept in the file so they don't take up the
+ * heap, and an index of all their words would; descriptions of a mapped knowledge base are matched exactly.
+ * <p/>
+ * The fuzzy match is optional and is used only when a threshold is bound to <tt>kb.fuzzy.threshold</tt>; the higher
+ * the threshold the more alike the words must be.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+@Singleton
+public class FuzzyKnowledgeBase implements IKnowledgeBase {
+    private static final Logger log = LoggerFactory.getLogger(FuzzyKnowledgeBase.class);
+
+    private final ReloadingKnowledgeBase knowledgeBase;
+    private volatile Provider<Double> threshold;
+
+    private final Map<IKnowledgeBase, FuzzyInstanceIndex> indices =
+        new WeakHashMap<IKnowledgeBase, FuzzyInstanceIndex>();
+    private List<IKnowledgeInstance> lastInstances;
+    private FuzzyInstanceIndex lastIndex;
+
+    @Inject
+    public FuzzyKnowledgeBase(ReloadingKnowledgeBase knowledgeBase) {
+        this.knowledgeBase = knowledgeBase;
+    }
+
+    /**
+     * Turns on the fuzzy match. Nothing is indexed until a description is first matched fuzzily.
+     *
+     * @param threshold how alike the words must be, from 0 to 1
+     */
+    @Inject(optional = true)
+    public void setThreshold(@Named("kb.fuzzy.threshold") Provider<Double> threshold) {
+        this.threshold = threshold;
+    }
+
+    public IKnowledgeInstance getBestInstanceMatch(String description) {
+        final IKnowledgeBase version = knowledgeBase.snapshot();
+        final InstanceMatch match = InstanceMatch.find(version, description);
+        final Provider<Double> threshold = this.threshold;
+        if (match.isFound() || threshold == null || threshold.get() == null || version instanceof MappedKnowledgeBase) {
+            return match.getInstance();
+        }
+
+        final int best = indexOf(version).match(description, threshold.get());
+        final IKnowledgeInstance fuzzy = best != -1 ? version.getAllInstances().get(best) : null;
+        log.debug("Fuzzy match for '{}': {}", description, fuzzy);
+        return fuzzy;
+    }
+
+    /**
+     * Gets the index of a version, building it if the version hasn't been indexed yet. The index of the version indexed
+     * last is shared when the instances are the same.
+     */
+    private synchronized FuzzyInstanceIndex indexOf(IKnowledgeBase version) {
+        FuzzyInstanceIndex index = indices.get(version);
+        if (index == null) {
+            final List<IKnowledgeInstance> instances = version.getAllInstances();
+            if (lastInstances != null && sameInstances(lastInstances, instances)) {
+                index = lastIndex;
+            } else {
+                log.debug("Indexing {} instances for fuzzy matching", instances.size());
+                index = new FuzzyInstanceIndex(instances);
+            }
+            indices.put(version, index);
+            lastInstances = instances;
+            lastIndex = index;
+        }
+        return index;
+    }
+
+    private static boolean sameInstances(List<IKnowledgeInstance> a, List<IKnowledgeInstance> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<IKnowledgeInstance> getAllInstances() {
+        return knowledgeBase.getAllInstances();
+    }
+
+    public List<IKnowledgeScene> getAllScenes() {
+        return knowledgeBase.getAllScenes();
+    }
+
+    public List<IKnowledgeType> getAllTypes() {
+        return knowledgeBase.getAllTypes();
+    }
+
+    public IGesture getCompactGesture(String value) {
+        return knowledgeBase.getCompactGesture(value);
+    }
+
+    public IGesture getGesture(String id) {
+        return knowledgeBase.getGesture(id);
+    }
+
+    public IKnowledgeInstance getInstance(String id) {
+        return knowledgeBase.getInstance(id);
+    }
+
+    public IKnowledgeScene getScene(String id) {
+        return knowledgeBase.getScene(id);
+    }
+
+    public IKnowledgeType getType(String name) {
+        return knowledgeBase.getType(name);
+    }
+
+    public String getSurprisingValue(IKnowledgeInstance instance) {
+        return knowledgeBase.getSurprisingValue(instance);
+    }
+
+    public boolean isObservable(String sceneId, String objectId) {
+        return knowledgeBase.isObservable(sceneId, objectId);
+    }
+}
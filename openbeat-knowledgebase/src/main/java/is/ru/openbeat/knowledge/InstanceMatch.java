@@ -0,0 +1,108 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+/**
+ * Class <tt>InstanceMatch</tt> is the outcome of looking for the best instance match of a description. Both a
+ * description in which no value was found and one whose values were found for several instances equally often have no
+ * best instance, but only the first one is worth trying again with a {@link FuzzyKnowledgeBase fuzzy} match; in the
+ * second the description is ambiguous, and a guess from misspelled words shouldn't settle it.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+final class InstanceMatch {
+    /** No value of any instance was found. */
+    static final InstanceMatch NONE = new InstanceMatch(null, false);
+
+    /** Values were found, but no single instance has the most of them. */
+    static final InstanceMatch TIE = new InstanceMatch(null, true);
+
+    private final IKnowledgeInstance instance;
+    private final boolean found;
+
+    private InstanceMatch(IKnowledgeInstance instance, boolean found) {
+        this.instance = instance;
+        this.found = found;
+    }
+
+    static InstanceMatch of(IKnowledgeInstance instance) {
+        return new InstanceMatch(instance, true);
+    }
+
+    /**
+     * Finds the best instance match of a description in a version of the knowledge base. A version which can't tell a
+     * tie from no match, which is neither a {@link KnowledgeBase} nor a {@link MappedKnowledgeBase}, reports a tie as
+     * no match.
+     *
+     * @param knowledgeBase the version
+     * @param description   the description
+     * @return the match
+     */
+    static InstanceMatch find(IKnowledgeBase knowledgeBase, String description) {
+        if (knowledgeBase instanceof KnowledgeBase) {
+            return ((KnowledgeBase) knowledgeBase).matchInstance(description);
+        }
+        if (knowledgeBase instanceof MappedKnowledgeBase) {
+            return ((MappedKnowledgeBase) knowledgeBase).matchInstance(description);
+        }
+        final IKnowledgeInstance instance = knowledgeBase.getBestInstanceMatch(description);
+        return instance != null ? of(instance) : NONE;
+    }
+
+    /**
+     * @return the best instance, or null if there is none
+     */
+    IKnowledgeInstance getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return true if a value of some instance was found, even if no single instance is the best match
+     */
+    boolean isFound() {
+        return found;
+    }
+}
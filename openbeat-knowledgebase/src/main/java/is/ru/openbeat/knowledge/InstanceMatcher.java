@@ -0,0 +1,295 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newLinkedList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>InstanceMatcher</tt> finds the instances whose attribute values occur in a description. It is an
+ * Aho-Corasick automaton built over the distinct values of all instances, so a single pass over the description finds
+ * every value it contains no matter how many instances and values the knowledge base has.
+ * <p/>
+ * A value counts once per description but as many times for an instance as the instance has it, like
+ * <tt>description.contains(value)</tt> tested for each value of the instance.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+class InstanceMatcher {
+    private static final char[] NO_LABELS = new char[0];
+
+    private final List<IKnowledgeInstance> instances;
+    private final Node root = new Node();
+
+    /**
+     * Builds the automaton for the values of the given instances.
+     *
+     * @param instances the instances of the knowledge base
+     */
+    InstanceMatcher(List<IKnowledgeInstance> instances) {
+        this.instances = newArrayList(instances);
+
+        final Map<String, List<Integer>> owners = newHashMap();
+        for (int i = 0; i < this.instances.size(); i++) {
+            for (String value : this.instances.get(i).getAllValues()) {
+                if (!value.isEmpty()) {
+                    List<Integer> list = owners.get(value);
+                    if (list == null) {
+                        owners.put(value, list = newArrayList());
+                    }
+                    list.add(i);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : owners.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+        link();
+    }
+
+    /**
+     * Finds the instance with the most values found in the description. There is no best instance if another instance
+     * has that count too, which is a {@link InstanceMatch#TIE tie}, or if no value was found.
+     *
+     * @param description the description to look for values in
+     * @return the match
+     */
+    InstanceMatch find(String description) {
+        final Set<Node> found = newHashSet();
+        Node state = root;
+        for (int i = 0; i < description.length(); i++) {
+            state = state.step(description.charAt(i));
+            for (Node node = state.output; node != null; node = node.nextOutput) {
+                found.add(node);
+            }
+        }
+
+        final Map<Integer, Integer> hits = newHashMap();
+        for (Node node : found) {
+            for (int instance : node.owners) {
+                final Integer count = hits.get(instance);
+                hits.put(instance, count != null ? count + 1 : 1);
+            }
+        }
+
+        int best = -1;
+        int maxMatches = 0;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : hits.entrySet()) {
+            final int instance = entry.getKey();
+            final int count = entry.getValue();
+            if (count > maxMatches) {
+                best = instance;
+                maxMatches = count;
+                bestCount = 1;
+            } else if (count == maxMatches) {
+                best = Math.min(best, instance);
+                bestCount++;
+            }
+        }
+
+        if (hits.isEmpty()) {
+            return InstanceMatch.NONE;
+        }
+        return bestCount == 1 ? InstanceMatch.of(instances.get(best)) : InstanceMatch.TIE;
+    }
+
+    /**
+     * Writes the automaton as flat tables for a {@link MappedKnowledgeBase}: the counts of states, transitions and
+     * owners, then seven numbers for each state, the transitions as pairs of character and state, and the owners. The
+     * states are numbered breadth first, so the root is state 0, and a missing output is -1.
+     *
+     * @param out where the tables are written
+     * @throws IOException if the tables can't be written
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        final List<Node> nodes = newArrayList();
+        nodes.add(root);
+        int transitions = 0;
+        int owners = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            node.id = i;
+            for (int j = 0; j < node.size; j++) {
+                nodes.add(node.children[j]);
+            }
+            transitions += node.size;
+            owners += node.owners != null ? node.owners.length : 0;
+        }
+
+        out.writeInt(nodes.size());
+        out.writeInt(transitions);
+        out.writeInt(owners);
+        int transition = 0;
+        int owner = 0;
+        for (Node node : nodes) {
+            final int count = node.owners != null ? node.owners.length : 0;
+            out.writeInt(transition);
+            out.writeInt(node.size);
+            out.writeInt(node.failure.id);
+            out.writeInt(node.output != null ? node.output.id : -1);
+            out.writeInt(node.nextOutput != null ? node.nextOutput.id : -1);
+            out.writeInt(owner);
+            out.writeInt(count);
+            transition += node.size;
+            owner += count;
+        }
+        for (Node node : nodes) {
+            for (int j = 0; j < node.size; j++) {
+                out.writeInt(node.labels[j]);
+                out.writeInt(node.children[j].id);
+            }
+        }
+        for (Node node : nodes) {
+            if (node.owners != null) {
+                for (int instance : node.owners) {
+                    out.writeInt(instance);
+                }
+            }
+        }
+    }
+
+    private void add(String value, List<Integer> owners) {
+        Node node = root;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            Node next = node.child(c);
+            if (next == null) {
+                next = node.addChild(c);
+            }
+            node = next;
+        }
+
+        node.owners = new int[owners.size()];
+        for (int i = 0; i < node.owners.length; i++) {
+            node.owners[i] = owners.get(i);
+        }
+    }
+
+    /**
+     * Links every node to the node of its longest proper suffix in the automaton, and to the nearest such suffix which
+     * ends a value, breadth first so the suffixes are linked before the nodes that use them.
+     */
+    private void link() {
+        final LinkedList<Node> queue = newLinkedList();
+        root.failure = root;
+        root.output = null;
+        for (int i = 0; i < root.size; i++) {
+            root.children[i].failure = root;
+            queue.add(root.children[i]);
+        }
+
+        while (!queue.isEmpty()) {
+            final Node node = queue.removeFirst();
+            node.output = node.owners != null ? node : node.failure.output;
+            node.nextOutput = node.failure.output;
+
+            for (int i = 0; i < node.size; i++) {
+                final Node child = node.children[i];
+                child.failure = node.failure.step(node.labels[i]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * A state of the automaton. The transitions are kept in arrays sorted by character, most states have only one or
+     * two of them.
+     */
+    private class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children;
+        private int size;
+        private Node failure;
+        private Node output;
+        private Node nextOutput;
+        private int[] owners;
+        private int id;
+
+        private Node child(char c) {
+            final int i = Arrays.binarySearch(labels, 0, size, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+            final int i = -Arrays.binarySearch(labels, 0, size, c) - 1;
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, size * 2));
+                children = children != null ? Arrays.copyOf(children, labels.length) : new Node[labels.length];
+            }
+            System.arraycopy(labels, i, labels, i + 1, size - i);
+            System.arraycopy(children, i, children, i + 1, size - i);
+            labels[i] = c;
+            size++;
+            return children[i] = new Node();
+        }
+
+        private Node step(char c) {
+            Node node = this;
+            while (true) {
+                final Node next = node.child(c);
+                if (next != null) {
+                    return next;
+                }
+                if (node == root) {
+                    return root;
+                }
+                node = node.failure;
+            }
+        }
+    }
+}
@@ -48,21 +48,38 @@ package is.ru.openbeat.knowledge;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
 import com.google.common.collect.Iterables;
-import static com.google.common.collect.Iterables.size;
-import static com.google.common.collect.Iterables.filter;
-import com.google.common.base.Predicate;
+import com.google.common.base.Function;
 import com.google.common.base.Nullable;
+import is.ru.openbeat.behavior.GestureBehavior;
 import static is.ru.openbeat.behavior.Arm.ArmType;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
 /**
  * Class <tt>KnowledgeBase</tt> implements a domain knowledge base for OpenBEAT.
+ * <p/>
+ * The instances, scenes and types are indexed by their id or name, and the gestures by their value regardless of case,
+ * when the knowledge base is created. Lookups by id don't depend on the size of the knowledge base. When the holder
+ * lists contain duplicate keys the first element wins, as it did when the lists were scanned. The best instance match
+ * is found by an {@link InstanceMatcher} built over the values of all instances. The knowledge base is not changed
+ * after it's created, so the surprising value of each instance is found once when it's created and kept by
+ * instance, and the compact form of each gesture is made once as an immutable gesture that is shared by all lookups.
+ * The lists it returns are read only, the knowledge base is changed by committing a {@link KnowledgeBaseTransaction}
+ * which makes a new one. The scenes each object and person is in are indexed as well, so whether an object is
+ * observable is known at once.
+ * <p/>
+ * A new version made from a previous one shares the indices of the lists the transaction didn't change, so a person
+ * walking into a scene only indexes the scenes again, not the instances, their surprising values or the gestures.
  *
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
@@ -72,9 +89,80 @@ public class KnowledgeBase implements IKnowledgeBase {
 
     private final KnowledgeBaseHolder input;
 
+    private final Map<String, IKnowledgeInstance> instances;
+    private final Map<String, IKnowledgeScene> scenes;
+    private final Map<String, IKnowledgeType> types;
+    private final Map<String, IGesture> gestures;
+    private final Map<String, IGesture> compactGestures;
+    private final Map<String, Set<String>> sceneIdsByObject;
+    private final Map<IKnowledgeInstance, String> surprises;
+    private final InstanceMatcher matcher;
+
     @Inject
     public KnowledgeBase(KnowledgeBaseHolder input) {
+        this(null, input);
+    }
+
+    /**
+     * Makes a new version of a knowledge base. The indices of the lists which are the same lists as in the previous
+     * version are shared with it, the others are built.
+     *
+     * @param previous the previous version, or null
+     * @param input    the contents of the new version
+     */
+    KnowledgeBase(KnowledgeBase previous, KnowledgeBaseHolder input) {
         this.input = input;
+        final KnowledgeBaseHolder last = previous != null ? previous.input : null;
+        final boolean sameInstances = last != null && last.getInstances() == input.getInstances();
+        final boolean sameScenes = last != null && last.getScenes() == input.getScenes();
+        final boolean sameTypes = last != null && last.getTypes() == input.getTypes();
+        final boolean sameGestures = last != null && last.getGestures() == input.getGestures();
+
+        instances = sameInstances ? previous.instances : index(input.getInstances(),
+            new Function<IKnowledgeInstance, String>() {
+                public String apply(@Nullable IKnowledgeInstance from) {
+                    return from.getId();
+                }
+            });
+        scenes = sameScenes ? previous.scenes : index(input.getScenes(), new Function<IKnowledgeScene, String>() {
+            public String apply(@Nullable IKnowledgeScene from) {
+                return from.getId();
+            }
+        });
+        types = sameTypes ? previous.types : index(input.getTypes(), new Function<IKnowledgeType, String>() {
+            public String apply(@Nullable IKnowledgeType from) {
+                return from.getName();
+            }
+        });
+        if (sameGestures) {
+            gestures = previous.gestures;
+            compactGestures = previous.compactGestures;
+        } else {
+            gestures = index(input.getGestures(), new Function<IGesture, String>() {
+                public String apply(@Nullable IGesture from) {
+                    return normalize(from.getValue());
+                }
+            });
+            final Map<String, IGesture> compact = newHashMap();
+            for (Map.Entry<String, IGesture> entry : gestures.entrySet()) {
+                compact.put(entry.getKey(), compact(entry.getValue()));
+            }
+            compactGestures = Collections.unmodifiableMap(compact);
+        }
+        matcher = sameInstances ? previous.matcher : new InstanceMatcher(input.getInstances());
+        sceneIdsByObject = sameScenes ? previous.sceneIdsByObject : indexObjects(scenes.values());
+
+        if (sameInstances && sameTypes) {
+            surprises = previous.surprises;
+        } else {
+            // find the surprising values up front, which also parses the typical ranges of the features, so the
+            // iconic behaviors only read them
+            final Map<IKnowledgeInstance, String> surprising = new IdentityHashMap<IKnowledgeInstance, String>();
+            for (IKnowledgeInstance instance : input.getInstances()) {
+                surprising.put(instance, instance.getSurprisingValue(this));
+            }
+            surprises = Collections.unmodifiableMap(surprising);
+        }
     }
 
     public KnowledgeBaseHolder getInput() {
@@ -82,15 +170,19 @@ public class KnowledgeBase implements IKnowledgeBase {
     }
 
     public List<IKnowledgeInstance> getAllInstances() {
-        return input.getInstances();
+        return Collections.unmodifiableList(input.getInstances());
     }
 
     public List<IKnowledgeScene> getAllScenes() {
-        return input.getScenes();
+        return Collections.unmodifiableList(input.getScenes());
     }
 
     public List<IKnowledgeType> getAllTypes() {
-        return input.getTypes();
+        return Collections.unmodifiableList(input.getTypes());
+    }
+
+    InstanceMatcher getMatcher() {
+        return matcher;
     }
 
     /**
@@ -101,93 +193,61 @@ public class KnowledgeBase implements IKnowledgeBase {
      * @return best knowledge instance match if it's found, else null
      */
     public IKnowledgeInstance getBestInstanceMatch(String description) {
-        log.debug("Finding best instance match for '{}'", description);
-        int maxMatches = 0;
-        final Map<IKnowledgeInstance, Integer> hits = newHashMap();
-        IKnowledgeInstance bestInstance = null;
-        for (IKnowledgeInstance instance : input.getInstances()) {
-            hits.put(instance, 0);
-            for (String value : instance.getAllValues()) {
-                log.trace("Looping over: {}", value);
-                if (!value.isEmpty() && description.contains(value)) {
-                    log.debug("{} matched the description", value);
-                    hits.put(instance, hits.get(instance) + 1);
-                }
-            }
-
-            if (hits.get(instance) > maxMatches) {
-                log.debug("Assigning new best instance match {}", instance);
-                bestInstance = instance;
-                maxMatches = hits.get(instance);
-            }
-        }
-
-        final int max = maxMatches;
-        // count the number of instances with maxMatches
-        int bestCount = size(filter(hits.values(), new Predicate<Integer>() {
-            public boolean apply(@Nullable Integer input) {
-                return input.equals(max);
-            }
-        }));
+        return matchInstance(description).getInstance();
+    }
 
-        log.debug("Best instance count: {}", bestCount);
-        log.debug("Best instance: {}", bestInstance);
-        if (bestCount < 2 && bestInstance != null) {
-            log.debug("Returning best instance {}", bestInstance);
-            return bestInstance;
-        } else {
-            return null;
-        }
+    /**
+     * Finds the best instance match for the description, telling a tie from no match.
+     *
+     * @param description is the value of the instance attribute
+     * @return the match
+     */
+    InstanceMatch matchInstance(String description) {
+        log.debug("Finding best instance match for '{}'", description);
+        final InstanceMatch match = matcher.find(description);
+        log.debug("Best instance: {}", match.getInstance());
+        return match;
     }
 
     /**
-     * Returns the gesture as a single compact gesture in a form suitable for a single behavior suggestion element.
+     * Returns the gesture as a single compact gesture in a form suitable for a single behavior suggestion element. The
+     * compact gesture is shared and immutable.
      *
      * @param value of the gesture instance
      * @return gesture if it's found, otherwise null
      */
     public IGesture getCompactGesture(String value) {
-        final IGesture gesture = getGesture(value);
-        if (gesture != null) {
-            final List<IArm> arms = gesture.getArms();
-            boolean left = false;
-            boolean right = false;
-
-            for (IArm arm : arms) {
-                if (ArmType.LEFT.equals(arm.getType())) {
-                    left = true;
-                } else if (ArmType.RIGHT.equals(arm.getType())) {
-                    right = true;
-                }
-            }
-
-            if (left && right) {
-                gesture.setGestureType(IGesture.GestureType.BOTH);
-            } else if (left && !right) {
-                gesture.setGestureType(IGesture.GestureType.LEFT);
-            } else if (right && !left) {
-                gesture.setGestureType(IGesture.GestureType.RIGHT);
-            }
-        }
-        return gesture;
+        return value != null ? compactGestures.get(normalize(value)) : null;
     }
 
     public IGesture getGesture(String id) {
-        for (IGesture gesture : input.getGestures()) {
-            if (gesture.getValue().equals(id)) {
-                return gesture;
-            }
-        }
-        return null;
+        return id != null ? gestures.get(normalize(id)) : null;
     }
 
     public IKnowledgeInstance getInstance(String id) {
-        for (IKnowledgeInstance instance : input.getInstances()) {
-            if (instance.getId().equals(id)) {
-                return instance;
-            }
+        return instances.get(id);
+    }
+
+    public IKnowledgeScene getScene(String id) {
+        return scenes.get(id);
+    }
+
+    public IKnowledgeType getType(String name) {
+        return types.get(name);
+    }
+
+    /**
+     * Returns the surprising value of the instance, which was found when the knowledge base was created for its own
+     * instances and is found again for any other instance.
+     *
+     * @param instance the instance
+     * @return the first value that is not typical for the type of the instance, null if there is none
+     */
+    public String getSurprisingValue(IKnowledgeInstance instance) {
+        if (surprises.containsKey(instance)) {
+            return surprises.get(instance);
         }
-        return null;
+        return instance.getSurprisingValue(this);
     }
 
     /**
@@ -199,16 +259,87 @@ public class KnowledgeBase implements IKnowledgeBase {
      * @return true if object is observable within scene, otherwise false
      */
     public boolean isObservable(String sceneId, String objectId) {
-        final IKnowledgeScene scene = getScene(sceneId);
-        return scene != null && scene.containsObject(objectId);
+        final Set<String> sceneIds = sceneIdsByObject.get(objectId);
+        return sceneIds != null && sceneIds.contains(sceneId);
+    }
+
+    /**
+     * Indexes the ids of the scenes each object and person is in.
+     *
+     * @param scenes the scenes, one for each id
+     * @return the ids of the scenes by the id of the object or person
+     */
+    private static Map<String, Set<String>> indexObjects(Iterable<IKnowledgeScene> scenes) {
+        final Map<String, Set<String>> index = newHashMap();
+        for (IKnowledgeScene scene : scenes) {
+            final Set<String> members = newHashSet(scene.getObjects());
+            for (IKnowledgePerson person : scene.getPersons()) {
+                members.add(person.getId());
+            }
+            for (String member : members) {
+                Set<String> sceneIds = index.get(member);
+                if (sceneIds == null) {
+                    sceneIds = newHashSet();
+                    index.put(member, sceneIds);
+                }
+                sceneIds.add(scene.getId());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Makes the compact form of the gesture, with the gesture type given by the arms it uses.
+     *
+     * @param gesture the gesture of the knowledge base
+     * @return an immutable compact gesture
+     */
+    static IGesture compact(IGesture gesture) {
+        final List<IArm> arms = gesture.getArms();
+        boolean left = false;
+        boolean right = false;
+
+        if (arms != null) {
+            for (IArm arm : arms) {
+                if (ArmType.LEFT.equals(arm.getType())) {
+                    left = true;
+                } else if (ArmType.RIGHT.equals(arm.getType())) {
+                    right = true;
+                }
+            }
+        }
+
+        IGesture.GestureType gestureType = gesture.getGestureType();
+        if (left && right) {
+            gestureType = IGesture.GestureType.BOTH;
+        } else if (left) {
+            gestureType = IGesture.GestureType.LEFT;
+        } else if (right) {
+            gestureType = IGesture.GestureType.RIGHT;
+        }
+        return GestureBehavior.immutableCopy(gesture, gestureType);
     }
 
-    private IKnowledgeScene getScene(String id) {
-        for (IKnowledgeScene scene : input.getScenes()) {
-            if (scene.getId().equals(id)) {
-                return scene;
+    /**
+     * Indexes the elements by the given key, keeping the first element of each key. Elements without a key are left
+     * out of the index.
+     *
+     * @param elements the elements of the knowledge base
+     * @param key      gets the key of an element
+     * @return an unmodifiable index from key to element
+     */
+    private static <T> Map<String, T> index(List<T> elements, Function<T, String> key) {
+        final Map<String, T> index = newHashMap();
+        for (T element : elements) {
+            final String k = key.apply(element);
+            if (k != null && !index.containsKey(k)) {
+                index.put(k, element);
             }
         }
-        return null;
+        return Collections.unmodifiableMap(index);
+    }
+
+    static String normalize(String value) {
+        return value != null ? value.toUpperCase(Locale.ENGLISH) : null;
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import com.google.common.base.Function;
+import is.ru.openbeat.pipeline.IService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <tt>KnowledgeBaseReloader</tt> watches the file of a knowledge base and publishes a new version to a {@link
+ * ReloadingKnowledgeBase} when the file changes. The file is checked on a daemon thread, which also parses it and
+ * builds the new knowledge base, so the utterances in progress are never held up. A file which can't be parsed is
+ * logged and the previous version is kept.
+ * <p/>
+ * The reloader is a {@link IService service}, it's started and stopped with the application.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class KnowledgeBaseReloader implements IService {
+    private static final Logger log = LoggerFactory.getLogger(KnowledgeBaseReloader.class);
+
+    /** How often the file is checked, in milliseconds. */
+    public static final long INTERVAL = 2000;
+
+    private final File file;
+    private final ReloadingKnowledgeBase knowledgeBase;
+    private final Function<Reader, KnowledgeBaseHolder> parser;
+    private ScheduledExecutorService executor;
+
+    private long lastModified;
+    private long length;
+
+    /**
+     * @param file          the file of the knowledge base
+     * @param knowledgeBase where new versions are published
+     * @param parser        parses the file into a holder
+     */
+    public KnowledgeBaseReloader(File file, ReloadingKnowledgeBase knowledgeBase,
+                                 Function<Reader, KnowledgeBaseHolder> parser) {
+        this.file = file;
+        this.knowledgeBase = knowledgeBase;
+        this.parser = parser;
+        this.lastModified = file.lastModified();
+        this.length = file.length();
+    }
+
+    /** Starts checking the file for changes. */
+    public synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "kb-reloader");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    check();
+                }
+            }, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+            log.debug("Watching {} for changes", file);
+        }
+    }
+
+    /** Stops checking the file for changes. */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Reloads the knowledge base if the file was modified or changed its length since it was last read. A missing file
+     * is not a change.
+     */
+    void check() {
+        final long modified = file.lastModified();
+        final long size = file.length();
+        if (modified != 0 && (modified != lastModified || size != length)) {
+            lastModified = modified;
+            length = size;
+            reload();
+        }
+    }
+
+    /**
+     * Parses the file and publishes it as the latest version of the knowledge base.
+     *
+     * @return true if a new version was published, false if the file could not be read or parsed
+     */
+    public boolean reload() {
+        log.info("Reloading the knowledge base from {}", file);
+        try {
+            final Reader reader = new FileReader(file);
+            try {
+                knowledgeBase.publish(new KnowledgeBase(parser.apply(reader)));
+                return true;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not read " + file + ", keeping the previous knowledge base", e);
+        } catch (RuntimeException e) {
+            log.warn("Could not load " + file + ", keeping the previous knowledge base", e);
+        }
+        return false;
+    }
+}
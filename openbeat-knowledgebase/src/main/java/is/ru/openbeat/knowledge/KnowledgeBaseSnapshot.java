@@ -0,0 +1,385 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import is.ru.openbeat.behavior.Arm;
+import is.ru.openbeat.behavior.GestureBehavior;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Class <tt>KnowledgeBaseSnapshot</tt> stores the contents of a {@link KnowledgeBaseHolder} in a binary file, so the
+ * knowledge base can be loaded at startup without parsing its source. Every string is stored once in a dictionary and
+ * referred to by its index, and a snapshot is memory mapped and decoded without any reflection.
+ * <p/>
+ * A snapshot records the version of its format along with the length and CRC32 checksum of the source it was compiled
+ * from, and it's only {@link #readIfFresh(File) read} while it still matches the source, else the source is parsed as
+ * before. The indices of the knowledge base are hash maps which {@link KnowledgeBase} builds in a single pass over the
+ * lists, so they are not stored.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public final class KnowledgeBaseSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(KnowledgeBaseSnapshot.class);
+
+    /** The version of the format, snapshots of other versions are not read. */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x4F424B42;
+    private static final int NULL = -1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private KnowledgeBaseSnapshot() {
+    }
+
+    /**
+     * Gets the file of the snapshot compiled from a source, which is kept next to it.
+     *
+     * @param source the source of the knowledge base
+     * @return the snapshot file
+     */
+    public static File fileFor(File source) {
+        return new File(source.getPath() + ".snapshot");
+    }
+
+    /**
+     * Writes the contents of the holder to a snapshot of the source. The snapshot is written to a temporary file which
+     * then replaces the old snapshot, so a snapshot is never read half written.
+     *
+     * @param holder the contents of the knowledge base, parsed from the content of <tt>source</tt>
+     * @param source the source of the knowledge base, as it was parsed
+     * @throws IOException if the snapshot can't be written
+     */
+    public static void write(KnowledgeBaseHolder holder, KnowledgeBaseSource source) throws IOException {
+        final Encoder encoder = new Encoder();
+        encoder.writeHolder(holder);
+
+        final File snapshot = fileFor(source.getFile());
+        final File temporary = new File(snapshot.getPath() + ".tmp");
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.checksum());
+            out.writeInt(encoder.strings.size());
+            for (String string : encoder.strings) {
+                final byte[] bytes = string.getBytes(UTF8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            encoder.body.writeTo(out);
+        } finally {
+            out.close();
+        }
+
+        if ((snapshot.exists() && !snapshot.delete()) || !temporary.renameTo(snapshot)) {
+            throw new IOException("Could not replace " + snapshot);
+        }
+        log.info("Wrote a snapshot of {} to {}", source.getFile(), snapshot);
+    }
+
+    /**
+     * Reads the snapshot of a source if it was compiled from the source as it is now.
+     *
+     * @param source the source of the knowledge base
+     * @return the contents of the knowledge base, or null if there is no snapshot, it's stale or it can't be read
+     */
+    public static KnowledgeBaseHolder readIfFresh(File source) {
+        final File snapshot = fileFor(source);
+        if (!source.isFile() || !snapshot.isFile()) {
+            return null;
+        }
+
+        try {
+            final ByteBuffer buffer = map(snapshot);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.info("{} is not a snapshot of version {}, parsing {}", new Object[]{snapshot, VERSION, source});
+                return null;
+            }
+            if (buffer.getLong() != source.length() || buffer.getLong() != checksum(source)) {
+                log.info("{} is stale, parsing {}", snapshot, source);
+                return null;
+            }
+            final KnowledgeBaseHolder holder = new Decoder(buffer).readHolder();
+            log.debug("Read the knowledge base from {}", snapshot);
+            return holder;
+        } catch (IOException e) {
+            log.warn("Could not read " + snapshot + ", parsing " + source, e);
+        } catch (BufferUnderflowException e) {
+            log.warn("{} is truncated, parsing {}", snapshot, source);
+        } catch (RuntimeException e) {
+            log.warn("Could not decode " + snapshot + ", parsing " + source, e);
+        }
+        return null;
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        final FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    static long checksum(File file) throws IOException {
+        final CRC32 crc = new CRC32();
+        final InputStream in = new FileInputStream(file);
+        try {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Encodes the contents of a holder, collecting the dictionary of strings on the way.
+     */
+    private static class Encoder {
+        private final List<String> strings = newArrayList();
+        private final Map<String, Integer> indices = newHashMap();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        void writeHolder(KnowledgeBaseHolder holder) throws IOException {
+            out.writeInt(holder.getTypes().size());
+            for (IKnowledgeType type : holder.getTypes()) {
+                writeString(type.getName());
+                writeString(type.getKlass());
+                out.writeInt(type.getFeatures().size());
+                for (IKnowledgeFeature feature : type.getFeatures()) {
+                    writeString(feature.getName());
+                    writeString(feature.getTypical());
+                    writeEnum(feature.getType());
+                }
+            }
+
+            out.writeInt(holder.getInstances().size());
+            for (IKnowledgeInstance instance : holder.getInstances()) {
+                writeString(instance.getInstanceOf());
+                writeString(instance.getId());
+                // the values are read through getValue as Yaml may have parsed some of them as numbers
+                out.writeInt(instance.getAttributes().size());
+                for (Object name : instance.getAttributes().keySet()) {
+                    writeString(String.valueOf(name));
+                    writeString(instance.getValue(String.valueOf(name)));
+                }
+            }
+
+            out.writeInt(holder.getScenes().size());
+            for (IKnowledgeScene scene : holder.getScenes()) {
+                writeString(scene.getId());
+                out.writeInt(scene.getObjects().size());
+                for (String object : scene.getObjects()) {
+                    writeString(object);
+                }
+                out.writeInt(scene.getPersons().size());
+                for (IKnowledgePerson person : scene.getPersons()) {
+                    writeString(person.getId());
+                    writeEnum(person.getRole());
+                }
+            }
+
+            out.writeInt(holder.getGestures().size());
+            for (IGesture gesture : holder.getGestures()) {
+                writeString(gesture.getType());
+                writeString(gesture.getValue());
+                out.writeBoolean(gesture.getPriority() != null);
+                out.writeInt(gesture.getPriority() != null ? gesture.getPriority() : 0);
+                writeEnum(gesture.getGestureType());
+                final List<IArm> arms = gesture.getArms();
+                out.writeInt(arms != null ? arms.size() : NULL);
+                if (arms != null) {
+                    for (IArm arm : arms) {
+                        writeString(arm.getHandshape());
+                        writeString(arm.getTrajectory());
+                        writeEnum(arm.getType());
+                    }
+                }
+            }
+            out.flush();
+        }
+
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                out.writeInt(NULL);
+                return;
+            }
+            Integer index = indices.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                indices.put(string, index);
+            }
+            out.writeInt(index);
+        }
+
+        private void writeEnum(Enum<?> value) throws IOException {
+            out.writeByte(value != null ? value.ordinal() : NULL);
+        }
+    }
+
+    /**
+     * Decodes the contents of a holder from a buffer positioned at the dictionary of strings.
+     */
+    private static class Decoder {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, UTF8);
+            }
+        }
+
+        KnowledgeBaseHolder readHolder() {
+            final List<IKnowledgeType> types = newArrayList();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                final String name = readString();
+                final String klass = readString();
+                final List<IKnowledgeFeature> features = newArrayList();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    features.add(new KnowledgeFeature(readString(), readString(),
+                        readEnum(IKnowledgeFeature.FeatureType.values())));
+                }
+                types.add(new KnowledgeType(name, klass, features));
+            }
+
+            final List<IKnowledgeInstance> instances = newArrayList();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                final String instanceOf = readString();
+                final String id = readString();
+                final Map<String, String> attributes = newLinkedHashMap();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    attributes.put(readString(), readString());
+                }
+                instances.add(new KnowledgeInstance(instanceOf, id, attributes));
+            }
+
+            final List<IKnowledgeScene> scenes = newArrayList();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                final String id = readString();
+                final List<String> objects = newArrayList();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    objects.add(readString());
+                }
+                final List<IKnowledgePerson> persons = newArrayList();
+                for (int j = buffer.getInt(); j > 0; j--) {
+                    persons.add(new KnowledgePerson(readString(), readEnum(IKnowledgePerson.Role.values())));
+                }
+                final KnowledgeScene scene = new KnowledgeScene(id, objects);
+                scene.setPersons(persons);
+                scenes.add(scene);
+            }
+
+            final List<IGesture> gestures = newArrayList();
+            for (int i = buffer.getInt(); i > 0; i--) {
+                final String type = readString();
+                final String value = readString();
+                final boolean hasPriority = buffer.get() != 0;
+                final int priority = buffer.getInt();
+                final IGesture.GestureType gestureType = readEnum(IGesture.GestureType.values());
+                List<IArm> arms = null;
+                final int count = buffer.getInt();
+                if (count != NULL) {
+                    arms = newArrayList();
+                    for (int j = count; j > 0; j--) {
+                        arms.add(new Arm(readString(), readString(), readEnum(IArm.ArmType.values())));
+                    }
+                }
+                final GestureBehavior gesture = new GestureBehavior(type, value, arms, gestureType);
+                gesture.setPriority(hasPriority ? priority : null);
+                gestures.add(gesture);
+            }
+
+            final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+            holder.setTypes(types);
+            holder.setInstances(instances);
+            holder.setScenes(scenes);
+            holder.setGestures(gestures);
+            return holder;
+        }
+
+        private String readString() {
+            final int index = buffer.getInt();
+            return index != NULL ? strings[index] : null;
+        }
+
+        private <E extends Enum<E>> E readEnum(E[] values) {
+            final byte ordinal = buffer.get();
+            return ordinal != NULL ? values[ordinal] : null;
+        }
+    }
+}
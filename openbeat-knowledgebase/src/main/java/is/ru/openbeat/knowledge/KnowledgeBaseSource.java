@@ -0,0 +1,130 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.zip.CRC32;
+
+/**
+ * Class <tt>KnowledgeBaseSource</tt> is the content of the source file of a knowledge base, read once. The knowledge
+ * base is parsed from the {@link #reader() content} and the length and checksum recorded by a {@link
+ * KnowledgeBaseSnapshot snapshot} or a {@link MappedKnowledgeBase mapped} knowledge base are those of the same bytes,
+ * so a change to the file while it's being compiled makes the compiled file stale instead of passing it off as fresh.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public final class KnowledgeBaseSource {
+    private final File file;
+    private final byte[] content;
+
+    private KnowledgeBaseSource(File file, byte[] content) {
+        this.file = file;
+        this.content = content;
+    }
+
+    /**
+     * Reads the content of a source file.
+     *
+     * @param file the source of the knowledge base
+     * @return the source with its content
+     * @throws IOException if the file can't be read
+     */
+    public static KnowledgeBaseSource read(File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            byte[] content = new byte[(int) Math.max(file.length(), 16)];
+            int length = 0;
+            int n;
+            while ((n = in.read(content, length, content.length - length)) != -1) {
+                length += n;
+                if (length == content.length) {
+                    final byte[] grown = new byte[content.length * 2];
+                    System.arraycopy(content, 0, grown, 0, length);
+                    content = grown;
+                }
+            }
+            final byte[] read = new byte[length];
+            System.arraycopy(content, 0, read, 0, length);
+            return new KnowledgeBaseSource(file, read);
+        } finally {
+            in.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets a reader of the content, in the default encoding like a {@link java.io.FileReader} of the file.
+     *
+     * @return a reader of the content
+     */
+    public Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(content));
+    }
+
+    public long length() {
+        return content.length;
+    }
+
+    /**
+     * Gets the CRC32 checksum of the content.
+     *
+     * @return the checksum
+     */
+    public long checksum() {
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+}
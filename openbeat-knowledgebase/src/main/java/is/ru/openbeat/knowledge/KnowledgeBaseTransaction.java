@@ -0,0 +1,336 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class <tt>KnowledgeBaseTransaction</tt> is a batch of changes to the knowledge base which is {@link
+ * ReloadingKnowledgeBase#commit(KnowledgeBaseTransaction) committed} as a whole while the characters run, for example
+ * when an object is picked up or a person walks into a scene. The changes are made to a copy of the contents of the
+ * latest version: a list is copied when it's first changed, the lists and elements which don't change are shared with
+ * the latest version and a scene which changes is replaced by a new scene, so the versions being read are never
+ * changed. The new version shares the indices of the lists which weren't changed, see {@link KnowledgeBase}.
+ * <p/>
+ * The instances are looked up by id in the index of the latest version and in the few instances added and removed by
+ * the transaction, so a change costs the same however many instances there are. The list of instances is copied once,
+ * after all the changes are applied.
+ * <p/>
+ * A transaction only records the changes, which are applied in order when it's committed. If a change can't be
+ * applied none of them is.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class KnowledgeBaseTransaction {
+    private final List<Change> changes = newArrayList();
+
+    /**
+     * Adds an instance.
+     *
+     * @param instance the instance, whose id must not be in use
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction addInstance(final IKnowledgeInstance instance) {
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                if (contents.instance(instance.getId()) != null) {
+                    throw new IllegalArgumentException("There is already an instance " + instance.getId());
+                }
+                contents.addedInstances.put(instance.getId(), instance);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Removes an instance. The scenes are not changed, an object which is removed from a scene is {@link
+     * #moveObject(String, String, String) moved} out of it.
+     *
+     * @param id the id of the instance
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction removeInstance(final String id) {
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                if (contents.instance(id) == null) {
+                    throw new IllegalArgumentException("There is no instance " + id);
+                }
+                if (contents.addedInstances.remove(id) == null) {
+                    contents.removedInstances.add(id);
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Moves an object from one scene to another. An object enters a scene from nowhere when <tt>fromSceneId</tt> is
+     * null and leaves it for nowhere, such as when it's picked up, when <tt>toSceneId</tt> is null.
+     *
+     * @param objectId    the object
+     * @param fromSceneId the scene the object is in, or null
+     * @param toSceneId   the scene the object is moved to, or null
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction moveObject(final String objectId, final String fromSceneId,
+                                               final String toSceneId) {
+        if (fromSceneId == null && toSceneId == null) {
+            throw new IllegalArgumentException("An object is moved from or to a scene");
+        }
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                if (fromSceneId != null && !contents.scene(fromSceneId).getObjects().remove(objectId)) {
+                    throw new IllegalArgumentException("There is no object " + objectId + " in " + fromSceneId);
+                }
+                if (toSceneId != null) {
+                    final List<String> objects = contents.scene(toSceneId).getObjects();
+                    if (!objects.contains(objectId)) {
+                        objects.add(objectId);
+                    }
+                }
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Adds a person to a scene.
+     *
+     * @param sceneId the scene
+     * @param person  the person, who must not be in the scene
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction addPerson(final String sceneId, final IKnowledgePerson person) {
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                final KnowledgeScene scene = contents.scene(sceneId);
+                if (indexOfPerson(scene, person.getId()) != -1) {
+                    throw new IllegalArgumentException(
+                        "There is already a person " + person.getId() + " in " + sceneId);
+                }
+                scene.getPersons().add(person);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Removes a person from a scene.
+     *
+     * @param sceneId  the scene
+     * @param personId the id of the person
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction removePerson(final String sceneId, final String personId) {
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                final KnowledgeScene scene = contents.scene(sceneId);
+                final int index = indexOfPerson(scene, personId);
+                if (index == -1) {
+                    throw new IllegalArgumentException("There is no person " + personId + " in " + sceneId);
+                }
+                scene.getPersons().remove(index);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Adds a gesture.
+     *
+     * @param gesture the gesture, whose value must not be in use regardless of case
+     * @return this transaction
+     */
+    public KnowledgeBaseTransaction addGesture(final IGesture gesture) {
+        changes.add(new Change() {
+            public void apply(Contents contents) {
+                final String value = KnowledgeBase.normalize(gesture.getValue());
+                for (IGesture existing : contents.gestures) {
+                    if (value != null && value.equals(KnowledgeBase.normalize(existing.getValue()))) {
+                        throw new IllegalArgumentException("There is already a gesture " + gesture.getValue());
+                    }
+                }
+                contents.changeGestures().add(gesture);
+            }
+        });
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Applies the changes to a copy of the contents of a knowledge base, making a new version which shares the lists
+     * that didn't change and their indices.
+     *
+     * @param knowledgeBase the knowledge base, which is not changed
+     * @return the new version
+     * @throws IllegalArgumentException if a change can't be applied
+     */
+    KnowledgeBase applyTo(KnowledgeBase knowledgeBase) {
+        final KnowledgeBaseHolder holder = knowledgeBase.getInput();
+        final Contents contents = new Contents(knowledgeBase);
+        for (Change change : changes) {
+            change.apply(contents);
+        }
+
+        final KnowledgeBaseHolder changed = new KnowledgeBaseHolder();
+        changed.setTypes(holder.getTypes());
+        changed.setInstances(contents.instancesChanged() ?
+            Collections.unmodifiableList(contents.instances()) : holder.getInstances());
+        changed.setScenes(contents.scenes != holder.getScenes() ?
+            Collections.unmodifiableList(contents.scenes) : holder.getScenes());
+        changed.setGestures(contents.gestures != holder.getGestures() ?
+            Collections.unmodifiableList(contents.gestures) : holder.getGestures());
+        return new KnowledgeBase(knowledgeBase, changed);
+    }
+
+    private static int indexOfPerson(IKnowledgeScene scene, String personId) {
+        final List<IKnowledgePerson> persons = scene.getPersons();
+        for (int i = 0; i < persons.size(); i++) {
+            if (persons.get(i).getId().equals(personId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private interface Change {
+        void apply(Contents contents);
+    }
+
+    /**
+     * The contents being changed, the lists of a holder until they are first changed and copies of them after that. The
+     * instances are kept as the instances added and the ids removed until the changes are done.
+     */
+    private static class Contents {
+        private final KnowledgeBase knowledgeBase;
+        private final KnowledgeBaseHolder holder;
+        private final Map<String, IKnowledgeInstance> addedInstances = newLinkedHashMap();
+        private final Set<String> removedInstances = newHashSet();
+        private List<IKnowledgeScene> scenes;
+        private List<IGesture> gestures;
+        private final Map<String, KnowledgeScene> copiedScenes = newHashMap();
+
+        private Contents(KnowledgeBase knowledgeBase) {
+            this.knowledgeBase = knowledgeBase;
+            holder = knowledgeBase.getInput();
+            scenes = holder.getScenes();
+            gestures = holder.getGestures();
+        }
+
+        /**
+         * Gets an instance as the changes so far have left it.
+         */
+        private IKnowledgeInstance instance(String id) {
+            final IKnowledgeInstance added = addedInstances.get(id);
+            if (added != null || removedInstances.contains(id)) {
+                return added;
+            }
+            return knowledgeBase.getInstance(id);
+        }
+
+        private boolean instancesChanged() {
+            return !addedInstances.isEmpty() || !removedInstances.isEmpty();
+        }
+
+        /**
+         * Gets the instances of the holder which weren't removed, followed by the instances added.
+         */
+        private List<IKnowledgeInstance> instances() {
+            final List<IKnowledgeInstance> instances = newArrayList();
+            for (IKnowledgeInstance instance : holder.getInstances()) {
+                final String id = instance.getId();
+                if (!removedInstances.contains(id) || knowledgeBase.getInstance(id) != instance) {
+                    instances.add(instance);
+                }
+            }
+            instances.addAll(addedInstances.values());
+            return instances;
+        }
+
+        private List<IGesture> changeGestures() {
+            if (gestures == holder.getGestures()) {
+                gestures = newArrayList(gestures);
+            }
+            return gestures;
+        }
+
+        /**
+         * Gets a scene which may be changed, which is a copy of the scene of the holder the first time it's asked for.
+         */
+        private KnowledgeScene scene(String id) {
+            KnowledgeScene copy = copiedScenes.get(id);
+            if (copy == null) {
+                for (int i = 0; i < scenes.size() && copy == null; i++) {
+                    final IKnowledgeScene scene = scenes.get(i);
+                    if (id.equals(scene.getId())) {
+                        copy = new KnowledgeScene(id, newArrayList(scene.getObjects()));
+                        copy.setPersons(newArrayList(scene.getPersons()));
+                        if (scenes == holder.getScenes()) {
+                            scenes = newArrayList(scenes);
+                        }
+                        scenes.set(i, copy);
+                    }
+                }
+                if (copy == null) {
+                    throw new IllegalArgumentException("There is no scene " + id);
+                }
+                copiedScenes.put(id, copy);
+            }
+            return copy;
+        }
+    }
+}
@@ -48,7 +48,9 @@ package is.ru.openbeat.knowledge;
 import java.util.StringTokenizer;
 
 /**
- * Class <tt>KnowledgeFeature</tt> withholds attributes of the <tt>KnowledgeType</tt>
+ * Class <tt>KnowledgeFeature</tt> withholds attributes of the <tt>KnowledgeType</tt>. The typical range of a
+ * <tt>NUM</tt> feature, either a single number or <tt>min-max</tt>, is parsed the first time it's needed and kept until
+ * the typical value or the type changes.
  *
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
@@ -56,6 +58,7 @@ public class KnowledgeFeature implements IKnowledgeFeature {
     private String name;
     private String typical;
     private FeatureType type;
+    private transient Range range;
 
     public KnowledgeFeature() {
     }
@@ -80,6 +83,7 @@ public class KnowledgeFeature implements IKnowledgeFeature {
 
     public void setTypical(String typical) {
         this.typical = typical;
+        range = null;
     }
 
     public FeatureType getType() {
@@ -88,6 +92,7 @@ public class KnowledgeFeature implements IKnowledgeFeature {
 
     public void setType(FeatureType type) {
         this.type = type;
+        range = null;
     }
 
     /**
@@ -98,7 +103,7 @@ public class KnowledgeFeature implements IKnowledgeFeature {
      */
     public boolean isTypical(String value) {
         if (IKnowledgeFeature.FeatureType.SYM.equals(type)) {
-            if (typical.isEmpty()) {
+            if (typical == null || typical.isEmpty()) {
                 return false;
             } else if ("any".equals(typical)) {
                 return true;
@@ -106,18 +111,16 @@ public class KnowledgeFeature implements IKnowledgeFeature {
                 return true;
             }
         } else if (IKnowledgeFeature.FeatureType.NUM.equals(type)) {
-            final StringTokenizer tokenizer = new StringTokenizer(value, "-");
-            final String first = tokenizer.nextToken();
-            String last = first;
-            if (tokenizer.hasMoreTokens()) {
-                last = tokenizer.nextToken();
+            Range range = this.range;
+            if (range == null) {
+                this.range = range = Range.parse(typical);
             }
-            final double minValue = Double.valueOf(first);
-            final double maxValue = Double.valueOf(last);
-            final double dValue = Double.valueOf(value);
-
-            if (dValue >= minValue && dValue <= maxValue) {
-                return true;
+            if (value != null) {
+                try {
+                    return range.contains(Double.valueOf(value));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
             }
         }
         return false;
@@ -153,4 +156,37 @@ public class KnowledgeFeature implements IKnowledgeFeature {
             ", type=" + type +
             '}';
     }
+
+    private static class Range {
+        /** The range of a typical value which isn't a number, contains no values. */
+        private static final Range NONE = new Range(Double.NaN, Double.NaN);
+
+        private final double minValue;
+        private final double maxValue;
+
+        private Range(double minValue, double maxValue) {
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+
+        private static Range parse(String typical) {
+            if (typical != null) {
+                final StringTokenizer tokenizer = new StringTokenizer(typical, "-");
+                if (tokenizer.hasMoreTokens()) {
+                    final String first = tokenizer.nextToken();
+                    final String last = tokenizer.hasMoreTokens() ? tokenizer.nextToken() : first;
+                    try {
+                        return new Range(Double.valueOf(first), Double.valueOf(last));
+                    } catch (NumberFormatException e) {
+                        return NONE;
+                    }
+                }
+            }
+            return NONE;
+        }
+
+        private boolean contains(double value) {
+            return value >= minValue && value <= maxValue;
+        }
+    }
 }
\ No newline at end of file
@@ -127,17 +127,17 @@ public class KnowledgeInstance implements IKnowledgeInstance {
     }
 
     /**
-     * Returns the first value that is not typical for an instance of this type
+     * Returns the first value that is not typical for an instance of this type. The value is found each time, a
+     * knowledge base keeps the values of its own instances, see {@link IKnowledgeBase#getSurprisingValue}.
      *
      * @param knowledgeBase the knowledge base used
      */
     public String getSurprisingValue(IKnowledgeBase knowledgeBase) {
-        for (IKnowledgeType type : knowledgeBase.getAllTypes()) {
-            if (type.getName().equals(instanceOf)) {
-                for (IKnowledgeFeature feature : type.getFeatures()) {
-                    if (!feature.isTypical(getValue(feature.getName()))) {
-                        return getValue(feature.getName());
-                    }
+        final IKnowledgeType type = knowledgeBase.getType(instanceOf);
+        if (type != null) {
+            for (IKnowledgeFeature feature : type.getFeatures()) {
+                if (!feature.isTypical(getValue(feature.getName()))) {
+                    return getValue(feature.getName());
                 }
             }
         }
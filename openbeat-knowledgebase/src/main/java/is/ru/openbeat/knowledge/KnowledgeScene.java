@@ -51,11 +51,19 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Class <tt>KnowledgeScene</tt> withholds attributes of the scene element in the knowledge base
+ * <p/>
+ * The ids of the objects and persons are kept in a set, and the participants in a list, the first time they are asked
+ * for, so a scene with thousands of objects is checked in constant time. They are made again when the objects or
+ * persons are set, but not when the lists are changed in place, which is why a scene of a knowledge base is changed by
+ * a {@link KnowledgeBaseTransaction} that makes a new scene.
  *
  * @author gudleifur05@ru.is (Guðleifur Kristjánsson)
  */
@@ -63,6 +71,7 @@ public class KnowledgeScene implements IKnowledgeScene {
     private String id;
     private List<String> objects = newArrayList();
     private List<IKnowledgePerson> persons = newArrayList();
+    private transient volatile Members members;
 
     public KnowledgeScene() {
     }
@@ -86,6 +95,7 @@ public class KnowledgeScene implements IKnowledgeScene {
 
     public void setObjects(List<String> objects) {
         this.objects = objects;
+        members = null;
     }
 
     public List<IKnowledgePerson> getPersons() {
@@ -94,28 +104,27 @@ public class KnowledgeScene implements IKnowledgeScene {
 
     public void setPersons(List<IKnowledgePerson> persons) {
         this.persons = persons;
+        members = null;
     }
 
     public boolean containsObject(String value) {
-        if (objects.contains(value)) {
-            return true;
-        }
-
-        for (IKnowledgePerson person : persons) {
-            if (person.getId().equals(value)) {
-                return true;
-            }
-        }
-
-        return false;
+        return members().ids.contains(value);
     }
 
+    /**
+     * Returns the participants of the scene, the list is shared and read only.
+     */
     public List<IKnowledgePerson> getParticipants() {
-        return newArrayList(filter(persons, new Predicate<IKnowledgePerson>() {
-            public boolean apply(@Nullable IKnowledgePerson input) {
-                return IKnowledgePerson.Role.PARTICIPANT.equals(input.getRole());
-            }
-        }));
+        return members().participants;
+    }
+
+    private Members members() {
+        Members members = this.members;
+        if (members == null) {
+            members = new Members(objects, persons);
+            this.members = members;
+        }
+        return members;
     }
 
     @Override
@@ -139,4 +148,26 @@ public class KnowledgeScene implements IKnowledgeScene {
     public String toString() {
         return id;
     }
+
+    /**
+     * The ids of the objects and persons of a scene, and its participants.
+     */
+    private static class Members {
+        private final Set<String> ids;
+        private final List<IKnowledgePerson> participants;
+
+        private Members(List<String> objects, List<IKnowledgePerson> persons) {
+            final Set<String> ids = newHashSet(objects);
+            for (IKnowledgePerson person : persons) {
+                ids.add(person.getId());
+            }
+            this.ids = ids;
+            participants = Collections.unmodifiableList(newArrayList(filter(persons,
+                new Predicate<IKnowledgePerson>() {
+                    public boolean apply(@Nullable IKnowledgePerson input) {
+                        return IKnowledgePerson.Role.PARTICIPANT.equals(input.getRole());
+                    }
+                })));
+        }
+    }
 }
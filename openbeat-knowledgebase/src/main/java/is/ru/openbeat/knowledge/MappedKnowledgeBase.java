@@ -0,0 +1,822 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import is.ru.openbeat.behavior.Arm;
+import is.ru.openbeat.behavior.GestureBehavior;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class <tt>MappedKnowledgeBase</tt> is a knowledge base kept in a memory mapped file instead of on the heap, for
+ * catalogues of millions of instances. The instances, their attributes and the gestures are tables of numbers which
+ * refer to a dictionary of strings, and the lookups by id and by gesture value are open addressing hash tables in the
+ * same file, along with the automaton of the {@link InstanceMatcher} for the best instance match. An instance is a read
+ * only view of its row, created when it's asked for, so the heap used doesn't grow with the number of instances. The
+ * types and scenes are few and are read onto the heap when the file is opened. For the same reason a description is
+ * only matched exactly; the {@link FuzzyKnowledgeBase fuzzy} match isn't used for a mapped knowledge base.
+ * <p/>
+ * The file is written next to the source of a knowledge base by {@link #write(KnowledgeBaseHolder,
+ * KnowledgeBaseSource)}, which also finds the surprising value of every instance up front, and mapped by {@link
+ * #openIfFresh(File)}. Like a {@link KnowledgeBaseSnapshot snapshot} it records the length and checksum of the source
+ * it was parsed from, and isn't used once the source has changed. It can be at most 2 GB.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class MappedKnowledgeBase implements IKnowledgeBase {
+    private static final Logger log = LoggerFactory.getLogger(MappedKnowledgeBase.class);
+
+    /** The version of the format, files of other versions are not opened. */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x4F424B4D;
+    private static final int HEADER = 24;
+    private static final int NULL = -1;
+    private static final int NO_PRIORITY = Integer.MIN_VALUE;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int STRINGS = 0;
+    private static final int INSTANCES = 1;
+    private static final int ATTRIBUTES = 2;
+    private static final int INSTANCE_INDEX = 3;
+    private static final int GESTURES = 4;
+    private static final int ARMS = 5;
+    private static final int GESTURE_INDEX = 6;
+    private static final int MATCHER = 7;
+    private static final int ELEMENTS = 8;
+    private static final int SECTIONS = 9;
+
+    /** instanceOf, id, first attribute, number of attributes and surprising value. */
+    private static final int INSTANCE_ROW = 5;
+    /** type, value, normalized value, priority, gesture type, compact gesture type, first arm and number of arms. */
+    private static final int GESTURE_ROW = 8;
+    /** handshape, trajectory and arm type. */
+    private static final int ARM_ROW = 3;
+    /** first transition, number of transitions, failure, output, next output, first owner and number of owners. */
+    private static final int STATE_ROW = 7;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int stringData;
+    private final int instanceCount;
+    private final int instances;
+    private final int attributes;
+    private final int instanceIndex;
+    private final int instanceMask;
+    private final int gestures;
+    private final int arms;
+    private final int gestureIndex;
+    private final int gestureMask;
+    private final AtomicReferenceArray<IGesture> decodedGestures;
+    private final int states;
+    private final int transitions;
+    private final int owners;
+
+    private final List<IKnowledgeType> types = newArrayList();
+    private final List<IKnowledgeScene> scenes = newArrayList();
+    private final Map<String, IKnowledgeType> typesByName = newHashMap();
+    private final Map<String, IKnowledgeScene> scenesById = newHashMap();
+
+    private MappedKnowledgeBase(ByteBuffer buffer) {
+        this.buffer = buffer;
+        final int[] sections = new int[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            sections[i] = buffer.getInt(HEADER + 4 * i);
+        }
+
+        stringCount = buffer.getInt(sections[STRINGS]);
+        stringOffsets = sections[STRINGS] + 4;
+        stringData = stringOffsets + 4 * (stringCount + 1);
+        instanceCount = buffer.getInt(sections[INSTANCES]);
+        instances = sections[INSTANCES] + 4;
+        attributes = sections[ATTRIBUTES];
+        instanceMask = buffer.getInt(sections[INSTANCE_INDEX]) - 1;
+        instanceIndex = sections[INSTANCE_INDEX] + 4;
+        gestures = sections[GESTURES] + 4;
+        arms = sections[ARMS];
+        gestureMask = buffer.getInt(sections[GESTURE_INDEX]) - 1;
+        gestureIndex = sections[GESTURE_INDEX] + 4;
+        decodedGestures = new AtomicReferenceArray<IGesture>(2 * buffer.getInt(sections[GESTURES]));
+
+        final int stateCount = buffer.getInt(sections[MATCHER]);
+        final int transitionCount = buffer.getInt(sections[MATCHER] + 4);
+        states = sections[MATCHER] + 12;
+        transitions = states + 4 * STATE_ROW * stateCount;
+        owners = transitions + 8 * transitionCount;
+
+        readElements(sections[ELEMENTS]);
+    }
+
+    /**
+     * Gets the mapped file compiled from a source, which is kept next to it.
+     *
+     * @param source the source of the knowledge base
+     * @return the mapped file
+     */
+    public static File fileFor(File source) {
+        return new File(source.getPath() + ".mapped");
+    }
+
+    /**
+     * Maps the file compiled from a source, if it's of this version and the source hasn't changed since.
+     *
+     * @param source the source of the knowledge base
+     * @return the knowledge base, or null if there is no usable file
+     */
+    public static MappedKnowledgeBase openIfFresh(File source) {
+        final File file = fileFor(source);
+        if (!source.isFile() || !file.isFile()) {
+            return null;
+        }
+
+        try {
+            final FileChannel channel = new FileInputStream(file).getChannel();
+            try {
+                final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    log.info("{} is not a mapped knowledge base of version {}", file, VERSION);
+                    return null;
+                }
+                if (buffer.getLong(8) != source.length()
+                    || buffer.getLong(16) != KnowledgeBaseSnapshot.checksum(source)) {
+                    log.info("{} is stale", file);
+                    return null;
+                }
+                final MappedKnowledgeBase knowledgeBase = new MappedKnowledgeBase(buffer);
+                log.info("Mapped {} instances from {}", knowledgeBase.instanceCount, file);
+                return knowledgeBase;
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not map " + file, e);
+        } catch (RuntimeException e) {
+            log.warn("Could not read " + file, e);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the contents of a knowledge base to the {@link #fileFor(File) file} of its source. The file is written to
+     * a temporary file first, which then replaces it.
+     *
+     * @param holder the contents of the knowledge base, parsed from the content of <tt>source</tt>
+     * @param source the source the contents were parsed from
+     * @throws IOException if the file can't be written
+     */
+    public static void write(KnowledgeBaseHolder holder, KnowledgeBaseSource source) throws IOException {
+        final Encoder encoder = new Encoder(new KnowledgeBase(holder));
+        encoder.encode();
+
+        final File file = fileFor(source.getFile());
+        final File temporary = new File(file.getPath() + ".tmp");
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.checksum());
+            int offset = HEADER + 4 * SECTIONS;
+            for (ByteArrayOutputStream section : encoder.sections) {
+                out.writeInt(offset);
+                offset += section.size();
+            }
+            for (ByteArrayOutputStream section : encoder.sections) {
+                section.writeTo(out);
+            }
+        } finally {
+            out.close();
+        }
+
+        if ((file.exists() && !file.delete()) || !temporary.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+        log.info("Wrote {} instances to {}", holder.getInstances().size(), file);
+    }
+
+    public List<IKnowledgeInstance> getAllInstances() {
+        return new AbstractList<IKnowledgeInstance>() {
+            @Override
+            public IKnowledgeInstance get(int index) {
+                if (index < 0 || index >= instanceCount) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + instanceCount);
+                }
+                return new MappedInstance(index);
+            }
+
+            @Override
+            public int size() {
+                return instanceCount;
+            }
+        };
+    }
+
+    public List<IKnowledgeScene> getAllScenes() {
+        return Collections.unmodifiableList(scenes);
+    }
+
+    public List<IKnowledgeType> getAllTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * Returns the instance in the knowledge base that has values that correspond most closely to the words found in the
+     * passed description, found by walking the mapped automaton as {@link InstanceMatcher#find(String)} does. null is
+     * returned if there is no clear best match or if there is no match at all.
+     *
+     * @param description is the value of the instance attribute
+     * @return best knowledge instance match if it's found, else null
+     */
+    public IKnowledgeInstance getBestInstanceMatch(String description) {
+        return matchInstance(description).getInstance();
+    }
+
+    /**
+     * Finds the best instance match for the description, telling a tie from no match.
+     *
+     * @param description is the value of the instance attribute
+     * @return the match
+     */
+    InstanceMatch matchInstance(String description) {
+        final Set<Integer> found = newHashSet();
+        int state = 0;
+        for (int i = 0; i < description.length(); i++) {
+            state = step(state, description.charAt(i));
+            for (int output = state(state, 3); output != NULL; output = state(output, 4)) {
+                found.add(output);
+            }
+        }
+
+        final Map<Integer, Integer> hits = newHashMap();
+        for (int output : found) {
+            final int first = state(output, 5);
+            for (int i = first; i < first + state(output, 6); i++) {
+                final int instance = buffer.getInt(owners + 4 * i);
+                final Integer count = hits.get(instance);
+                hits.put(instance, count != null ? count + 1 : 1);
+            }
+        }
+
+        int best = -1;
+        int maxMatches = 0;
+        int bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : hits.entrySet()) {
+            final int instance = entry.getKey();
+            final int count = entry.getValue();
+            if (count > maxMatches) {
+                best = instance;
+                maxMatches = count;
+                bestCount = 1;
+            } else if (count == maxMatches) {
+                best = Math.min(best, instance);
+                bestCount++;
+            }
+        }
+
+        if (hits.isEmpty()) {
+            return InstanceMatch.NONE;
+        }
+        return bestCount == 1 ? InstanceMatch.of(new MappedInstance(best)) : InstanceMatch.TIE;
+    }
+
+    public IGesture getCompactGesture(String value) {
+        final int row = value != null ? find(gestureIndex, gestureMask, KnowledgeBase.normalize(value), gestures,
+            GESTURE_ROW, 2) : NULL;
+        return row != NULL ? gesture(row, true) : null;
+    }
+
+    public IGesture getGesture(String id) {
+        final int row = id != null ? find(gestureIndex, gestureMask, KnowledgeBase.normalize(id), gestures,
+            GESTURE_ROW, 2) : NULL;
+        return row != NULL ? gesture(row, false) : null;
+    }
+
+    public IKnowledgeInstance getInstance(String id) {
+        final int row = id != null ? find(instanceIndex, instanceMask, id, instances, INSTANCE_ROW, 1) : NULL;
+        return row != NULL ? new MappedInstance(row) : null;
+    }
+
+    public IKnowledgeScene getScene(String id) {
+        return scenesById.get(id);
+    }
+
+    public IKnowledgeType getType(String name) {
+        return typesByName.get(name);
+    }
+
+    /**
+     * Returns the surprising value of the instance. For the instances of this knowledge base it was found when the file
+     * was written, for any other instance it's found again.
+     *
+     * @param instance the instance
+     * @return the surprising value if any, else null
+     */
+    public String getSurprisingValue(IKnowledgeInstance instance) {
+        if (instance instanceof MappedInstance && ((MappedInstance) instance).base() == this) {
+            return string(((MappedInstance) instance).column(4));
+        }
+        return instance.getSurprisingValue(this);
+    }
+
+    public boolean isObservable(String sceneId, String objectId) {
+        final IKnowledgeScene scene = getScene(sceneId);
+        return scene != null && scene.containsObject(objectId);
+    }
+
+    /**
+     * Finds the row with the given key in a hash table.
+     *
+     * @return the row, or -1 if there is none
+     */
+    private int find(int index, int mask, String key, int rows, int rowSize, int column) {
+        final byte[] bytes = key.getBytes(UTF8);
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final int row = buffer.getInt(index + 4 * slot) - 1;
+            if (row == NULL || stringEquals(buffer.getInt(rows + 4 * (row * rowSize + column)), bytes)) {
+                return row;
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int low = state(state, 0);
+            int high = low + state(state, 1) - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int label = buffer.getInt(transitions + 8 * middle);
+                if (label < c) {
+                    low = middle + 1;
+                } else if (label > c) {
+                    high = middle - 1;
+                } else {
+                    return buffer.getInt(transitions + 8 * middle + 4);
+                }
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = state(state, 2);
+        }
+    }
+
+    private int state(int state, int column) {
+        return buffer.getInt(states + 4 * (state * STATE_ROW + column));
+    }
+
+    /**
+     * Gets the gesture of a row. The gestures are immutable, so each one is decoded once, in its full and compact form,
+     * and shared by all lookups. Two threads may decode the same gesture at once, in which case the first one is kept.
+     *
+     * @param row     the row of the gesture
+     * @param compact whether to get the compact form
+     * @return the gesture
+     */
+    private IGesture gesture(int row, boolean compact) {
+        final int slot = 2 * row + (compact ? 1 : 0);
+        final IGesture decoded = decodedGestures.get(slot);
+        if (decoded != null) {
+            return decoded;
+        }
+        decodedGestures.compareAndSet(slot, null, decodeGesture(row, compact));
+        return decodedGestures.get(slot);
+    }
+
+    private IGesture decodeGesture(int row, boolean compact) {
+        final int base = gestures + 4 * row * GESTURE_ROW;
+        List<IArm> gestureArms = null;
+        final int armCount = buffer.getInt(base + 28);
+        if (armCount != NULL) {
+            gestureArms = newArrayList();
+            for (int i = buffer.getInt(base + 24); i < buffer.getInt(base + 24) + armCount; i++) {
+                final int arm = arms + 4 * i * ARM_ROW;
+                gestureArms.add(new Arm(string(buffer.getInt(arm)), string(buffer.getInt(arm + 4)),
+                    enumValue(IArm.ArmType.values(), buffer.getInt(arm + 8))));
+            }
+        }
+
+        final GestureBehavior gesture = new GestureBehavior(string(buffer.getInt(base)),
+            string(buffer.getInt(base + 4)), gestureArms);
+        final int priority = buffer.getInt(base + 12);
+        gesture.setPriority(priority != NO_PRIORITY ? priority : null);
+        return GestureBehavior.immutableCopy(gesture,
+            enumValue(IGesture.GestureType.values(), buffer.getInt(base + (compact ? 20 : 16))));
+    }
+
+    private String string(int index) {
+        if (index == NULL) {
+            return null;
+        }
+        final int start = buffer.getInt(stringOffsets + 4 * index);
+        final byte[] bytes = new byte[buffer.getInt(stringOffsets + 4 * index + 4) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(stringData + start + i);
+        }
+        return new String(bytes, UTF8);
+    }
+
+    private boolean stringEquals(int index, byte[] bytes) {
+        if (index == NULL) {
+            return false;
+        }
+        final int start = buffer.getInt(stringOffsets + 4 * index);
+        if (buffer.getInt(stringOffsets + 4 * index + 4) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(stringData + start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <E extends Enum<E>> E enumValue(E[] values, int ordinal) {
+        return ordinal != NULL ? values[ordinal] : null;
+    }
+
+    private void readElements(int position) {
+        final ByteBuffer in = buffer.duplicate();
+        in.position(position);
+
+        for (int i = in.getInt(); i > 0; i--) {
+            final String name = string(in.getInt());
+            final String klass = string(in.getInt());
+            final List<IKnowledgeFeature> features = newArrayList();
+            for (int j = in.getInt(); j > 0; j--) {
+                features.add(new KnowledgeFeature(string(in.getInt()), string(in.getInt()),
+                    enumValue(IKnowledgeFeature.FeatureType.values(), in.getInt())));
+            }
+            final IKnowledgeType type = new KnowledgeType(name, klass, features);
+            types.add(type);
+            if (name != null && !typesByName.containsKey(name)) {
+                typesByName.put(name, type);
+            }
+        }
+
+        for (int i = in.getInt(); i > 0; i--) {
+            final String id = string(in.getInt());
+            final List<String> objects = newArrayList();
+            for (int j = in.getInt(); j > 0; j--) {
+                objects.add(string(in.getInt()));
+            }
+            final List<IKnowledgePerson> persons = newArrayList();
+            for (int j = in.getInt(); j > 0; j--) {
+                persons.add(new KnowledgePerson(string(in.getInt()),
+                    enumValue(IKnowledgePerson.Role.values(), in.getInt())));
+            }
+            final KnowledgeScene scene = new KnowledgeScene(id, objects);
+            scene.setPersons(persons);
+            scenes.add(scene);
+            if (id != null && !scenesById.containsKey(id)) {
+                scenesById.put(id, scene);
+            }
+        }
+    }
+
+    /**
+     * A read only view of a row of the instance table.
+     */
+    private class MappedInstance implements IKnowledgeInstance {
+        private final int row;
+
+        private MappedInstance(int row) {
+            this.row = row;
+        }
+
+        private int column(int column) {
+            return buffer.getInt(instances + 4 * (row * INSTANCE_ROW + column));
+        }
+
+        public String getInstanceOf() {
+            return string(column(0));
+        }
+
+        public void setInstanceOf(String instanceOf) {
+            throw new UnsupportedOperationException(this + " is read only");
+        }
+
+        public String getId() {
+            return string(column(1));
+        }
+
+        public void setId(String id) {
+            throw new UnsupportedOperationException(this + " is read only");
+        }
+
+        public Map<String, String> getAttributes() {
+            final Map<String, String> map = newLinkedHashMap();
+            for (int i = column(2); i < column(2) + column(3); i++) {
+                map.put(string(buffer.getInt(attributes + 8 * i)), string(buffer.getInt(attributes + 8 * i + 4)));
+            }
+            return Collections.unmodifiableMap(map);
+        }
+
+        public void setAttributes(Map<String, String> attributes) {
+            throw new UnsupportedOperationException(this + " is read only");
+        }
+
+        public String getValue(String feature) {
+            final byte[] bytes = feature.getBytes(UTF8);
+            for (int i = column(2); i < column(2) + column(3); i++) {
+                if (stringEquals(buffer.getInt(attributes + 8 * i), bytes)) {
+                    return string(buffer.getInt(attributes + 8 * i + 4));
+                }
+            }
+            return null;
+        }
+
+        public Iterable<String> getAllValues() {
+            final List<String> values = newArrayList();
+            for (int i = column(2); i < column(2) + column(3); i++) {
+                final String value = string(buffer.getInt(attributes + 8 * i + 4));
+                values.add(value != null ? value : "");
+            }
+            return values;
+        }
+
+        /**
+         * Returns the first value that is not typical for an instance of this type. The value is found each time, the
+         * value found when the file was written is returned by {@link MappedKnowledgeBase#getSurprisingValue}.
+         *
+         * @param knowledgeBase the knowledge base used
+         */
+        public String getSurprisingValue(IKnowledgeBase knowledgeBase) {
+            final IKnowledgeType type = knowledgeBase.getType(getInstanceOf());
+            if (type != null) {
+                for (IKnowledgeFeature feature : type.getFeatures()) {
+                    if (!feature.isTypical(getValue(feature.getName()))) {
+                        return getValue(feature.getName());
+                    }
+                }
+            }
+            return null;
+        }
+
+        private MappedKnowledgeBase base() {
+            return MappedKnowledgeBase.this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            MappedInstance that = (MappedInstance) o;
+
+            return row == that.row && base() == that.base();
+        }
+
+        @Override
+        public int hashCode() {
+            return row;
+        }
+
+        @Override
+        public String toString() {
+            return "MappedInstance{" +
+                "instanceOf='" + getInstanceOf() + '\'' +
+                ", id='" + getId() + '\'' +
+                ", attributes=" + getAttributes() +
+                '}';
+        }
+    }
+
+    /**
+     * Encodes the contents of a knowledge base into the sections of a file, collecting the dictionary of strings on
+     * the way.
+     */
+    private static class Encoder {
+        private final KnowledgeBase knowledgeBase;
+        private final List<ByteArrayOutputStream> sections = newArrayList();
+        private final List<DataOutputStream> outs = newArrayList();
+        private final List<String> strings = newArrayList();
+        private final Map<String, Integer> indices = newHashMap();
+
+        Encoder(KnowledgeBase knowledgeBase) {
+            this.knowledgeBase = knowledgeBase;
+            for (int i = 0; i < SECTIONS; i++) {
+                final ByteArrayOutputStream section = new ByteArrayOutputStream();
+                sections.add(section);
+                outs.add(new DataOutputStream(section));
+            }
+        }
+
+        void encode() throws IOException {
+            final KnowledgeBaseHolder holder = knowledgeBase.getInput();
+
+            final DataOutputStream instances = outs.get(INSTANCES);
+            final DataOutputStream attributes = outs.get(ATTRIBUTES);
+            final List<String> ids = newArrayList();
+            int attribute = 0;
+            instances.writeInt(holder.getInstances().size());
+            for (IKnowledgeInstance instance : holder.getInstances()) {
+                // the values are read through getValue as Yaml may have parsed some of them as numbers
+                final int count = instance.getAttributes().size();
+                writeString(instances, instance.getInstanceOf());
+                writeString(instances, instance.getId());
+                instances.writeInt(attribute);
+                instances.writeInt(count);
+                writeString(instances, instance.getSurprisingValue(knowledgeBase));
+                for (Object name : instance.getAttributes().keySet()) {
+                    writeString(attributes, String.valueOf(name));
+                    writeString(attributes, instance.getValue(String.valueOf(name)));
+                }
+                attribute += count;
+                ids.add(instance.getId());
+            }
+            writeTable(outs.get(INSTANCE_INDEX), ids);
+
+            final DataOutputStream gestures = outs.get(GESTURES);
+            final DataOutputStream arms = outs.get(ARMS);
+            final List<String> keys = newArrayList();
+            int arm = 0;
+            gestures.writeInt(holder.getGestures().size());
+            for (IGesture gesture : holder.getGestures()) {
+                final String key = KnowledgeBase.normalize(gesture.getValue());
+                writeString(gestures, gesture.getType());
+                writeString(gestures, gesture.getValue());
+                writeString(gestures, key);
+                gestures.writeInt(gesture.getPriority() != null ? gesture.getPriority() : NO_PRIORITY);
+                writeEnum(gestures, gesture.getGestureType());
+                writeEnum(gestures, KnowledgeBase.compact(gesture).getGestureType());
+                gestures.writeInt(arm);
+                gestures.writeInt(gesture.getArms() != null ? gesture.getArms().size() : NULL);
+                if (gesture.getArms() != null) {
+                    for (IArm a : gesture.getArms()) {
+                        writeString(arms, a.getHandshape());
+                        writeString(arms, a.getTrajectory());
+                        writeEnum(arms, a.getType());
+                    }
+                    arm += gesture.getArms().size();
+                }
+                keys.add(key);
+            }
+            writeTable(outs.get(GESTURE_INDEX), keys);
+
+            knowledgeBase.getMatcher().writeTo(outs.get(MATCHER));
+
+            final DataOutputStream elements = outs.get(ELEMENTS);
+            elements.writeInt(holder.getTypes().size());
+            for (IKnowledgeType type : holder.getTypes()) {
+                writeString(elements, type.getName());
+                writeString(elements, type.getKlass());
+                elements.writeInt(type.getFeatures().size());
+                for (IKnowledgeFeature feature : type.getFeatures()) {
+                    writeString(elements, feature.getName());
+                    writeString(elements, feature.getTypical());
+                    writeEnum(elements, feature.getType());
+                }
+            }
+            elements.writeInt(holder.getScenes().size());
+            for (IKnowledgeScene scene : holder.getScenes()) {
+                writeString(elements, scene.getId());
+                elements.writeInt(scene.getObjects().size());
+                for (String object : scene.getObjects()) {
+                    writeString(elements, object);
+                }
+                elements.writeInt(scene.getPersons().size());
+                for (IKnowledgePerson person : scene.getPersons()) {
+                    writeString(elements, person.getId());
+                    writeEnum(elements, person.getRole());
+                }
+            }
+
+            // the dictionary is complete once everything else is written
+            final DataOutputStream dictionary = outs.get(STRINGS);
+            final List<byte[]> encoded = newArrayList();
+            dictionary.writeInt(strings.size());
+            int offset = 0;
+            for (String string : strings) {
+                final byte[] bytes = string.getBytes(UTF8);
+                encoded.add(bytes);
+                dictionary.writeInt(offset);
+                offset += bytes.length;
+            }
+            dictionary.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                dictionary.write(bytes);
+            }
+
+            for (DataOutputStream out : outs) {
+                out.flush();
+            }
+        }
+
+        /**
+         * Writes an open addressing hash table from key to row, the first row of a key wins. The table is at least
+         * twice as large as the number of rows, so a probe always ends at an empty slot.
+         */
+        private void writeTable(DataOutputStream out, List<String> keys) throws IOException {
+            int capacity = 2;
+            while (capacity < keys.size() * 2) {
+                capacity <<= 1;
+            }
+            final int[] slots = new int[capacity];
+            final Set<String> seen = newHashSet();
+            for (int row = 0; row < keys.size(); row++) {
+                final String key = keys.get(row);
+                if (key != null && seen.add(key)) {
+                    int slot = hash(key) & (capacity - 1);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    slots[slot] = row + 1;
+                }
+            }
+
+            out.writeInt(capacity);
+            for (int slot : slots) {
+                out.writeInt(slot);
+            }
+        }
+
+        private void writeString(DataOutputStream out, String string) throws IOException {
+            if (string == null) {
+                out.writeInt(NULL);
+                return;
+            }
+            Integer index = indices.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                indices.put(string, index);
+            }
+            out.writeInt(index);
+        }
+
+        private void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+            out.writeInt(value != null ? value.ordinal() : NULL);
+        }
+    }
+}
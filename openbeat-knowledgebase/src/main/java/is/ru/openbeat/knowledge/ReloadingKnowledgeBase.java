@@ -0,0 +1,216 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import is.ru.openbeat.pipeline.PipelineSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class <tt>ReloadingKnowledgeBase</tt> is a knowledge base whose contents can be replaced while the pipeline is
+ * running. Each version of the contents is a complete knowledge base, such as a {@link KnowledgeBase} built with all of
+ * its indices, before it's {@link #publish(IKnowledgeBase) published}, so a half loaded knowledge base is never
+ * visible and readers never wait on a lock.
+ * <p/>
+ * An utterance should be run {@link #pin(Runnable) pinned} to the current version. The version is pinned to the {@link
+ * PipelineSession session} of the utterance, so every stage of the pipeline, including generators running on other
+ * threads of the session, reads the same version even when a new one is published in the middle of the utterance.
+ * Outside of a pinned run the latest version is read.
+ * <p/>
+ * While the characters run the knowledge base is changed by {@link #commit(KnowledgeBaseTransaction) committing}
+ * transactions, each of which publishes a new version. A version published from the source, such as when the file is
+ * reloaded, replaces the changes made by transactions.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class ReloadingKnowledgeBase implements IKnowledgeBase {
+    private static final Logger log = LoggerFactory.getLogger(ReloadingKnowledgeBase.class);
+
+    private final AtomicReference<IKnowledgeBase> current;
+    private final ConcurrentMap<PipelineSession, Pin> pinned = new ConcurrentHashMap<PipelineSession, Pin>();
+
+    public ReloadingKnowledgeBase(IKnowledgeBase knowledgeBase) {
+        current = new AtomicReference<IKnowledgeBase>(knowledgeBase);
+    }
+
+    /**
+     * Gets the version read by the calling thread.
+     *
+     * @return the version pinned to the current session, or the latest version if none is pinned
+     */
+    public IKnowledgeBase snapshot() {
+        final Pin pin = pinned.get(PipelineSession.current());
+        return pin != null ? pin.version : current.get();
+    }
+
+    /**
+     * Replaces the latest version. Utterances which are already running keep the version they were pinned to.
+     *
+     * @param knowledgeBase the new version
+     */
+    public void publish(IKnowledgeBase knowledgeBase) {
+        current.set(knowledgeBase);
+        log.info("Published a knowledge base with {} instances", knowledgeBase.getAllInstances().size());
+    }
+
+    /**
+     * Applies a transaction to the latest version and publishes the result as a new version. Readers keep reading the
+     * version they have without waiting. The indices of the new version are built before it's published, so a batch of
+     * changes should be committed as one transaction; the indices of the lists it doesn't change are shared with the
+     * latest version, so changing the scenes doesn't index the instances again. A writer which loses a race with
+     * another writer applies its transaction again to the version the other one published, so no change is lost.
+     *
+     * @param transaction the changes
+     * @return the new version
+     * @throws IllegalArgumentException if a change can't be applied, in which case nothing is published
+     * @throws IllegalStateException    if the latest version can't be changed, such as a {@link MappedKnowledgeBase}
+     */
+    public KnowledgeBase commit(KnowledgeBaseTransaction transaction) {
+        while (true) {
+            final IKnowledgeBase latest = current.get();
+            if (!(latest instanceof KnowledgeBase)) {
+                throw new IllegalStateException("Can't change " + latest.getClass().getSimpleName());
+            }
+
+            final KnowledgeBase next = transaction.applyTo((KnowledgeBase) latest);
+            if (current.compareAndSet(latest, next)) {
+                log.debug("Committed a transaction, {} instances", next.getAllInstances().size());
+                return next;
+            }
+            log.debug("Another version was published, applying the transaction again");
+        }
+    }
+
+    /**
+     * Runs <tt>runnable</tt> with the latest version pinned to the current session. A run within a pinned run, or
+     * running at the same time in the same session, keeps the version which is pinned already, and the version stays
+     * pinned until the last of the runs is done.
+     *
+     * @param runnable the work to do, usually a whole utterance
+     */
+    public void pin(Runnable runnable) {
+        final PipelineSession session = PipelineSession.current();
+        synchronized (pinned) {
+            final Pin pin = pinned.get(session);
+            if (pin != null) {
+                pin.runs++;
+            } else {
+                pinned.put(session, new Pin(current.get()));
+            }
+        }
+        try {
+            runnable.run();
+        } finally {
+            synchronized (pinned) {
+                if (--pinned.get(session).runs == 0) {
+                    pinned.remove(session);
+                }
+            }
+        }
+    }
+
+    public List<IKnowledgeInstance> getAllInstances() {
+        return snapshot().getAllInstances();
+    }
+
+    public List<IKnowledgeScene> getAllScenes() {
+        return snapshot().getAllScenes();
+    }
+
+    public List<IKnowledgeType> getAllTypes() {
+        return snapshot().getAllTypes();
+    }
+
+    public IKnowledgeInstance getBestInstanceMatch(String description) {
+        return snapshot().getBestInstanceMatch(description);
+    }
+
+    public IGesture getCompactGesture(String value) {
+        return snapshot().getCompactGesture(value);
+    }
+
+    public IGesture getGesture(String id) {
+        return snapshot().getGesture(id);
+    }
+
+    public IKnowledgeInstance getInstance(String id) {
+        return snapshot().getInstance(id);
+    }
+
+    public IKnowledgeScene getScene(String id) {
+        return snapshot().getScene(id);
+    }
+
+    public IKnowledgeType getType(String name) {
+        return snapshot().getType(name);
+    }
+
+    public String getSurprisingValue(IKnowledgeInstance instance) {
+        return snapshot().getSurprisingValue(instance);
+    }
+
+    public boolean isObservable(String sceneId, String objectId) {
+        return snapshot().isObservable(sceneId, objectId);
+    }
+
+    /**
+     * The version pinned to a session and the number of runs which are using it. The runs are counted while holding the
+     * lock of the map of pins.
+     */
+    private static class Pin {
+        private final IKnowledgeBase version;
+        private int runs = 1;
+
+        private Pin(IKnowledgeBase version) {
+            this.version = version;
+        }
+    }
+}
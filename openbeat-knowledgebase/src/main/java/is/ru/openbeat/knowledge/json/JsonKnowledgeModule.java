@@ -60,13 +60,22 @@ import java.lang.reflect.Type;
 import java.util.List;
 
 /**
- * Class <tt>JsonKnowledgeModule</tt> handles initialation of the knowledge base with a Json input
+ * Class <tt>JsonKnowledgeModule</tt> handles initialation of the knowledge base with a Json input. The input is only
+ * read once, but new versions can be {@link ReloadingKnowledgeBase#publish(IKnowledgeBase) published} to the knowledge
+ * base. The knowledge base is wrapped in a {@link FuzzyKnowledgeBase}, which matches misspelled descriptions when a
+ * threshold is bound to <tt>kb.fuzzy.threshold</tt>.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
 public class JsonKnowledgeModule extends AbstractModule {
     protected void configure() {
-        bind(IKnowledgeBase.class).to(KnowledgeBase.class);
+        bind(IKnowledgeBase.class).to(FuzzyKnowledgeBase.class);
+    }
+
+    @Provides
+    @Singleton
+    public ReloadingKnowledgeBase createKnowledgeBase(KnowledgeBase knowledgeBase) {
+        return new ReloadingKnowledgeBase(knowledgeBase);
     }
 
     @Provides
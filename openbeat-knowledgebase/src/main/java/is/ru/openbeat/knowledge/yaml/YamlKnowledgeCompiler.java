@@ -0,0 +1,85 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge.yaml;
+
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.knowledge.KnowledgeBaseHolder;
+import is.ru.openbeat.knowledge.KnowledgeBaseSnapshot;
+import is.ru.openbeat.knowledge.KnowledgeBaseSource;
+import is.ru.openbeat.knowledge.MappedKnowledgeBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Class <tt>YamlKnowledgeCompiler</tt> compiles Yaml knowledge bases into {@link KnowledgeBaseSnapshot snapshots},
+ * which are read at startup instead of parsing the Yaml. Run it with the files to compile, <tt>database.yaml</tt> by
+ * default, and again whenever they change; a stale snapshot is ignored. Each file is read once and the snapshot
+ * records the length and checksum of the content it was parsed from. With <tt>-mapped</tt> first the files are
+ * compiled into {@link MappedKnowledgeBase mapped} knowledge bases instead, for knowledge bases too large for the heap.
+ *
+ * @author arnir06@ru.is (Árni Hermann Reynisson)
+ */
+public class YamlKnowledgeCompiler {
+    public static void main(String... args) throws IOException {
+        final YamlKnowledgeModule module = new YamlKnowledgeModule();
+        final boolean mapped = args.length > 0 && args[0].equals("-mapped");
+        final List<String> filenames = newArrayList(args).subList(mapped ? 1 : 0, args.length);
+        for (String filename : !filenames.isEmpty() ? filenames : newArrayList("database.yaml")) {
+            final File file = new File(filename);
+            final KnowledgeBaseSource source = KnowledgeBaseSource.read(file);
+            final KnowledgeBaseHolder holder = module.parse(source.reader());
+            if (mapped) {
+                MappedKnowledgeBase.write(holder, source);
+                System.out.println("Compiled " + file + " to " + MappedKnowledgeBase.fileFor(file));
+            } else {
+                KnowledgeBaseSnapshot.write(holder, source);
+                System.out.println("Compiled " + file + " to " + KnowledgeBaseSnapshot.fileFor(file));
+            }
+        }
+    }
+}
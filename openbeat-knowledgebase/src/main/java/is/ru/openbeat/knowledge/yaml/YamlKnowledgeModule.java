@@ -45,30 +45,67 @@
 
 package is.ru.openbeat.knowledge.yaml;
 
+import com.google.common.base.Function;
+import com.google.common.base.Nullable;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Named;
 import is.ru.openbeat.behavior.Arm;
 import is.ru.openbeat.behavior.GestureBehavior;
 import is.ru.openbeat.knowledge.*;
+import is.ru.openbeat.pipeline.IService;
 import org.yaml.snakeyaml.Loader;
 import org.yaml.snakeyaml.TypeDescription;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.Reader;
 
 /**
- * Class <tt>YamlKnowledgeModule</tt> handles initialation of the knowledge base with a Yaml input
+ * Class <tt>YamlKnowledgeModule</tt> handles initialation of the knowledge base with a Yaml input. The file is watched
+ * by a {@link KnowledgeBaseReloader}, bound as a {@link IService service}, and the knowledge base is reloaded when it
+ * changes, see {@link ReloadingKnowledgeBase}.
+ * <p/>
+ * At startup a {@link KnowledgeBaseSnapshot snapshot} compiled from the file by {@link YamlKnowledgeCompiler} is read
+ * instead of the file, as long as the file hasn't changed since. A {@link MappedKnowledgeBase mapped} knowledge base
+ * compiled from the file is used in the same way, in which case the instances are never read onto the heap; a
+ * reload after the file changes reads them onto the heap until the file is compiled again.
+ * <p/>
+ * The knowledge base is wrapped in a {@link FuzzyKnowledgeBase}, which matches misspelled descriptions when a threshold
+ * is bound to <tt>kb.fuzzy.threshold</tt>, except while the mapped knowledge base is used.
  *
  * @author arnir06@ru.is (Árni Hermann Reynisson)
  */
 public class YamlKnowledgeModule extends AbstractModule {
     protected void configure() {
-        bind(IKnowledgeBase.class).to(KnowledgeBase.class);
+        bind(IKnowledgeBase.class).to(FuzzyKnowledgeBase.class);
+        Multibinder.newSetBinder(binder(), IService.class).addBinding().to(KnowledgeBaseReloader.class);
+    }
+
+    @Provides
+    @Singleton
+    public ReloadingKnowledgeBase createKnowledgeBase(Provider<KnowledgeBase> knowledgeBase,
+                                                      @Named("kb.file") String filename) {
+        final File file = new File(filename);
+        final MappedKnowledgeBase mapped = MappedKnowledgeBase.openIfFresh(file);
+        return mapped != null ? new ReloadingKnowledgeBase(mapped) : new ReloadingKnowledgeBase(knowledgeBase.get());
+    }
+
+    @Provides
+    @Singleton
+    public KnowledgeBaseReloader createReloader(ReloadingKnowledgeBase knowledgeBase,
+                                                @Named("kb.file") String filename) {
+        return new KnowledgeBaseReloader(new File(filename), knowledgeBase, new Function<Reader, KnowledgeBaseHolder>() {
+            public KnowledgeBaseHolder apply(@Nullable Reader reader) {
+                return parse(reader);
+            }
+        });
     }
 
     @Named("yaml.reader")
@@ -80,7 +117,19 @@ public class YamlKnowledgeModule extends AbstractModule {
 
     @Provides
     @Singleton
-    public KnowledgeBaseHolder createHolder(@Named("yaml.reader") Reader reader) {
+    public KnowledgeBaseHolder createHolder(@Named("kb.file") String filename,
+                                            @Named("yaml.reader") Provider<Reader> reader) {
+        final KnowledgeBaseHolder holder = KnowledgeBaseSnapshot.readIfFresh(new File(filename));
+        return holder != null ? holder : parse(reader.get());
+    }
+
+    /**
+     * Parses a knowledge base in Yaml.
+     *
+     * @param reader the Yaml input
+     * @return the contents of the knowledge base
+     */
+    public KnowledgeBaseHolder parse(Reader reader) {
         final Constructor constructor = new Constructor(KnowledgeBaseHolder.class);
         final TypeDescription holderDescription = new TypeDescription(KnowledgeBaseHolder.class);
         holderDescription.putListPropertyType("types", KnowledgeType.class);
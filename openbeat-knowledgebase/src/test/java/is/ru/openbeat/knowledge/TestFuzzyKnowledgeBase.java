@@ -0,0 +1,151 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import com.google.inject.Provider;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class TestFuzzyKnowledgeBase {
+    private ReloadingKnowledgeBase reloading;
+    private FuzzyKnowledgeBase knowledgeBase;
+
+    @Before
+    public void setUp() {
+        final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+        holder.setInstances(newArrayList(
+            instance("Box1", "Square", "Small", "Chocolates"),
+            instance("Box2", "Square", "Large", "Shoes"),
+            instance("Ball1", "Round", "Small", "Rubber")));
+        reloading = new ReloadingKnowledgeBase(new KnowledgeBase(holder));
+        knowledgeBase = fuzzy(reloading, 0.5);
+    }
+
+    @Test
+    public void testMisspelled() {
+        assertThat(knowledgeBase.getBestInstanceMatch("the box of choclates").getId(), is("Box1"));
+        assertThat(knowledgeBase.getBestInstanceMatch("a sqare box of shoe").getId(), is("Box2"));
+        assertThat(knowledgeBase.getBestInstanceMatch("the rubbery ball").getId(), is("Ball1"));
+    }
+
+    @Test
+    public void testExactFirst() {
+        assertThat(knowledgeBase.getBestInstanceMatch("the Large one").getId(), is("Box2"));
+    }
+
+    @Test
+    public void testNoClearMatch() {
+        // both boxes are square
+        assertThat(knowledgeBase.getBestInstanceMatch("a squared thing"), is(nullValue()));
+        assertThat(knowledgeBase.getBestInstanceMatch("nothing like it"), is(nullValue()));
+    }
+
+    @Test
+    public void testTie() {
+        // the exact match found both square boxes, the misspelled contents don't pick one
+        assertThat(knowledgeBase.getBestInstanceMatch("a Square box of choclates"), is(nullValue()));
+    }
+
+    @Test
+    public void testFalseFriends() {
+        final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+        holder.setInstances(newArrayList(
+            instance("Box1", "type", "Box", "shape", "Square", "contents", "Chocolates"),
+            instance("Punk1", "role", "Actor", "type", "Virtual", "hype", "Popular"),
+            instance("Truck1", "type", "Truck", "color", "Blue")));
+        final ReloadingKnowledgeBase reloading = new ReloadingKnowledgeBase(new KnowledgeBase(holder));
+
+        final FuzzyKnowledgeBase fuzzy = fuzzy(reloading, 0.5);
+        assertThat(fuzzy.getBestInstanceMatch("some clue"), is(nullValue()));
+        assertThat(fuzzy.getBestInstanceMatch("the virtue"), is(nullValue()));
+        assertThat(fuzzy.getBestInstanceMatch("my boxer"), is(nullValue()));
+        assertThat(fuzzy.getBestInstanceMatch("a blue truk").getId(), is("Truck1"));
+
+        // words which share fewer than three trigrams never match
+        final FuzzyKnowledgeBase lenient = fuzzy(reloading, 0.3);
+        assertThat(lenient.getBestInstanceMatch("some clue"), is(nullValue()));
+        assertThat(lenient.getBestInstanceMatch("my boxer"), is(nullValue()));
+    }
+
+    @Test
+    public void testWithoutThreshold() {
+        assertThat(new FuzzyKnowledgeBase(reloading).getBestInstanceMatch("the box of choclates"), is(nullValue()));
+    }
+
+    @Test
+    public void testNewVersion() {
+        reloading.commit(new KnowledgeBaseTransaction().addInstance(instance("Box3", "Oblong", "Small", "Tea")));
+        assertThat(knowledgeBase.getBestInstanceMatch("an oblongish box").getId(), is("Box3"));
+    }
+
+    private static FuzzyKnowledgeBase fuzzy(ReloadingKnowledgeBase reloading, final double threshold) {
+        final FuzzyKnowledgeBase fuzzy = new FuzzyKnowledgeBase(reloading);
+        fuzzy.setThreshold(new Provider<Double>() {
+            public Double get() {
+                return threshold;
+            }
+        });
+        return fuzzy;
+    }
+
+    private static IKnowledgeInstance instance(String id, String shape, String size, String contents) {
+        return instance(id, "shape", shape, "size", size, "contents", contents);
+    }
+
+    private static IKnowledgeInstance instance(String id, String... features) {
+        final Map<String, String> attributes = newLinkedHashMap();
+        for (int i = 0; i < features.length; i += 2) {
+            attributes.put(features[i], features[i + 1]);
+        }
+        return new KnowledgeInstance("Container", id, attributes);
+    }
+}
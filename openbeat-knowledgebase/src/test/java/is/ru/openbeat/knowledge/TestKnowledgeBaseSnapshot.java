@@ -0,0 +1,177 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import is.ru.openbeat.behavior.Arm;
+import is.ru.openbeat.behavior.GestureBehavior;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.Map;
+
+public class TestKnowledgeBaseSnapshot {
+    private File source;
+    private KnowledgeBaseHolder holder;
+
+    @Before
+    public void setUp() throws IOException {
+        source = File.createTempFile("knowledge", ".yaml");
+        write("the source");
+
+        final Map<String, String> attributes = newLinkedHashMap();
+        attributes.put("shape", "Square");
+        attributes.put("size", "Small");
+        attributes.put("contents", "Chocolates þór");
+        final Map<String, String> noAttributes = newLinkedHashMap();
+
+        final KnowledgeScene scene = new KnowledgeScene("Scene1", newArrayList("Box1", "Stairs1"));
+        scene.setPersons(newArrayList((IKnowledgePerson) new KnowledgePerson("Ari", IKnowledgePerson.Role.PARTICIPANT),
+            new KnowledgePerson("Gulli", null)));
+
+        final GestureBehavior beat = new GestureBehavior("beat", "offer", null, IGesture.GestureType.RIGHT);
+        beat.setPriority(10);
+
+        holder = new KnowledgeBaseHolder();
+        holder.setTypes(newArrayList((IKnowledgeType) new KnowledgeType("Container", "object", newArrayList(
+            (IKnowledgeFeature) new KnowledgeFeature("size", "Large", IKnowledgeFeature.FeatureType.SYM),
+            new KnowledgeFeature("age", "0-5", IKnowledgeFeature.FeatureType.NUM)))));
+        holder.setInstances(newArrayList((IKnowledgeInstance) new KnowledgeInstance("Container", "Box1", attributes),
+            new KnowledgeInstance("Stairs", "Stairs1", noAttributes)));
+        holder.setScenes(newArrayList((IKnowledgeScene) scene));
+        holder.setGestures(newArrayList((IGesture) new GestureBehavior("iconic", "square", newArrayList(
+            (IArm) new Arm("cup", "up", IArm.ArmType.LEFT), new Arm("flat", null, IArm.ArmType.RIGHT))), beat));
+    }
+
+    @After
+    public void tearDown() {
+        source.delete();
+        KnowledgeBaseSnapshot.fileFor(source).delete();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        final KnowledgeBaseHolder read = KnowledgeBaseSnapshot.readIfFresh(source);
+
+        assertThat(read, is(notNullValue()));
+        assertThat(read.getTypes(), is(equalTo(holder.getTypes())));
+        assertThat(read.getTypes().get(0).getFeatures(), is(equalTo(holder.getTypes().get(0).getFeatures())));
+        assertThat(read.getInstances(), is(equalTo(holder.getInstances())));
+        assertThat(read.getInstances().get(0).getAttributes(),
+            is(equalTo(holder.getInstances().get(0).getAttributes())));
+        assertThat(read.getScenes(), is(equalTo(holder.getScenes())));
+        assertThat(read.getScenes().get(0).getObjects(), is(equalTo(holder.getScenes().get(0).getObjects())));
+        assertThat(read.getScenes().get(0).getPersons().get(0).getRole(), is(IKnowledgePerson.Role.PARTICIPANT));
+        assertThat(read.getScenes().get(0).getPersons().get(1).getRole(), is(nullValue()));
+        assertThat(read.getGestures(), is(equalTo(holder.getGestures())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNumericValue() throws IOException {
+        // Yaml reads some values as numbers
+        ((Map) holder.getInstances().get(0).getAttributes()).put("bits", 16);
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source).getInstances().get(0).getValue("bits"), is("16"));
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(nullValue()));
+
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        write("the source, changed");
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(nullValue()));
+
+        // a change that keeps the length is caught by the checksum
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        write("the SOURCE, changed");
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(nullValue()));
+    }
+
+    @Test
+    public void testChangedWhileCompiling() throws IOException {
+        // the snapshot records the content that was parsed, not the file as it is when the snapshot is written
+        final KnowledgeBaseSource parsed = KnowledgeBaseSource.read(source);
+        write("the SOURCE, changed");
+        KnowledgeBaseSnapshot.write(holder, parsed);
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(nullValue()));
+
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(notNullValue()));
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        KnowledgeBaseSnapshot.write(holder, KnowledgeBaseSource.read(source));
+        final RandomAccessFile file = new RandomAccessFile(KnowledgeBaseSnapshot.fileFor(source), "rw");
+        try {
+            file.setLength(file.length() - 3);
+        } finally {
+            file.close();
+        }
+        assertThat(KnowledgeBaseSnapshot.readIfFresh(source), is(nullValue()));
+    }
+
+    private void write(String content) throws IOException {
+        final Writer writer = new FileWriter(source);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import is.ru.openbeat.behavior.GestureBehavior;
+import is.ru.openbeat.participation.Participant;
+import is.ru.openbeat.participation.ParticipationFrameworkBase;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class TestKnowledgeBaseTransaction {
+    private ReloadingKnowledgeBase knowledgeBase;
+
+    @Before
+    public void setUp() {
+        final KnowledgeScene kitchen = new KnowledgeScene("Kitchen", newArrayList("Box1"));
+        kitchen.setPersons(newArrayList(
+            (IKnowledgePerson) new KnowledgePerson("Ari", IKnowledgePerson.Role.PARTICIPANT)));
+
+        final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+        holder.setInstances(newArrayList((IKnowledgeInstance) instance("Box1")));
+        holder.setScenes(newArrayList((IKnowledgeScene) kitchen, new KnowledgeScene("Hall", newArrayList("Stairs1"))));
+        holder.setGestures(newArrayList(
+            (IGesture) new GestureBehavior("iconic", "square", null, IGesture.GestureType.RIGHT)));
+        knowledgeBase = new ReloadingKnowledgeBase(new KnowledgeBase(holder));
+    }
+
+    @Test
+    public void testCommit() {
+        final IKnowledgeBase before = knowledgeBase.snapshot();
+        knowledgeBase.commit(new KnowledgeBaseTransaction()
+            .addInstance(instance("Ball1"))
+            .moveObject("Ball1", null, "Hall")
+            .moveObject("Box1", "Kitchen", null)
+            .removeInstance("Box1")
+            .addPerson("Hall", new KnowledgePerson("Gulli", IKnowledgePerson.Role.PARTICIPANT))
+            .removePerson("Kitchen", "Ari")
+            .addGesture(new GestureBehavior("iconic", "round", null, IGesture.GestureType.LEFT)));
+
+        assertThat(knowledgeBase.getInstance("Ball1"), is(notNullValue()));
+        assertThat(knowledgeBase.getInstance("Box1"), is(nullValue()));
+        assertThat(knowledgeBase.getBestInstanceMatch("a Round thing").getId(), is("Ball1"));
+        assertThat(knowledgeBase.isObservable("Hall", "Ball1"), is(true));
+        assertThat(knowledgeBase.isObservable("Kitchen", "Box1"), is(false));
+        assertThat(knowledgeBase.getScene("Hall").getParticipants().size(), is(1));
+        assertThat(knowledgeBase.getScene("Kitchen").getParticipants().size(), is(0));
+        assertThat(knowledgeBase.getGesture("ROUND"), is(notNullValue()));
+
+        // the version read before is not changed
+        assertThat(before.getInstance("Box1"), is(notNullValue()));
+        assertThat(before.getInstance("Ball1"), is(nullValue()));
+        assertThat(before.isObservable("Kitchen", "Box1"), is(true));
+        assertThat(before.getScene("Kitchen").getParticipants().size(), is(1));
+        assertThat(before.getGesture("round"), is(nullValue()));
+    }
+
+    @Test
+    public void testSharedIndices() {
+        final KnowledgeBase before = (KnowledgeBase) knowledgeBase.snapshot();
+        final IKnowledgeInstance box = before.getInstance("Box1");
+
+        // a change to the scenes only shares the instances, their matcher and surprising values
+        final KnowledgeBase moved = knowledgeBase.commit(new KnowledgeBaseTransaction()
+            .moveObject("Box1", "Kitchen", null)
+            .addPerson("Kitchen", new KnowledgePerson("Gulli", IKnowledgePerson.Role.PARTICIPANT)));
+        assertThat(moved.getInput().getInstances(), is(sameInstance(before.getInput().getInstances())));
+        assertThat(moved.getInput().getGestures(), is(sameInstance(before.getInput().getGestures())));
+        assertThat(moved.getMatcher(), is(sameInstance(before.getMatcher())));
+        assertThat(moved.getInstance("Box1"), is(sameInstance(box)));
+        assertThat(moved.isObservable("Kitchen", "Box1"), is(false));
+        assertThat(moved.isObservable("Kitchen", "Gulli"), is(true));
+        assertThat(moved.getScene("Hall"), is(sameInstance(before.getScene("Hall"))));
+
+        // a change to the instances builds their indices again
+        final KnowledgeBase added = knowledgeBase.commit(new KnowledgeBaseTransaction().addInstance(instance("Ball1")));
+        assertThat(added.getMatcher(), is(not(sameInstance(moved.getMatcher()))));
+        assertThat(added.getInput().getScenes(), is(sameInstance(moved.getInput().getScenes())));
+        assertThat(added.getBestInstanceMatch("a Round thing").getId(), is("Ball1"));
+        assertThat(added.isObservable("Kitchen", "Gulli"), is(true));
+    }
+
+    @Test
+    public void testReplaceInstance() {
+        final IKnowledgeInstance box = instance("Box1");
+        final KnowledgeBase replaced = knowledgeBase.commit(new KnowledgeBaseTransaction()
+            .addInstance(instance("Ball1"))
+            .removeInstance("Box1")
+            .addInstance(box)
+            .removeInstance("Ball1"));
+        assertThat(replaced.getAllInstances().size(), is(1));
+        assertThat(replaced.getInstance("Box1"), is(sameInstance(box)));
+        assertThat(replaced.getInstance("Ball1"), is(nullValue()));
+
+        try {
+            knowledgeBase.commit(new KnowledgeBaseTransaction()
+                .addInstance(instance("Ball1"))
+                .removeInstance("Ball1")
+                .removeInstance("Ball1"));
+            throw new AssertionError("The instance was removed");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPinned() {
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                knowledgeBase.commit(new KnowledgeBaseTransaction().moveObject("Box1", "Kitchen", "Hall"));
+                assertThat(knowledgeBase.isObservable("Kitchen", "Box1"), is(true));
+            }
+        });
+        assertThat(knowledgeBase.isObservable("Hall", "Box1"), is(true));
+        assertThat(knowledgeBase.isObservable("Kitchen", "Box1"), is(false));
+    }
+
+    @Test
+    public void testFailedChange() {
+        final IKnowledgeBase before = knowledgeBase.snapshot();
+        try {
+            knowledgeBase.commit(new KnowledgeBaseTransaction()
+                .addInstance(instance("Ball1"))
+                .moveObject("Ball1", "Kitchen", "Hall"));
+            throw new AssertionError("The object is not in the kitchen");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertThat(knowledgeBase.snapshot(), is(sameInstance(before)));
+
+        try {
+            knowledgeBase.commit(new KnowledgeBaseTransaction().addInstance(instance("Box1")));
+            throw new AssertionError("The id is in use");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertThat(knowledgeBase.snapshot(), is(sameInstance(before)));
+    }
+
+    @Test
+    public void testParticipants() {
+        final ParticipationFrameworkBase frameworkBase = new ParticipationFrameworkBase(knowledgeBase);
+        frameworkBase.setCurrentScene(knowledgeBase.getScene("Kitchen"));
+        frameworkBase.getCurrentParticipationFramework().setSpeaker("Ari");
+        assertThat(names(frameworkBase.getCurrentParticipationFramework().getHearers()).isEmpty(), is(true));
+
+        knowledgeBase.commit(new KnowledgeBaseTransaction()
+            .addPerson("Kitchen", new KnowledgePerson("Gulli", IKnowledgePerson.Role.PARTICIPANT)));
+        assertThat(names(frameworkBase.getCurrentParticipationFramework().getHearers()),
+            is(equalTo(newArrayList("Gulli"))));
+        assertThat(frameworkBase.getCurrentParticipationFramework().getSpeaker().getName(), is("Ari"));
+
+        knowledgeBase.commit(new KnowledgeBaseTransaction().removePerson("Kitchen", "Ari"));
+        assertThat(names(frameworkBase.getCurrentParticipationFramework().getHearers()),
+            is(equalTo(newArrayList("Gulli"))));
+        assertThat(frameworkBase.getCurrentParticipationFramework().getSpeaker(), is(nullValue()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        knowledgeBase.getAllInstances().add(instance("Ball1"));
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        final List<Thread> writers = newArrayList();
+        for (int i = 0; i < 4; i++) {
+            final int writer = i;
+            writers.add(new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 25; j++) {
+                        knowledgeBase.commit(new KnowledgeBaseTransaction()
+                            .addInstance(instance("Ball" + writer + "-" + j))
+                            .moveObject("Ball" + writer + "-" + j, null, "Hall"));
+                    }
+                }
+            });
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(knowledgeBase.getAllInstances().size(), is(101));
+        assertThat(knowledgeBase.getScene("Hall").getObjects().size(), is(101));
+    }
+
+    private static List<String> names(Iterable<Participant> participants) {
+        final List<String> names = newArrayList();
+        for (Participant participant : participants) {
+            names.add(participant.getName());
+        }
+        return names;
+    }
+
+    private static IKnowledgeInstance instance(String id) {
+        final Map<String, String> attributes = newLinkedHashMap();
+        attributes.put("shape", id.startsWith("Ball") ? "Round" : "Square");
+        return new KnowledgeInstance("Container", id, attributes);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestKnowledgeScene {
+    private KnowledgeScene scene;
+
+    @Before
+    public void setUp() {
+        scene = new KnowledgeScene("Kitchen", newArrayList("Box1", "Table1"));
+        scene.setPersons(newArrayList((IKnowledgePerson) new KnowledgePerson("Ari", IKnowledgePerson.Role.PARTICIPANT),
+            new KnowledgePerson("Gulli", IKnowledgePerson.Role.BYSTANDER)));
+    }
+
+    @Test
+    public void testContainsObject() {
+        assertThat(scene.containsObject("Box1"), is(true));
+        assertThat(scene.containsObject("Gulli"), is(true));
+        assertThat(scene.containsObject("Ball1"), is(false));
+
+        scene.setObjects(newArrayList("Ball1"));
+        assertThat(scene.containsObject("Box1"), is(false));
+        assertThat(scene.containsObject("Ball1"), is(true));
+    }
+
+    @Test
+    public void testParticipants() {
+        assertThat(scene.getParticipants().size(), is(1));
+        assertThat(scene.getParticipants(), is(sameInstance(scene.getParticipants())));
+
+        scene.setPersons(newArrayList((IKnowledgePerson) new KnowledgePerson("Ari", IKnowledgePerson.Role.PARTICIPANT),
+            new KnowledgePerson("Gulli", IKnowledgePerson.Role.PARTICIPANT)));
+        assertThat(scene.getParticipants().size(), is(2));
+    }
+
+    @Test
+    public void testObservable() {
+        final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+        holder.setScenes(newArrayList((IKnowledgeScene) scene, new KnowledgeScene("Hall", newArrayList("Box1")),
+            new KnowledgeScene("Kitchen", newArrayList("Stairs1"))));
+        final KnowledgeBase knowledgeBase = new KnowledgeBase(holder);
+
+        assertThat(knowledgeBase.isObservable("Kitchen", "Box1"), is(true));
+        assertThat(knowledgeBase.isObservable("Hall", "Box1"), is(true));
+        assertThat(knowledgeBase.isObservable("Kitchen", "Ari"), is(true));
+        assertThat(knowledgeBase.isObservable("Hall", "Ari"), is(false));
+        // the first scene of an id wins
+        assertThat(knowledgeBase.isObservable("Kitchen", "Stairs1"), is(false));
+        assertThat(knowledgeBase.isObservable("Unknown", "Box1"), is(false));
+    }
+}
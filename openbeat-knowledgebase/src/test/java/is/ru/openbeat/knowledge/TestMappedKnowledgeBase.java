@@ -0,0 +1,216 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import com.google.inject.Provider;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import is.ru.openbeat.behavior.Arm;
+import is.ru.openbeat.behavior.GestureBehavior;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+public class TestMappedKnowledgeBase {
+    private File source;
+    private KnowledgeBaseHolder holder;
+    private KnowledgeBase heap;
+    private MappedKnowledgeBase mapped;
+
+    @Before
+    public void setUp() throws IOException {
+        source = File.createTempFile("knowledge", ".yaml");
+        write(source, "the source");
+
+        final Map<String, String> box = newLinkedHashMap();
+        box.put("shape", "Square");
+        box.put("size", "Small");
+        box.put("contents", "Chocolates þór");
+        final Map<String, String> crate = newLinkedHashMap();
+        crate.put("shape", "Square");
+        crate.put("size", "Large");
+        final Map<String, String> noAttributes = newLinkedHashMap();
+
+        final KnowledgeScene scene = new KnowledgeScene("Scene1", newArrayList("Box1", "Stairs1"));
+        scene.setPersons(newArrayList((IKnowledgePerson) new KnowledgePerson("Ari", IKnowledgePerson.Role.PARTICIPANT)));
+
+        final GestureBehavior beat = new GestureBehavior("beat", "Offer", null, IGesture.GestureType.RIGHT);
+        beat.setPriority(10);
+
+        holder = new KnowledgeBaseHolder();
+        holder.setTypes(newArrayList((IKnowledgeType) new KnowledgeType("Container", "object", newArrayList(
+            (IKnowledgeFeature) new KnowledgeFeature("size", "Large", IKnowledgeFeature.FeatureType.SYM)))));
+        holder.setInstances(newArrayList((IKnowledgeInstance) new KnowledgeInstance("Container", "Box1", box),
+            new KnowledgeInstance("Container", "Crate1", crate), new KnowledgeInstance("Stairs", "Stairs1", noAttributes)));
+        holder.setScenes(newArrayList((IKnowledgeScene) scene));
+        holder.setGestures(newArrayList((IGesture) new GestureBehavior("iconic", "square", newArrayList(
+            (IArm) new Arm("cup", "up", IArm.ArmType.LEFT), new Arm("flat", null, IArm.ArmType.LEFT))), beat));
+
+        heap = new KnowledgeBase(holder);
+        MappedKnowledgeBase.write(holder, KnowledgeBaseSource.read(source));
+        mapped = MappedKnowledgeBase.openIfFresh(source);
+    }
+
+    @After
+    public void tearDown() {
+        source.delete();
+        MappedKnowledgeBase.fileFor(source).delete();
+    }
+
+    @Test
+    public void testInstances() {
+        assertThat(mapped.getAllInstances().size(), is(3));
+        assertThat(mapped.getInstance("Unknown"), is(nullValue()));
+
+        for (IKnowledgeInstance expected : holder.getInstances()) {
+            final IKnowledgeInstance instance = mapped.getInstance(expected.getId());
+            assertThat(instance.getId(), is(expected.getId()));
+            assertThat(instance.getInstanceOf(), is(expected.getInstanceOf()));
+            assertThat(instance.getAttributes(), is(equalTo(expected.getAttributes())));
+            assertThat(newArrayList(instance.getAllValues()), is(equalTo(newArrayList(expected.getAllValues()))));
+            assertThat(instance.getValue("size"), is(expected.getValue("size")));
+            assertThat(instance.getSurprisingValue(mapped), is(expected.getSurprisingValue(heap)));
+            assertThat(instance.getSurprisingValue(heap), is(expected.getSurprisingValue(heap)));
+            assertThat(mapped.getSurprisingValue(instance), is(heap.getSurprisingValue(expected)));
+            assertThat(heap.getSurprisingValue(instance), is(heap.getSurprisingValue(expected)));
+            assertThat(instance, is(equalTo(mapped.getInstance(expected.getId()))));
+        }
+        assertThat(mapped.getInstance("Box1").getSurprisingValue(mapped), is("Small"));
+        assertThat(mapped.getSurprisingValue(mapped.getInstance("Box1")), is("Small"));
+    }
+
+    @Test
+    public void testBestInstanceMatch() {
+        for (String description : newArrayList("the Small box", "a Large Square", "a Square", "nothing")) {
+            final IKnowledgeInstance expected = heap.getBestInstanceMatch(description);
+            final IKnowledgeInstance instance = mapped.getBestInstanceMatch(description);
+            assertThat(instance != null ? instance.getId() : null, is(expected != null ? expected.getId() : null));
+        }
+        assertThat(mapped.getBestInstanceMatch("a Large Square").getId(), is("Crate1"));
+    }
+
+    @Test
+    public void testNoFuzzyMatch() {
+        final FuzzyKnowledgeBase fuzzy = new FuzzyKnowledgeBase(new ReloadingKnowledgeBase(mapped));
+        fuzzy.setThreshold(new Provider<Double>() {
+            public Double get() {
+                return 0.5;
+            }
+        });
+        assertThat(fuzzy.getBestInstanceMatch("a Large Square").getId(), is("Crate1"));
+        assertThat(fuzzy.getBestInstanceMatch("the box of choclates"), is(nullValue()));
+    }
+
+    @Test
+    public void testGestures() {
+        assertThat(mapped.getGesture("SQUARE"), is(equalTo(heap.getGesture("SQUARE"))));
+        assertThat(mapped.getGesture("offer"), is(equalTo(heap.getGesture("offer"))));
+        assertThat(mapped.getGesture("offer").getPriority(), is(10));
+        assertThat(mapped.getCompactGesture("square"), is(equalTo(heap.getCompactGesture("square"))));
+        assertThat(mapped.getCompactGesture("square").getGestureType(), is(IGesture.GestureType.LEFT));
+        assertThat(mapped.getGesture("unknown"), is(nullValue()));
+
+        // each gesture is decoded once and shared
+        assertThat(mapped.getGesture("square"), is(sameInstance(mapped.getGesture("SQUARE"))));
+        assertThat(mapped.getCompactGesture("square"), is(sameInstance(mapped.getCompactGesture("Square"))));
+        assertThat(mapped.getCompactGesture("square"), is(not(sameInstance(mapped.getGesture("square")))));
+    }
+
+    @Test
+    public void testElements() {
+        assertThat(mapped.getAllTypes(), is(equalTo(holder.getTypes())));
+        assertThat(mapped.getType("Container").getFeatures(), is(equalTo(holder.getTypes().get(0).getFeatures())));
+        assertThat(mapped.getAllScenes(), is(equalTo(holder.getScenes())));
+        assertThat(mapped.getScene("Scene1").getPersons().get(0).getRole(), is(IKnowledgePerson.Role.PARTICIPANT));
+        assertThat(mapped.isObservable("Scene1", "Box1"), is(true));
+        assertThat(mapped.isObservable("Scene1", "Crate1"), is(false));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        mapped.getInstance("Box1").setId("Box2");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyScenes() {
+        mapped.getAllScenes().clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyTypes() {
+        mapped.getAllTypes().clear();
+    }
+
+    @Test
+    public void testStale() throws IOException {
+        assertThat(mapped, is(notNullValue()));
+        write(source, "the SOURCE");
+        assertThat(MappedKnowledgeBase.openIfFresh(source), is(nullValue()));
+    }
+
+    @Test
+    public void testOtherFile() throws IOException {
+        write(MappedKnowledgeBase.fileFor(source), "not a knowledge base");
+        assertThat(MappedKnowledgeBase.openIfFresh(source), is(nullValue()));
+    }
+
+    private void write(File file, String content) throws IOException {
+        final Writer writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+}
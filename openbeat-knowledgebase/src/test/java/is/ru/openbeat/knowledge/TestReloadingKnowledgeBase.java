@@ -0,0 +1,219 @@
+/*
+ * OpenBEAT
+ *
+ * Arni Hermann Reynisson     arnir06@ru.is
+ * Eirikur Ari Petursson      eirikurp06@ru.is
+ * Gudleifur Kristjansson     gudleifur05@ru.is
+ * Hannes Hogni Vilhjalmsson  hannes@ru.is
+ *
+ * Copyright(c) 2009 Center for Analysis and Design of Intelligent Agents
+ *                   Reykjavik University
+ *                   All rights reserved
+ *
+ *                   http://cadia.ru.is/
+ *
+ * Based on BEAT, Copyright(c) 2000-2001 by MIT Media Lab,
+ * developed by Hannes Vilhjalmsson, Timothy Bickmore, Yang Gao and Justine Cassell
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted provided that the following conditions
+ * are met:
+ *
+ * - Redistributions of source code must retain the above copyright notice,
+ *   this list of conditions and the following disclaimer.
+ *
+ * - Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * - Neither the name of its copyright holders nor the names of its
+ *   contributors may be used to endorse or promote products derived from
+ *   this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package is.ru.openbeat.knowledge;
+
+import com.google.common.base.Function;
+import com.google.common.base.Nullable;
+import static com.google.common.collect.Lists.newArrayList;
+import is.ru.openbeat.pipeline.PipelineSession;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestReloadingKnowledgeBase {
+    private File file;
+    private ReloadingKnowledgeBase knowledgeBase;
+    private KnowledgeBaseReloader reloader;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("knowledge", ".txt");
+        write("first");
+        knowledgeBase = new ReloadingKnowledgeBase(knowledgeBase("first"));
+
+        // the file holds the id of a single scene
+        reloader = new KnowledgeBaseReloader(file, knowledgeBase, new Function<Reader, KnowledgeBaseHolder>() {
+            public KnowledgeBaseHolder apply(@Nullable Reader reader) {
+                try {
+                    final String id = new BufferedReader(reader).readLine();
+                    if ("broken".equals(id)) {
+                        throw new IllegalArgumentException("Can't parse " + id);
+                    }
+                    return holder(id);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        reloader.stop();
+        file.delete();
+    }
+
+    @Test
+    public void testPublish() {
+        knowledgeBase.publish(knowledgeBase("second"));
+        assertThat(knowledgeBase.getScene("first"), is(nullValue()));
+        assertThat(knowledgeBase.getScene("second"), is(notNullValue()));
+    }
+
+    @Test
+    public void testPin() throws Exception {
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                knowledgeBase.publish(knowledgeBase("second"));
+                assertThat(knowledgeBase.getScene("first"), is(notNullValue()));
+                assertThat(knowledgeBase.getScene("second"), is(nullValue()));
+            }
+        });
+        assertThat(knowledgeBase.getScene("second"), is(notNullValue()));
+
+        // other sessions read the latest version
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                knowledgeBase.publish(knowledgeBase("third"));
+                try {
+                    assertThat(new PipelineSession().call(new Callable<IKnowledgeScene>() {
+                        public IKnowledgeScene call() {
+                            return knowledgeBase.getScene("third");
+                        }
+                    }), is(notNullValue()));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentPins() throws InterruptedException {
+        final CountDownLatch firstPinned = new CountDownLatch(1);
+        final CountDownLatch secondPinned = new CountDownLatch(1);
+        final CountDownLatch firstDone = new CountDownLatch(1);
+        final AtomicReference<IKnowledgeScene> seen = new AtomicReference<IKnowledgeScene>();
+
+        // both runs are in the default session, the version stays pinned until the second one is done
+        final Thread second = new Thread() {
+            @Override
+            public void run() {
+                await(firstPinned);
+                knowledgeBase.pin(new Runnable() {
+                    public void run() {
+                        secondPinned.countDown();
+                        await(firstDone);
+                        seen.set(knowledgeBase.getScene("first"));
+                    }
+                });
+            }
+        };
+        second.start();
+        knowledgeBase.pin(new Runnable() {
+            public void run() {
+                firstPinned.countDown();
+                await(secondPinned);
+                knowledgeBase.publish(knowledgeBase("second"));
+            }
+        });
+        firstDone.countDown();
+        second.join();
+
+        assertThat(seen.get(), is(notNullValue()));
+        assertThat(knowledgeBase.getScene("second"), is(notNullValue()));
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        write("second");
+        assertThat(reloader.reload(), is(true));
+        assertThat(knowledgeBase.getScene("second"), is(notNullValue()));
+
+        write("broken");
+        assertThat(reloader.reload(), is(false));
+        assertThat(knowledgeBase.getScene("second"), is(notNullValue()));
+    }
+
+    @Test
+    public void testCheck() throws IOException {
+        reloader.check();
+        assertThat(knowledgeBase.getScene("first"), is(notNullValue()));
+
+        write("second!");
+        reloader.check();
+        assertThat(knowledgeBase.getScene("second!"), is(notNullValue()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void write(String id) throws IOException {
+        final Writer writer = new FileWriter(file);
+        try {
+            writer.write(id);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static KnowledgeBase knowledgeBase(String sceneId) {
+        return new KnowledgeBase(holder(sceneId));
+    }
+
+    private static KnowledgeBaseHolder holder(String sceneId) {
+        final KnowledgeBaseHolder holder = new KnowledgeBaseHolder();
+        holder.setScenes(newArrayList((IKnowledgeScene) new KnowledgeScene(sceneId, newArrayList("object"))));
+        return holder;
+    }
+}
@@ -232,5 +232,51 @@ public class TestJsonKnowledgeBase extends AbstractModule {
 
         log.debug("Observable: {}", kb.isObservable("Local", "House1"));
         assertThat(kb.isObservable("Local", "House1"), is(true));
+        assertThat(kb.isObservable("Local", "Truck1"), is(false));
+        assertThat(kb.isObservable("Unknown", "House1"), is(false));
+    }
+
+    @Test
+    public void testLookups() {
+        assertThat(kb.getInstance("Truck1"), is(Matchers.<IKnowledgeInstance>equalTo(
+            new KnowledgeInstance("Auto", "Truck1", of("type", "Truck")))));
+        assertThat(kb.getInstance("Unknown"), Matchers.<IKnowledgeInstance>nullValue());
+
+        assertThat(kb.getType("teacher").getKlass(), is("personality"));
+        assertThat(kb.getType("Unknown"), Matchers.<IKnowledgeType>nullValue());
+
+        assertThat(kb.getGesture("optimized").getValue(), is("optimized"));
+        assertThat(kb.getGesture("OPTIMIZED"), Matchers.sameInstance(kb.getGesture("optimized")));
+        assertThat(kb.getGesture("Unknown"), Matchers.<IGesture>nullValue());
+        assertThat(kb.getGesture(null), Matchers.<IGesture>nullValue());
+    }
+
+    @Test
+    public void testTypical() {
+        final KnowledgeFeature age = new KnowledgeFeature("age", "20-30", KnowledgeFeature.FeatureType.NUM);
+        assertThat(age.isTypical("25"), is(true));
+        assertThat(age.isTypical("30"), is(true));
+        assertThat(age.isTypical("31"), is(false));
+        assertThat(age.isTypical("old"), is(false));
+        assertThat(age.isTypical(null), is(false));
+
+        age.setTypical("65");
+        assertThat(age.isTypical("65"), is(true));
+        assertThat(age.isTypical("25"), is(false));
+
+        final KnowledgeFeature role = new KnowledgeFeature("role", "real", KnowledgeFeature.FeatureType.SYM);
+        assertThat(role.isTypical("real"), is(true));
+        assertThat(role.isTypical("Actor"), is(false));
+        role.setTypical("any");
+        assertThat(role.isTypical("Actor"), is(true));
+    }
+
+    @Test
+    public void testBestInstanceMatch() {
+        assertThat(kb.getBestInstanceMatch("a large House").getId(), is("House1"));
+        assertThat(kb.getBestInstanceMatch("the W.G.N.L. sign, Wgnl for short").getId(), is("Wgnl"));
+        assertThat(kb.getBestInstanceMatch("a Blue Truck with a Texture").getId(), is("Truck1"));
+        assertThat(kb.getBestInstanceMatch("a Truck with a Texture"), Matchers.<IKnowledgeInstance>nullValue());
+        assertThat(kb.getBestInstanceMatch("nothing at all"), Matchers.<IKnowledgeInstance>nullValue());
     }
 }
@@ -87,7 +87,7 @@ class McNeillCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleRheme(StringBuilder sb, Rheme rheme) {
+    void handleRheme(StringBuilder sb, Rheme rheme) {
         final List<IMcNeillProducer> producers = findProducers(rheme);
         executePrefix(sb, producers);
         for (IFeatureStructure featureStructure : rheme.getPhrases()) {
@@ -97,7 +97,7 @@ class McNeillCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleTheme(StringBuilder sb, Theme theme) {
+    void handleTheme(StringBuilder sb, Theme theme) {
         final List<IMcNeillProducer> producers = findProducers(theme);
         executePrefix(sb, producers);
         for (IFeatureStructure featureStructure : theme.getPhrases()) {
@@ -107,7 +107,7 @@ class McNeillCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleConstituent(StringBuilder sb, Constituent constituent) {
+    void handleConstituent(StringBuilder sb, Constituent constituent) {
         final List<IMcNeillProducer> producers = findProducers(constituent);
         executePrefix(sb, producers);
         for (IFeatureStructure featureStructure : constituent.getFeatures()) {
@@ -117,7 +117,7 @@ class McNeillCompiler implements ICompiler {
     }
 
     @Multi
-    private void handleWord(StringBuilder sb, Word word) {
+    void handleWord(StringBuilder sb, Word word) {
         final List<IMcNeillProducer> producers = findProducers(word);
         executePrefix(sb, producers);
         sb.append(word.getToken());
@@ -141,7 +141,7 @@ class McNeillCompiler implements ICompiler {
     }
 
     @Multi
-    private IMcNeillProducer matchProducer(IMcNeillProducer mcNeillProducer) {
+    IMcNeillProducer matchProducer(IMcNeillProducer mcNeillProducer) {
         log.debug("Received McNeill producer {}", mcNeillProducer);
         return mcNeillProducer;
     }
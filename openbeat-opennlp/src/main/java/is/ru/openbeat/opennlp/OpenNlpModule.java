@@ -49,10 +49,12 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Named;
 import is.ru.openbeat.discourse.IDictionarySource;
 import is.ru.openbeat.discourse.IDiscourseModel;
 import is.ru.openbeat.discourse.IDiscourseTagger;
 import is.ru.openbeat.pipeline.INlpSource;
+import opennlp.maxent.GISModel;
 import opennlp.maxent.io.BinaryGISModelReader;
 import opennlp.maxent.io.GISModelReader;
 import opennlp.maxent.io.PlainTextGISModelReader;
@@ -79,9 +81,38 @@ public class OpenNlpModule extends AbstractModule {
 
     @Provides
     @Singleton
-    public SentenceDetector createSentenceDetector() throws IOException {
-        return new SentenceDetectorME(
-            createGisModelReader(OPENNLP_PATH_PREFIX + "english/sentdetect/EnglishSD.bin.gz").getModel()) {
+    @Named("opennlp.sentdetect")
+    public GISModel createSentenceDetectorModel() throws IOException {
+        return createGisModelReader(OPENNLP_PATH_PREFIX + "english/sentdetect/EnglishSD.bin.gz").getModel();
+    }
+
+    @Provides
+    @Singleton
+    @Named("opennlp.tokenize")
+    public GISModel createTokenizerModel() throws IOException {
+        return createGisModelReader(OPENNLP_PATH_PREFIX + "english/tokenize/EnglishTok.bin.gz").getModel();
+    }
+
+    @Provides
+    @Singleton
+    @Named("opennlp.postag")
+    public GISModel createPosTaggerModel() throws IOException {
+        return createGisModelReader(OPENNLP_PATH_PREFIX + "english/postag/tag.bin.gz").getModel();
+    }
+
+    @Provides
+    @Singleton
+    @Named("opennlp.chunker")
+    public GISModel createChunkerModel() throws IOException {
+        return createGisModelReader(OPENNLP_PATH_PREFIX + "english/chunker/EnglishChunk.bin.gz").getModel();
+    }
+
+    // the models and the tag dictionary are only read once loaded and are shared, while the tools below keep the
+    // state of the sentence they are working on and are created for each thread of the OpenNlpSource
+
+    @Provides
+    public SentenceDetector createSentenceDetector(@Named("opennlp.sentdetect") GISModel model) {
+        return new SentenceDetectorME(model) {
             {
                 useTokenEnd = true;
             }
@@ -89,10 +120,8 @@ public class OpenNlpModule extends AbstractModule {
     }
 
     @Provides
-    @Singleton
-    public Tokenizer createTokenizer() throws IOException {
-        return new Tokenizer(
-            createGisModelReader(OPENNLP_PATH_PREFIX + "english/tokenize/EnglishTok.bin.gz").getModel());
+    public Tokenizer createTokenizer(@Named("opennlp.tokenize") GISModel model) {
+        return new Tokenizer(model);
     }
 
     @Provides
@@ -104,17 +133,13 @@ public class OpenNlpModule extends AbstractModule {
     }
 
     @Provides
-    @Singleton
-    public POSTagger createPosTagger(TagDictionary tagDictionary) throws IOException {
-        return new POSTaggerME(createGisModelReader(OPENNLP_PATH_PREFIX + "english/postag/tag.bin.gz").getModel(),
-            new DefaultPOSContextGenerator(null), tagDictionary);
+    public POSTagger createPosTagger(@Named("opennlp.postag") GISModel model, TagDictionary tagDictionary) {
+        return new POSTaggerME(model, new DefaultPOSContextGenerator(null), tagDictionary);
     }
 
     @Provides
-    @Singleton
-    public TreebankChunker createTreebankChunker() throws IOException {
-        return new TreebankChunker(
-            createGisModelReader(OPENNLP_PATH_PREFIX + "english/chunker/EnglishChunk.bin.gz").getModel());
+    public TreebankChunker createTreebankChunker(@Named("opennlp.chunker") GISModel model) {
+        return new TreebankChunker(model);
     }
 
     private GISModelReader createGisModelReader(String resource) throws IOException {
@@ -47,11 +47,13 @@ package is.ru.openbeat.opennlp;
 
 import static com.google.common.collect.Lists.newArrayList;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import is.ru.openbeat.discourse.*;
 import is.ru.openbeat.model.*;
 import static is.ru.openbeat.model.PhraseAttribute.*;
 import is.ru.openbeat.pipeline.INlpSource;
+import is.ru.openbeat.pipeline.ThreadConfined;
 import opennlp.tools.lang.english.Tokenizer;
 import opennlp.tools.lang.english.TreebankChunker;
 import opennlp.tools.postag.POSTagger;
@@ -65,12 +67,12 @@ import java.util.List;
 class OpenNlpSource implements INlpSource {
     private static final Logger log = LoggerFactory.getLogger(OpenNlpSource.class);
 
-    private final SentenceDetector sentenceDetector;
-    private final Tokenizer tokenizer;
-    private final POSTagger tagger;
-    private final TreebankChunker chunker;
+    private final ThreadConfined<SentenceDetector> sentenceDetector;
+    private final ThreadConfined<Tokenizer> tokenizer;
+    private final ThreadConfined<POSTagger> tagger;
+    private final ThreadConfined<TreebankChunker> chunker;
     private final OpenNlpTagResolver tagResolver;
-    private final IDiscourseTagger discourseTagger;
+    private final Provider<IDiscourseTagger> discourseTagger;
     private final InformationStructureBuilder informationStructureBuilder;
     private final InformationChunker informationChunker;
     private final IDictionarySource dictionarySource;
@@ -79,15 +81,16 @@ class OpenNlpSource implements INlpSource {
     private final VerbPhraseIdentifier verbPhraseIdentifier;
 
     @Inject
-    OpenNlpSource(SentenceDetector sentenceDetector, Tokenizer tokenizer, POSTagger tagger, TreebankChunker chunker,
-                  OpenNlpTagResolver tagResolver, IDiscourseTagger discourseTagger,
+    OpenNlpSource(Provider<SentenceDetector> sentenceDetector, Provider<Tokenizer> tokenizer,
+                  Provider<POSTagger> tagger, Provider<TreebankChunker> chunker,
+                  OpenNlpTagResolver tagResolver, Provider<IDiscourseTagger> discourseTagger,
                   InformationStructureBuilder informationStructureBuilder, InformationChunker informationChunker,
                   IDictionarySource dictionarySource, ContrastBuilder contrastBuilder,
                   NounPhraseIdentifier nounPhraseIdentifier, VerbPhraseIdentifier verbPhraseIdentifier) {
-        this.sentenceDetector = sentenceDetector;
-        this.tokenizer = tokenizer;
-        this.tagger = tagger;
-        this.chunker = chunker;
+        this.sentenceDetector = ThreadConfined.of(sentenceDetector);
+        this.tokenizer = ThreadConfined.of(tokenizer);
+        this.tagger = ThreadConfined.of(tagger);
+        this.chunker = ThreadConfined.of(chunker);
         this.tagResolver = tagResolver;
         this.discourseTagger = discourseTagger;
         this.informationStructureBuilder = informationStructureBuilder;
@@ -101,9 +104,17 @@ class OpenNlpSource implements INlpSource {
     public Utterance process(String text) {
         log.debug("Processing {}", text);
 
+        discourseTagger.get().nextUtterance();
+
         final List<Iterable<IFeatureStructure>> structure = newArrayList();
+        final WordTable words = new WordTable();
+
+        // the OpenNLP tools are not thread safe, each thread processing text uses its own instances
+        final Tokenizer tokenizer = this.tokenizer.get();
+        final POSTagger tagger = this.tagger.get();
+        final TreebankChunker chunker = this.chunker.get();
 
-        final String[] sentences = sentenceDetector.sentDetect(text);
+        final String[] sentences = sentenceDetector.get().sentDetect(text);
         for (String sentence : sentences) {
             log.debug("Processing sentence {}", sentence);
 
@@ -129,7 +140,7 @@ class OpenNlpSource implements INlpSource {
                 if (!chunkTag.equals(lastChunkTag) && !chunkFollowing) {
                     lastConstituent = buildConstituent(chunkFor(chunkTag));
                 }
-                lastConstituent.addFeature(buildWord(token, tag));
+                lastConstituent.addFeature(buildWord(words, token, tag));
 
                 lastChunkTag = chunkTag;
                 if (!chunkTag.equals(lastChunkTag) && !chunkFollowing) {
@@ -143,7 +154,7 @@ class OpenNlpSource implements INlpSource {
         log.debug("Built structure: ");
         for (Iterable<IFeatureStructure> sentenceStructure : structure) {
             log.debug("  {}", sentenceStructure);
-            discourseTagger.tag(sentenceStructure);
+            discourseTagger.get().tag(sentenceStructure);
         }
 
         // split feature structure (constituents and words) into complete information structure (with clauses & theme/rheme)
@@ -151,8 +162,8 @@ class OpenNlpSource implements INlpSource {
         for (Iterable<IFeatureStructure> sentenceStructure : structure) {
             final Iterable<Iterable<IFeatureStructure>> chunks = informationChunker.chunk(sentenceStructure);
             for (Iterable<IFeatureStructure> chunk : chunks) {
-                final Pair<IArticulation, IArticulation> articulations = informationStructureBuilder.buildInformationStructure(
-                    chunk);
+                final Pair<IArticulation, IArticulation> articulations =
+                    informationStructureBuilder.buildInformationStructure(chunk);
                 log.debug("Articulations: {}", articulations);
                 clauses.add(new Clause(articulations));
             }
@@ -171,7 +182,7 @@ class OpenNlpSource implements INlpSource {
     }
 
     public void clearState() {
-        discourseTagger.clearState();
+        discourseTagger.get().clearState();
     }
 
     private boolean matchingChunkTags(String chunk1, String chunk2) {
@@ -218,8 +229,8 @@ class OpenNlpSource implements INlpSource {
         });
     }
 
-    private Word buildWord(String token, String tag) {
-        final Word word = new Word(token, tagResolver.resolveAttributes(tag));
+    private Word buildWord(WordTable words, String token, String tag) {
+        final Word word = words.add(token, tagResolver.resolveAttributes(tag));
         word.setLemma(dictionarySource.findLemma(word));
         return word;
     }
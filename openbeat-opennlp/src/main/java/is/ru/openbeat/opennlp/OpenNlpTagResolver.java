@@ -52,14 +52,29 @@ import is.ru.openbeat.model.IWordAttribute;
 import static is.ru.openbeat.model.NumberAttribute.PLURAL;
 import static is.ru.openbeat.model.NumberAttribute.SINGULAR;
 import static is.ru.openbeat.model.PersonAttribute.THIRD;
+import is.ru.openbeat.model.WordAttributes;
 import is.ru.openbeat.model.WordClassAttribute;
 import static is.ru.openbeat.model.WordClassAttribute.PUNCTUATION;
 
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Singleton
 class OpenNlpTagResolver implements ITagResolver {
+    private final ConcurrentMap<String, Set<IWordAttribute>> cache =
+        new ConcurrentHashMap<String, Set<IWordAttribute>>();
+
     public Set<IWordAttribute> resolveAttributes(String tag) {
+        Set<IWordAttribute> attributes = cache.get(tag);
+        if (attributes == null) {
+            attributes = resolve(tag);
+            cache.put(tag, attributes);
+        }
+        return attributes;
+    }
+
+    private Set<IWordAttribute> resolve(String tag) {
         final Set<IWordAttribute> attributes = newHashSet();
         final IWordAttribute wordClass = resolveWordClass(tag);
         final IWordAttribute seperator = resolveSeperator(tag);
@@ -87,7 +102,7 @@ class OpenNlpTagResolver implements ITagResolver {
             attributes.add(person);
         }
 
-        return attributes;
+        return WordAttributes.of(attributes);
     }
 
     private IWordAttribute resolveSeperator(String tag) {